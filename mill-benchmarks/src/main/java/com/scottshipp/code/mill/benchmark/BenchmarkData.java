@@ -0,0 +1,101 @@
+package com.scottshipp.code.mill.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic input data shared by the benchmarks. Every generator uses a
+ * fixed seed so that runs are comparable with each other.
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 0x5EED_CAFEL;
+
+    private static final String[] USER_AGENTS = {
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/",
+            "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_14_2) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/12.0.2 Safari/",
+            "Mozilla/5.0 (X11; Linux x86_64; rv:64.0) Gecko/20100101 Firefox/",
+            "Mozilla/5.0 (iPhone; CPU iPhone OS 12_1 like Mac OS X) AppleWebKit/605.1.15 Mobile/",
+            "curl/",
+            ""
+    };
+
+    private BenchmarkData() {
+        // static methods only
+    }
+
+    /**
+     * Returns the stream of a collection, sequential or parallel.
+     */
+    static <T> Stream<T> stream(Collection<T> values, boolean parallel) {
+        return parallel ? values.parallelStream() : values.stream();
+    }
+
+    /**
+     * Returns the consecutive integers [from, from + count) in ascending order.
+     */
+    static List<Integer> integers(int from, int count) {
+        List<Integer> values = new ArrayList<>(count);
+        for(int i = from; i < from + count; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    /**
+     * Returns the integers [0, count) in a shuffled order.
+     */
+    static List<Integer> shuffledIntegers(int count) {
+        List<Integer> values = integers(0, count);
+        Collections.shuffle(values, new Random(SEED));
+        return values;
+    }
+
+    /**
+     * Returns a mix of Integer, Long and String instances, in rotation.
+     */
+    static List<Object> mixedTypes(int count) {
+        List<Object> values = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            switch(i % 3) {
+                case 0:
+                    values.add(i);
+                    break;
+                case 1:
+                    values.add((long) i);
+                    break;
+                default:
+                    values.add(Integer.toString(i));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns user-agent like strings of varied length and case.
+     */
+    static List<String> userAgents(int count) {
+        Random random = new Random(SEED);
+        List<String> values = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            String prefix = USER_AGENTS[random.nextInt(USER_AGENTS.length)];
+            values.add(prefix.isEmpty() ? prefix : prefix + random.nextInt(100) + "." + i);
+        }
+        return values;
+    }
+
+    /**
+     * Returns orders whose amounts are a shuffle of [0, count).
+     */
+    static List<Order> orders(int count) {
+        List<Order> values = new ArrayList<>(count);
+        for(Integer amount : shuffledIntegers(count)) {
+            values.add(new Order(amount, amount));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,59 @@
+package com.scottshipp.code.mill.benchmark;
+
+import com.scottshipp.code.mill.stream.BloomScreenedSet;
+import com.scottshipp.code.mill.stream.StreamOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares probing a {@link BloomScreenedSet} against a plain HashSet when
+ * only one probe in a thousand is in the set.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BloomScreenedSetBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    int size;
+
+    Set<String> plain;
+    BloomScreenedSet<String> screened;
+    List<String> probes;
+
+    @Setup
+    public void setUp() {
+        List<String> flagged = IntStream.range(0, size).mapToObj(i -> "card-" + i * 1000).collect(Collectors.toList());
+        plain = flagged.stream().collect(Collectors.toSet());
+        screened = BloomScreenedSet.of(flagged, 0.01);
+        probes = IntStream.range(0, 1_000_000).mapToObj(i -> "card-" + i).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public long intersectionMill() {
+        return StreamOps.intersection(screened, probes.stream()).count();
+    }
+
+    @Benchmark
+    public long intersectionJdk() {
+        return probes.stream().filter(plain::contains).distinct().count();
+    }
+}
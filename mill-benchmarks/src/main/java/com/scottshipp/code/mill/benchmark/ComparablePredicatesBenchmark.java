@@ -0,0 +1,56 @@
+package com.scottshipp.code.mill.benchmark;
+
+import com.scottshipp.code.mill.stream.ComparablePredicates;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Compares each factory in {@link ComparablePredicates} against the
+ * equivalent hand-written lambda, over shuffled integers. The bounds select
+ * roughly the middle half of the values.
+ */
+public class ComparablePredicatesBenchmark extends PredicateBenchmark<Integer> {
+
+    @Param({"isBetween", "isInRangeOpen", "isInRangeClosed", "isLessThan", "isGreaterThan",
+            "isGreaterThanOrEqualTo", "isLessThanOrEqualTo"})
+    String factory;
+
+    @Setup
+    public void setUp() {
+        values = BenchmarkData.shuffledIntegers(size);
+        Integer low = size / 4;
+        Integer high = 3 * (size / 4);
+        switch(factory) {
+            case "isBetween":
+                mill = ComparablePredicates.isBetween(low, high);
+                jdk = i -> i > low && i < high;
+                break;
+            case "isInRangeOpen":
+                mill = ComparablePredicates.isInRangeOpen(low, high);
+                jdk = i -> i > low && i < high;
+                break;
+            case "isInRangeClosed":
+                mill = ComparablePredicates.isInRangeClosed(low, high);
+                jdk = i -> i >= low && i <= high;
+                break;
+            case "isLessThan":
+                mill = ComparablePredicates.isLessThan(high);
+                jdk = i -> i < high;
+                break;
+            case "isGreaterThan":
+                mill = ComparablePredicates.isGreaterThan(low);
+                jdk = i -> i > low;
+                break;
+            case "isGreaterThanOrEqualTo":
+                mill = ComparablePredicates.isGreaterThanOrEqualTo(low);
+                jdk = i -> i >= low;
+                break;
+            case "isLessThanOrEqualTo":
+                mill = ComparablePredicates.isLessThanOrEqualTo(high);
+                jdk = i -> i <= high;
+                break;
+            default:
+                throw unknownFactory(factory);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.scottshipp.code.mill.benchmark;
+
+import com.scottshipp.code.mill.stream.ComparatorPredicates;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.Comparator;
+
+/**
+ * Compares each factory in {@link ComparatorPredicates} against the
+ * equivalent hand-written lambda, built either from an explicit comparator
+ * or from a method reference. The bounds select roughly the middle half of
+ * the orders.
+ */
+public class ComparatorPredicatesBenchmark extends PredicateBenchmark<Order> {
+
+    @Param({"isBetween", "isInRangeOpen", "isInRangeClosed", "isLessThan", "isGreaterThan",
+            "isGreaterThanOrEqualTo", "isLessThanOrEqualTo"})
+    String factory;
+
+    @Param({"comparator", "methodReference"})
+    String where;
+
+    @Setup
+    public void setUp() {
+        values = BenchmarkData.orders(size);
+        Order low = new Order(-1, size / 4);
+        Order high = new Order(-1, 3 * (size / 4));
+        ComparatorPredicates<Order> builder = "comparator".equals(where)
+                ? ComparatorPredicates.where(Comparator.comparingLong(Order::amount))
+                : ComparatorPredicates.where(Order::amount);
+        switch(factory) {
+            case "isBetween":
+                mill = builder.isBetween(low, high);
+                jdk = o -> o.amount() > low.amount() && o.amount() < high.amount();
+                break;
+            case "isInRangeOpen":
+                mill = builder.isInRangeOpen(low, high);
+                jdk = o -> o.amount() > low.amount() && o.amount() < high.amount();
+                break;
+            case "isInRangeClosed":
+                mill = builder.isInRangeClosed(low, high);
+                jdk = o -> o.amount() >= low.amount() && o.amount() <= high.amount();
+                break;
+            case "isLessThan":
+                mill = builder.isLessThan(high);
+                jdk = o -> o.amount() < high.amount();
+                break;
+            case "isGreaterThan":
+                mill = builder.isGreaterThan(low);
+                jdk = o -> o.amount() > low.amount();
+                break;
+            case "isGreaterThanOrEqualTo":
+                mill = builder.isGreaterThanOrEqualTo(low);
+                jdk = o -> o.amount() >= low.amount();
+                break;
+            case "isLessThanOrEqualTo":
+                mill = builder.isLessThanOrEqualTo(high);
+                jdk = o -> o.amount() <= high.amount();
+                break;
+            default:
+                throw unknownFactory(factory);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.scottshipp.code.mill.benchmark;
+
+import com.scottshipp.code.mill.stream.ValueComparisonPredicates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Filters the same orders through range predicates on eight different
+ * extractors, so that the shared code behind interpreted predicates sees eight
+ * extractor types, and compares that with compiled predicates, which each see
+ * only their own.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompiledPredicatesBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean compiled;
+
+    private List<Order> values;
+    private List<Predicate<Order>> predicates;
+
+    @Setup
+    public void setUp() {
+        values = BenchmarkData.orders(size);
+        List<Function<Order, Long>> extractors = Arrays.asList(
+                Order::amount,
+                Order::id,
+                o -> o.amount() + 1,
+                o -> o.id() + 1,
+                o -> o.amount() * 2,
+                o -> o.id() * 2,
+                o -> o.amount() - o.id(),
+                o -> o.amount() + o.id());
+        predicates = new ArrayList<>();
+        for(Function<Order, Long> extractor : extractors) {
+            ValueComparisonPredicates<Order, Long> where = ValueComparisonPredicates.where(extractor);
+            predicates.add((compiled ? where.compiled() : where).isInRangeClosed((long) size / 4, 3L * size / 4));
+        }
+    }
+
+    @Benchmark
+    public long filter() {
+        long count = 0;
+        for(Predicate<Order> predicate : predicates) {
+            for(Order order : values) {
+                if(predicate.test(order)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,76 @@
+package com.scottshipp.code.mill.benchmark;
+
+import com.scottshipp.code.mill.stream.LongStreamOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Compares {@link LongStreamOps} against the boxing JDK equivalents over
+ * arrays of ids. The second array overlaps the second half of the first.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LongStreamOpsBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    int size;
+
+    long[] first;
+    long[] second;
+
+    @Setup
+    public void setUp() {
+        first = LongStream.range(0, size).toArray();
+        second = LongStream.range(size / 2, size + size / 2).toArray();
+    }
+
+    @Benchmark
+    public long distinctValuesMill() {
+        return LongStreamOps.distinctValues(LongStream.of(first), LongStream.of(second)).sum();
+    }
+
+    @Benchmark
+    public long distinctValuesJdk() {
+        return LongStream.concat(LongStream.of(first), LongStream.of(second)).distinct().sum();
+    }
+
+    @Benchmark
+    public long intersectionMill() {
+        return LongStreamOps.intersection(LongStream.of(first), LongStream.of(second)).sum();
+    }
+
+    @Benchmark
+    public long intersectionJdk() {
+        Set<Long> firstIds = LongStream.of(first).boxed().collect(Collectors.toSet());
+        return LongStream.of(second).filter(firstIds::contains).distinct().sum();
+    }
+
+    @Benchmark
+    public long differenceMill() {
+        return LongStreamOps.difference(LongStream.of(first), LongStream.of(second)).sum();
+    }
+
+    @Benchmark
+    public long differenceJdk() {
+        Set<Long> excluded = LongStream.of(second).boxed().collect(Collectors.toSet());
+        return LongStream.of(first).filter(id -> !excluded.contains(id)).distinct().sum();
+    }
+}
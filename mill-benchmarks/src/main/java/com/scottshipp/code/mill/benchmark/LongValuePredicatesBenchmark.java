@@ -0,0 +1,62 @@
+package com.scottshipp.code.mill.benchmark;
+
+import com.scottshipp.code.mill.stream.LongValuePredicates;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Compares each factory in {@link LongValuePredicates} against the
+ * equivalent hand-written lambda. The bounds select roughly the middle half
+ * of the orders. Run alongside {@link ValueComparisonPredicatesBenchmark} to
+ * see the cost of boxing each amount.
+ */
+public class LongValuePredicatesBenchmark extends PredicateBenchmark<Order> {
+
+    @Param({"isBetween", "isInRangeOpen", "isInRangeClosed", "isLessThan", "isGreaterThan",
+            "isGreaterThanOrEqualTo", "isLessThanOrEqualTo", "equaling"})
+    String factory;
+
+    @Setup
+    public void setUp() {
+        values = BenchmarkData.orders(size);
+        long low = size / 4;
+        long high = 3 * (size / 4);
+        LongValuePredicates<Order> amount = LongValuePredicates.where(Order::amount);
+        switch(factory) {
+            case "isBetween":
+                mill = amount.isBetween(low, high);
+                jdk = o -> o.amount() > low && o.amount() < high;
+                break;
+            case "isInRangeOpen":
+                mill = amount.isInRangeOpen(low, high);
+                jdk = o -> o.amount() > low && o.amount() < high;
+                break;
+            case "isInRangeClosed":
+                mill = amount.isInRangeClosed(low, high);
+                jdk = o -> o.amount() >= low && o.amount() <= high;
+                break;
+            case "isLessThan":
+                mill = amount.isLessThan(high);
+                jdk = o -> o.amount() < high;
+                break;
+            case "isGreaterThan":
+                mill = amount.isGreaterThan(low);
+                jdk = o -> o.amount() > low;
+                break;
+            case "isGreaterThanOrEqualTo":
+                mill = amount.isGreaterThanOrEqualTo(low);
+                jdk = o -> o.amount() >= low;
+                break;
+            case "isLessThanOrEqualTo":
+                mill = amount.isLessThanOrEqualTo(high);
+                jdk = o -> o.amount() <= high;
+                break;
+            case "equaling":
+                mill = amount.equaling(low);
+                jdk = o -> o.amount() == low;
+                break;
+            default:
+                throw unknownFactory(factory);
+        }
+    }
+}
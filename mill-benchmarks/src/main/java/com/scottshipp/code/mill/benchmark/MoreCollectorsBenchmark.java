@@ -0,0 +1,181 @@
+package com.scottshipp.code.mill.benchmark;
+
+import com.scottshipp.code.mill.stream.MoreCollectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import static com.scottshipp.code.mill.benchmark.BenchmarkData.stream;
+
+/**
+ * Compares the collectors in {@link MoreCollectors} against the equivalent
+ * hand-written JDK code.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoreCollectorsBenchmark {
+
+    private static final Predicate<Integer> EVEN = i -> (i & 1) == 0;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    List<Integer> numbers;
+    List<Object> mixed;
+
+    @Setup
+    public void setUp() {
+        numbers = BenchmarkData.integers(0, size);
+        mixed = BenchmarkData.mixedTypes(size);
+    }
+
+    @Benchmark
+    public String joiningMill() {
+        return stream(numbers, parallel).collect(MoreCollectors.joining(","));
+    }
+
+    @Benchmark
+    public String joiningJdk() {
+        return stream(numbers, parallel).map(Object::toString).collect(Collectors.joining(","));
+    }
+
+    @Benchmark
+    public String concurrentJoiningMill() {
+        return stream(numbers, parallel).collect(MoreCollectors.concurrentJoining(","));
+    }
+
+    @Benchmark
+    public StringBuilder joiningToMill() {
+        // writes as it goes, so always sequential
+        return stream(numbers, false).collect(MoreCollectors.joiningTo(new StringBuilder(), ","));
+    }
+
+    @Benchmark
+    public List<Integer> topKMill() {
+        return stream(numbers, parallel).collect(MoreCollectors.topK(100, Comparator.<Integer>naturalOrder()));
+    }
+
+    @Benchmark
+    public List<Integer> topKJdk() {
+        return stream(numbers, parallel).sorted(Comparator.reverseOrder()).limit(100).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public long approxDistinctCountMill() {
+        return stream(numbers, parallel).collect(MoreCollectors.approxDistinctCount(14));
+    }
+
+    @Benchmark
+    public long distinctCountJdk() {
+        return stream(numbers, parallel).distinct().count();
+    }
+
+    @Benchmark
+    public List<Integer> includingMill() {
+        return stream(numbers, parallel).collect(MoreCollectors.including(EVEN, Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<Integer> includingJdk() {
+        return stream(numbers, parallel).filter(EVEN).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Integer> includingToListMill() {
+        return stream(numbers, parallel).collect(MoreCollectors.includingToList(EVEN));
+    }
+
+    @Benchmark
+    public long includingCountMill() {
+        return stream(numbers, parallel).collect(MoreCollectors.includingCount(EVEN));
+    }
+
+    @Benchmark
+    public long includingCountJdk() {
+        return stream(numbers, parallel).filter(EVEN).count();
+    }
+
+    @Benchmark
+    public List<Integer> filteringMappingMill() {
+        return stream(numbers, parallel).collect(MoreCollectors.filteringMapping(EVEN, i -> i / 2, Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<Integer> filteringMappingJdk() {
+        return stream(numbers, parallel).filter(EVEN).map(i -> i / 2).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Integer> excludingMill() {
+        return stream(numbers, parallel).collect(MoreCollectors.excluding(EVEN, Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<Integer> excludingJdk() {
+        return stream(numbers, parallel).filter(i -> !EVEN.test(i)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> typedCollectorMill() {
+        return stream(mixed, parallel).collect(MoreCollectors.typedCollector(String.class, ArrayList::new));
+    }
+
+    @Benchmark
+    public Set<String> concurrentTypedCollectorMill() {
+        return stream(mixed, parallel).collect(MoreCollectors.concurrentTypedCollector(String.class, ConcurrentHashMap::newKeySet));
+    }
+
+    @Benchmark
+    public List<String> typedCollectorJdk() {
+        return stream(mixed, parallel)
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Benchmark
+    public Map<Class<?>, Object> byTypeMill() {
+        Map<Class<?>, Collector<?, ?, ?>> collectors = new LinkedHashMap<>();
+        collectors.put(Integer.class, Collectors.toList());
+        collectors.put(Long.class, Collectors.toList());
+        collectors.put(String.class, Collectors.toList());
+        return stream(mixed, parallel).collect(MoreCollectors.byType(collectors));
+    }
+
+    @Benchmark
+    public Map<Class<?>, Object> byTypeJdk() {
+        Map<Class<?>, Object> results = new LinkedHashMap<>();
+        for(Class<?> type : Arrays.asList(Integer.class, Long.class, String.class)) {
+            results.put(type, stream(mixed, parallel).filter(type::isInstance).collect(Collectors.toList()));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,27 @@
+package com.scottshipp.code.mill.benchmark;
+
+/**
+ * A small data class for benchmarking predicates that extract member data.
+ */
+public final class Order {
+    private final long id;
+    private final long amount;
+
+    public Order(long id, long amount) {
+        this.id = id;
+        this.amount = amount;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public long amount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return "Order { id: " + id + ", amount: " + amount + " }";
+    }
+}
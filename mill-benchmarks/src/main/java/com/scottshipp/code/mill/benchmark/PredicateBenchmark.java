@@ -0,0 +1,57 @@
+package com.scottshipp.code.mill.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Base class for the predicate benchmarks. Subclasses pick a predicate
+ * factory by name in their setup method and fill in {@link #values},
+ * {@link #mill} and {@link #jdk}. Both benchmarks filter the same values and
+ * count the matches.
+ *
+ * @param <T> the type of value being filtered
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class PredicateBenchmark<T> {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    List<T> values;
+    Predicate<T> mill;
+    Predicate<T> jdk;
+
+    @Benchmark
+    public long mill() {
+        return BenchmarkData.stream(values, parallel).filter(mill).count();
+    }
+
+    @Benchmark
+    public long jdk() {
+        return BenchmarkData.stream(values, parallel).filter(jdk).count();
+    }
+
+    static IllegalArgumentException unknownFactory(String factory) {
+        return new IllegalArgumentException("No benchmark for predicate factory " + factory);
+    }
+}
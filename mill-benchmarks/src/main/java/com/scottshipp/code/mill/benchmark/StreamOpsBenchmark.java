@@ -0,0 +1,124 @@
+package com.scottshipp.code.mill.benchmark;
+
+import com.scottshipp.code.mill.stream.StreamOps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.scottshipp.code.mill.benchmark.BenchmarkData.stream;
+
+/**
+ * Compares the multi-stream operations in {@link StreamOps} against the
+ * equivalent hand-written JDK code. The three inputs overlap: the second
+ * starts half way through the first and the third a quarter of the way. All
+ * three are sorted, so the sorted operations can run over the same inputs.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamOpsBenchmark {
+
+    @Param({"10", "1000", "100000", "10000000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    List<Integer> first;
+    List<Integer> second;
+    List<Integer> third;
+
+    @Setup
+    public void setUp() {
+        first = BenchmarkData.integers(0, size);
+        second = BenchmarkData.integers(size / 2, size);
+        third = BenchmarkData.integers(size / 4, size);
+    }
+
+    @Benchmark
+    public long concatMill() {
+        return sum(StreamOps.concat(stream(first, parallel), stream(second, parallel), stream(third, parallel)));
+    }
+
+    @Benchmark
+    public long concatJdk() {
+        return sum(Stream.concat(Stream.concat(stream(first, parallel), stream(second, parallel)), stream(third, parallel)));
+    }
+
+    @Benchmark
+    public long intersectionMill() {
+        return sum(StreamOps.intersection(stream(first, parallel), stream(second, parallel), stream(third, parallel)));
+    }
+
+    @Benchmark
+    public long intersectionJdk() {
+        Set<Integer> result = stream(first, parallel).collect(Collectors.toSet());
+        result.retainAll(stream(second, parallel).collect(Collectors.toSet()));
+        result.retainAll(stream(third, parallel).collect(Collectors.toSet()));
+        return sum(stream(result, parallel));
+    }
+
+    @Benchmark
+    public long differenceMill() {
+        return sum(StreamOps.difference(stream(first, parallel), stream(second, parallel), stream(third, parallel)));
+    }
+
+    @Benchmark
+    public long differenceJdk() {
+        Set<Integer> excluded = Stream.concat(stream(second, parallel), stream(third, parallel))
+                .collect(Collectors.toSet());
+        return sum(stream(first, parallel).filter(i -> !excluded.contains(i)).distinct());
+    }
+
+    @Benchmark
+    public long distinctValuesMill() {
+        return sum(StreamOps.distinctValues(stream(first, parallel), stream(second, parallel), stream(third, parallel)));
+    }
+
+    @Benchmark
+    public long distinctValuesJdk() {
+        return sum(Stream.concat(Stream.concat(stream(first, parallel), stream(second, parallel)), stream(third, parallel))
+                .distinct());
+    }
+
+    @Benchmark
+    public long sortedIntersectionMill() {
+        return sum(StreamOps.sortedIntersection(Comparator.naturalOrder(),
+                stream(first, parallel), stream(second, parallel), stream(third, parallel)));
+    }
+
+    @Benchmark
+    public long sortedDifferenceMill() {
+        return sum(StreamOps.sortedDifference(Comparator.naturalOrder(),
+                stream(first, parallel), stream(second, parallel), stream(third, parallel)));
+    }
+
+    @Benchmark
+    public long sortedDistinctMill() {
+        return sum(StreamOps.sortedDistinct(Comparator.naturalOrder(),
+                stream(first, parallel), stream(second, parallel), stream(third, parallel)));
+    }
+
+    private static long sum(Stream<Integer> stream) {
+        // summing forces a full traversal, where count() may not on a SIZED stream
+        return stream.mapToLong(Integer::longValue).sum();
+    }
+}
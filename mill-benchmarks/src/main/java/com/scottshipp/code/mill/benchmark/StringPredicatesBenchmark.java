@@ -0,0 +1,97 @@
+package com.scottshipp.code.mill.benchmark;
+
+import com.scottshipp.code.mill.stream.StringPredicates;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares each factory in {@link StringPredicates} against the equivalent
+ * hand-written lambda, over user-agent like strings.
+ */
+public class StringPredicatesBenchmark extends PredicateBenchmark<String> {
+
+    private static final int LENGTH = 60;
+    private static final String EXACT = "curl/42.7";
+    private static final String SUBSTRING = "Chrome";
+    private static final String REGEX = ".*Firefox/6\\d.*";
+    private static final Pattern PATTERN = Pattern.compile(REGEX);
+    private static final List<String> KEYWORDS = IntStream.range(0, 400)
+            .mapToObj(i -> "bot" + i + "/")
+            .collect(Collectors.toList());
+
+    @Param({"isEmpty", "isNull", "nonNull", "nonEmpty", "longerThan", "shorterThan",
+            "withMaximumLength", "withMinimumLength", "equaling", "containing", "matches",
+            "equalsIgnoreCase", "containingIgnoreCase", "containingAny"})
+    String factory;
+
+    @Setup
+    public void setUp() {
+        values = BenchmarkData.userAgents(size);
+        switch(factory) {
+            case "isEmpty":
+                mill = StringPredicates.isEmpty();
+                jdk = String::isEmpty;
+                break;
+            case "isNull":
+                mill = StringPredicates.isNull();
+                jdk = Objects::isNull;
+                break;
+            case "nonNull":
+                mill = StringPredicates.nonNull();
+                jdk = Objects::nonNull;
+                break;
+            case "nonEmpty":
+                mill = StringPredicates.nonEmpty();
+                jdk = s -> !s.isEmpty();
+                break;
+            case "longerThan":
+                mill = StringPredicates.longerThan(LENGTH);
+                jdk = s -> s != null && s.length() > LENGTH;
+                break;
+            case "shorterThan":
+                mill = StringPredicates.shorterThan(LENGTH);
+                jdk = s -> s != null && s.length() < LENGTH;
+                break;
+            case "withMaximumLength":
+                mill = StringPredicates.withMaximumLength(LENGTH);
+                jdk = s -> s != null && s.length() <= LENGTH;
+                break;
+            case "withMinimumLength":
+                mill = StringPredicates.withMinimumLength(LENGTH);
+                jdk = s -> s != null && s.length() >= LENGTH;
+                break;
+            case "equaling":
+                mill = StringPredicates.equaling(EXACT);
+                jdk = EXACT::equals;
+                break;
+            case "containing":
+                mill = StringPredicates.containing(SUBSTRING);
+                jdk = s -> s != null && s.contains(SUBSTRING);
+                break;
+            case "matches":
+                mill = StringPredicates.matches(REGEX);
+                jdk = s -> s != null && PATTERN.matcher(s).matches();
+                break;
+            case "equalsIgnoreCase":
+                mill = StringPredicates.equalsIgnoreCase(EXACT.toUpperCase());
+                jdk = s -> s != null && s.equalsIgnoreCase(EXACT.toUpperCase());
+                break;
+            case "containingIgnoreCase":
+                mill = StringPredicates.containingIgnoreCase(SUBSTRING.toUpperCase());
+                jdk = s -> s != null && s.toLowerCase().contains(SUBSTRING.toLowerCase());
+                break;
+            case "containingAny":
+                mill = StringPredicates.containingAny(KEYWORDS);
+                jdk = s -> s != null && KEYWORDS.stream().anyMatch(s::contains);
+                break;
+            default:
+                throw unknownFactory(factory);
+        }
+    }
+}
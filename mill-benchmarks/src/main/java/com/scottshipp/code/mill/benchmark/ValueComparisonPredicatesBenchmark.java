@@ -0,0 +1,76 @@
+package com.scottshipp.code.mill.benchmark;
+
+import com.scottshipp.code.mill.stream.ValueComparisonPredicates;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.function.Predicate;
+
+/**
+ * Compares each factory in {@link ValueComparisonPredicates} against the
+ * equivalent hand-written lambda. The bounds select roughly the middle half
+ * of the orders. The chain case shows the effect of fusing range predicates
+ * over the same extractor.
+ */
+public class ValueComparisonPredicatesBenchmark extends PredicateBenchmark<Order> {
+
+    @Param({"isBetween", "isInRangeOpen", "isInRangeClosed", "isLessThan", "isGreaterThan",
+            "isGreaterThanOrEqualTo", "isLessThanOrEqualTo", "equaling", "chain"})
+    String factory;
+
+    @Setup
+    public void setUp() {
+        values = BenchmarkData.orders(size);
+        long low = size / 4;
+        long high = 3 * (size / 4);
+        ValueComparisonPredicates<Order, Long> amount = ValueComparisonPredicates.where(Order::amount);
+        switch(factory) {
+            case "isBetween":
+                mill = amount.isBetween(low, high);
+                jdk = o -> o.amount() > low && o.amount() < high;
+                break;
+            case "isInRangeOpen":
+                mill = amount.isInRangeOpen(low, high);
+                jdk = o -> o.amount() > low && o.amount() < high;
+                break;
+            case "isInRangeClosed":
+                mill = amount.isInRangeClosed(low, high);
+                jdk = o -> o.amount() >= low && o.amount() <= high;
+                break;
+            case "isLessThan":
+                mill = amount.isLessThan(high);
+                jdk = o -> o.amount() < high;
+                break;
+            case "isGreaterThan":
+                mill = amount.isGreaterThan(low);
+                jdk = o -> o.amount() > low;
+                break;
+            case "isGreaterThanOrEqualTo":
+                mill = amount.isGreaterThanOrEqualTo(low);
+                jdk = o -> o.amount() >= low;
+                break;
+            case "isLessThanOrEqualTo":
+                mill = amount.isLessThanOrEqualTo(high);
+                jdk = o -> o.amount() <= high;
+                break;
+            case "equaling":
+                mill = amount.equaling(low);
+                jdk = o -> o.amount() == low;
+                break;
+            case "chain":
+                // a rule-engine style chain of 20 range checks on the same amount
+                Predicate<Order> chain = amount.isGreaterThan(low);
+                Predicate<Order> lambdas = o -> o.amount() > low;
+                for(long i = 1; i < 20; i++) {
+                    long bound = high + i;
+                    chain = chain.and(amount.isLessThan(bound));
+                    lambdas = lambdas.and(o -> o.amount() < bound);
+                }
+                mill = chain;
+                jdk = lambdas;
+                break;
+            default:
+                throw unknownFactory(factory);
+        }
+    }
+}
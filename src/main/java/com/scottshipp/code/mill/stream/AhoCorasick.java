@@ -0,0 +1,198 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * An Aho-Corasick automaton that finds any number of fixed strings in one
+ * pass over a text. The trie and its failure links are compiled into a
+ * deterministic transition table, so each char of the text costs exactly one
+ * table lookup however many strings are searched for.
+ *
+ * <p>To keep the table small, only the chars that occur in the searched-for
+ * strings get their own column. Every other char shares column 0, which
+ * always leads back towards the root.</p>
+ *
+ * <p>Instances are immutable once compiled and safe to share between
+ * threads.</p>
+ */
+final class AhoCorasick {
+
+    private final int[] columns;
+    private final int width;
+    private final int[] transitions;
+    private final int[][] outputs;
+    private final int patternCount;
+
+    private AhoCorasick(int[] columns, int width, int[] transitions, int[][] outputs, int patternCount) {
+        this.columns = columns;
+        this.width = width;
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.patternCount = patternCount;
+    }
+
+    /**
+     * @param patterns the strings to search for, none of them null
+     * @param ignoreCase whether to compare chars as String.equalsIgnoreCase does
+     * @return a compiled automaton
+     */
+    static AhoCorasick compile(Collection<String> patterns, boolean ignoreCase) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for(String pattern : patterns) {
+            Objects.requireNonNull(pattern, "patterns must not contain null");
+            distinct.add(ignoreCase ? fold(pattern) : pattern);
+        }
+
+        // one column per distinct char of the patterns, column 0 for every other char
+        int[] patternColumns = new int[Character.MAX_VALUE + 1];
+        int width = 1;
+        int totalLength = 0;
+        for(String pattern : distinct) {
+            totalLength += pattern.length();
+            for(int i = 0; i < pattern.length(); i++) {
+                if(patternColumns[pattern.charAt(i)] == 0) {
+                    patternColumns[pattern.charAt(i)] = width++;
+                }
+            }
+        }
+        int[] columns = patternColumns;
+        if(ignoreCase) {
+            columns = new int[Character.MAX_VALUE + 1];
+            for(int c = 0; c <= Character.MAX_VALUE; c++) {
+                columns[c] = patternColumns[fold((char) c)];
+            }
+        }
+
+        // the trie, with -1 for a missing edge
+        int[] transitions = new int[(totalLength + 1) * width];
+        Arrays.fill(transitions, -1);
+        int[][] outputs = new int[totalLength + 1][];
+        int states = 1;
+        int id = 0;
+        for(String pattern : distinct) {
+            int state = 0;
+            for(int i = 0; i < pattern.length(); i++) {
+                int edge = state * width + patternColumns[pattern.charAt(i)];
+                if(transitions[edge] == -1) {
+                    transitions[edge] = states++;
+                }
+                state = transitions[edge];
+            }
+            outputs[state] = append(outputs[state], id++);
+        }
+
+        // breadth-first, turn failure links into direct transitions and inherit their outputs
+        int[] fail = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for(int column = 0; column < width; column++) {
+            int child = transitions[column];
+            if(child == -1) {
+                transitions[column] = 0;
+            } else {
+                fail[child] = 0;
+                queue.add(child);
+            }
+        }
+        while(!queue.isEmpty()) {
+            int state = queue.remove();
+            outputs[state] = concat(outputs[state], outputs[fail[state]]);
+            for(int column = 0; column < width; column++) {
+                int edge = state * width + column;
+                int fallback = transitions[fail[state] * width + column];
+                if(transitions[edge] == -1) {
+                    transitions[edge] = fallback;
+                } else {
+                    fail[transitions[edge]] = fallback;
+                    queue.add(transitions[edge]);
+                }
+            }
+        }
+        return new AhoCorasick(columns, width, Arrays.copyOf(transitions, states * width),
+                Arrays.copyOf(outputs, states), distinct.size());
+    }
+
+    /**
+     * @param text the text to search
+     * @return true if the text contains at least one of the patterns
+     */
+    boolean containsAny(CharSequence text) {
+        if(outputs[0] != null) {
+            return true;
+        }
+        int state = 0;
+        for(int i = 0, length = text.length(); i < length; i++) {
+            state = transitions[state * width + columns[text.charAt(i)]];
+            if(outputs[state] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param text the text to search
+     * @return true if the text contains every one of the patterns
+     */
+    boolean containsAll(CharSequence text) {
+        long[] found = new long[(patternCount + 63) >>> 6];
+        int remaining = patternCount - mark(outputs[0], found);
+        int state = 0;
+        for(int i = 0, length = text.length(); i < length && remaining > 0; i++) {
+            state = transitions[state * width + columns[text.charAt(i)]];
+            remaining -= mark(outputs[state], found);
+        }
+        return remaining == 0;
+    }
+
+    private static int mark(int[] ids, long[] found) {
+        if(ids == null) {
+            return 0;
+        }
+        int marked = 0;
+        for(int id : ids) {
+            long bit = 1L << id;
+            if((found[id >>> 6] & bit) == 0) {
+                found[id >>> 6] |= bit;
+                marked++;
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Maps a char to one representative of all chars that String.regionMatches
+     * considers equal to it when ignoring case.
+     */
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static String fold(String s) {
+        char[] folded = new char[s.length()];
+        for(int i = 0; i < folded.length; i++) {
+            folded[i] = fold(s.charAt(i));
+        }
+        return new String(folded);
+    }
+
+    private static int[] append(int[] ids, int id) {
+        int[] result = ids == null ? new int[1] : Arrays.copyOf(ids, ids.length + 1);
+        result[result.length - 1] = id;
+        return result;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        if(a == null || b == null) {
+            return a == null ? b : a;
+        }
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
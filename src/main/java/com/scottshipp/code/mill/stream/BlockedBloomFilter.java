@@ -0,0 +1,119 @@
+package com.scottshipp.code.mill.stream;
+
+/**
+ * A Bloom filter whose bits for any one element all lie in a single block of
+ * 512 bits, the size of a cache line. Where {@link BloomFilter} touches a
+ * different part of memory for each of its hashes, this filter answers
+ * "definitely not added" after loading at most one block, at the cost of a
+ * slightly higher false positive rate for the same number of bits.
+ *
+ * <p>Elements are hashed as {@link BloomFilter} hashes them. The high half of
+ * the hash picks the block, and the low half seeds double hashing within it.
+ * Elements other than CharSequences and Numbers are hashed from their
+ * hashCode(), so those with equal hash codes are indistinguishable to the
+ * filter.</p>
+ *
+ * @param <T> the type of element
+ */
+final class BlockedBloomFilter<T> {
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Long.SIZE;
+    private static final int MAX_BLOCKS = Integer.MAX_VALUE / WORDS_PER_BLOCK;
+    private static final int MAX_HASHES = 16;
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final int blocks;
+    private final int hashCount;
+
+    private BlockedBloomFilter(int blocks, int hashCount) {
+        this.words = new long[blocks * WORDS_PER_BLOCK];
+        this.blocks = blocks;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Creates a filter sized for the given number of insertions at the given
+     * false positive rate.
+     *
+     * @param expectedInsertions the number of distinct elements expected to be added
+     * @param falsePositiveRate the acceptable probability, in (0, 1), that
+     *                          mightContain returns true for an element that was not added
+     * @param <T> the type of element
+     * @return an empty filter
+     */
+    static <T> BlockedBloomFilter<T> create(long expectedInsertions, double falsePositiveRate) {
+        if(expectedInsertions < 0) {
+            throw new IllegalArgumentException("Expected insertions must not be negative, but was " + expectedInsertions);
+        }
+        if(!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1, but was " + falsePositiveRate);
+        }
+        long n = Math.max(1, expectedInsertions);
+        double bits = Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int blocks = (int) Math.max(1, Math.min(MAX_BLOCKS, Math.ceil(bits / BITS_PER_BLOCK)));
+        long totalBits = (long) blocks * BITS_PER_BLOCK;
+        int hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round((double) totalBits / n * LN2)));
+        return new BlockedBloomFilter<>(blocks, hashes);
+    }
+
+    void add(T t) {
+        long hash = BloomFilter.hash(t);
+        int base = block(hash);
+        int h1 = (int) hash;
+        int h2 = (h1 >>> 9) | 1;
+        for(int i = 0; i < hashCount; i++) {
+            int bit = (h1 + i * h2) & (BITS_PER_BLOCK - 1);
+            words[base + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(T t) {
+        long hash = BloomFilter.hash(t);
+        int base = block(hash);
+        int h1 = (int) hash;
+        int h2 = (h1 >>> 9) | 1;
+        for(int i = 0; i < hashCount; i++) {
+            int bit = (h1 + i * h2) & (BITS_PER_BLOCK - 1);
+            if((words[base + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the index of the first word of the block for hash
+     */
+    private int block(long hash) {
+        return (int) (((hash >>> 32) * blocks) >>> 32) * WORDS_PER_BLOCK;
+    }
+
+    /**
+     * Estimates the false positive rate from how full each block actually is,
+     * which accounts for blocks that received more than their share of
+     * elements.
+     *
+     * @return the probability that mightContain returns true for an element
+     * that was not added
+     */
+    double expectedFalsePositiveRate() {
+        double sum = 0;
+        for(int b = 0; b < words.length; b += WORDS_PER_BLOCK) {
+            int set = 0;
+            for(int w = b; w < b + WORDS_PER_BLOCK; w++) {
+                set += Long.bitCount(words[w]);
+            }
+            sum += Math.pow((double) set / BITS_PER_BLOCK, hashCount);
+        }
+        return sum / blocks;
+    }
+
+    /**
+     * @return the size of the filter in bits
+     */
+    long bitSize() {
+        return (long) words.length * Long.SIZE;
+    }
+}
@@ -0,0 +1,125 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.Objects;
+
+/**
+ * A fixed-size Bloom filter over element hash codes. It answers "definitely
+ * not added" or "possibly added" using a bit array sized from the expected
+ * number of insertions and the acceptable false positive rate, no matter
+ * how large the elements themselves are.
+ *
+ * <p>The bit positions are derived from a 64-bit hash of each element. Strings
+ * and other CharSequences, and integral and floating point Numbers, are
+ * hashed from their contents. Any other element is hashed from its
+ * {@link Object#hashCode()}, which holds only 32 bits, so elements with equal
+ * hash codes are indistinguishable to the filter: with n such elements added,
+ * the false positive rate cannot fall much below n / 2<sup>32</sup>, about 5%
+ * for 200 million, whatever rate the filter was sized for. That only raises
+ * the false positive rate; it never causes a false negative.</p>
+ *
+ * @param <T> the type of element
+ */
+final class BloomFilter<T> {
+
+    private static final double LN2 = Math.log(2);
+    private static final long MAX_BITS = (long) (Integer.MAX_VALUE - 8) * Long.SIZE;
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.words = new long[(int) ((bitCount + Long.SIZE - 1) / Long.SIZE)];
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Creates a filter sized for the given number of insertions at the given
+     * false positive rate.
+     *
+     * @param expectedInsertions the number of distinct elements expected to be added
+     * @param falsePositiveRate the acceptable probability, in (0, 1), that
+     *                          mightContain returns true for an element that was not added;
+     *                          for elements hashed by hashCode() the rate is no lower
+     *                          than about expectedInsertions / 2<sup>32</sup>
+     * @param <T> the type of element
+     * @return an empty filter
+     */
+    static <T> BloomFilter<T> create(long expectedInsertions, double falsePositiveRate) {
+        if(expectedInsertions < 0) {
+            throw new IllegalArgumentException("Expected insertions must not be negative, but was " + expectedInsertions);
+        }
+        if(!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1, but was " + falsePositiveRate);
+        }
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2));
+        bits = Math.max(Long.SIZE, Math.min(bits, MAX_BITS));
+        int hashes = (int) Math.max(1, Math.round((double) bits / n * LN2));
+        return new BloomFilter<>(bits, hashes);
+    }
+
+    void add(T t) {
+        long hash = hash(t);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for(int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + (long) i * h2);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(T t) {
+        long hash = hash(t);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for(int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + (long) i * h2);
+            if((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(long combined) {
+        return (combined & Long.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * Returns a 64-bit hash of t, from its contents for CharSequences and
+     * Numbers of the standard types, and from its hashCode() otherwise.
+     */
+    static long hash(Object t) {
+        if(t instanceof CharSequence) {
+            CharSequence chars = (CharSequence) t;
+            long h = 0xCBF29CE484222325L;
+            for(int i = 0; i < chars.length(); i++) {
+                h = (h ^ chars.charAt(i)) * 0x100000001B3L;
+            }
+            return mix(h);
+        }
+        if(t instanceof Long || t instanceof Integer || t instanceof Short || t instanceof Byte) {
+            return mix(((Number) t).longValue());
+        }
+        if(t instanceof Double || t instanceof Float) {
+            return mix(Double.doubleToLongBits(((Number) t).doubleValue()));
+        }
+        return mix(Objects.hashCode(t));
+    }
+
+    /**
+     * Spreads a hash over all 64 bits (the MurmurHash3 finalizer), so that
+     * both halves can seed the double hashing above.
+     */
+    static long mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
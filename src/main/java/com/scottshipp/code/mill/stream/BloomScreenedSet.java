@@ -0,0 +1,203 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An immutable set which screens every contains() through a Bloom filter
+ * before looking in the set itself, for probing with elements that are
+ * mostly not there.
+ *
+ * <p>A miss in a {@link HashSet} still costs a hashCode(), a walk of the
+ * bucket with equals() and, for a large set, a cache miss. Here the filter is
+ * blocked: all of the bits for an element share one 64-byte block, so most
+ * misses are rejected after a single memory access, and only the elements the
+ * filter cannot rule out go on to the set. Every element of the set passes
+ * the filter, so the answers are always exact.</p>
+ *
+ * <p>Strings and boxed numbers are hashed for the filter from their contents.
+ * Other elements are hashed from their 32-bit hashCode(), so a probe whose
+ * hashCode equals that of an element always gets past the filter, and the
+ * false positive rate is at least about size() / 2<sup>32</sup>.</p>
+ *
+ * <pre>
+ *     {@code
+ *     BloomScreenedSet<String> flagged = BloomScreenedSet.of(fraudList, 0.01);
+ *     Stream<Payment> suspicious = payments.filter(p -> flagged.contains(p.cardNumber()));
+ *
+ *     // or, for the distinct matching elements of a stream
+ *     Stream<String> matched = StreamOps.intersection(flagged, cardNumbers);
+ *     }
+ * </pre>
+ *
+ * <p>The set counts what happened to each probe, so the filter can be tuned:
+ * {@link #rejected()} counts misses the filter caught, {@link #falsePositives()}
+ * misses it let through, and {@link #hits()} elements that were found. The
+ * counts are kept in {@link LongAdder}s, so that threads probing the set at
+ * once, as a parallel stream does, neither lose counts nor contend for one
+ * cache line. Only calls to contains() are counted: containsAll(), and so
+ * equals(), screen their elements the same way without counting them.</p>
+ *
+ * @param <T> the type of element
+ */
+public final class BloomScreenedSet<T> extends AbstractSet<T> {
+
+    private final Set<T> set;
+    private final BlockedBloomFilter<Object> filter;
+    private final double falsePositiveRate;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    private BloomScreenedSet(Set<T> set, double falsePositiveRate) {
+        this.set = set;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = BlockedBloomFilter.create(set.size(), falsePositiveRate);
+        for(T t : set) {
+            filter.add(t);
+        }
+    }
+
+    /**
+     * Creates a set of the distinct elements of a collection, with a filter
+     * sized for them at the given false positive rate.
+     *
+     * @param elements the elements, which are copied
+     * @param falsePositiveRate the rate, between 0 and 1, at which elements
+     *                          that are not in the set get past the filter
+     * @param <T> the type of element
+     * @return a new set
+     * @throws IllegalArgumentException if falsePositiveRate is not between 0 and 1
+     */
+    public static <T> BloomScreenedSet<T> of(Collection<? extends T> elements, double falsePositiveRate) {
+        return new BloomScreenedSet<>(new HashSet<>(elements), falsePositiveRate);
+    }
+
+    /**
+     * Creates a set of the distinct elements of a stream, with a filter sized
+     * for them at the given false positive rate.
+     *
+     * @param elements the elements, which are read right away
+     * @param falsePositiveRate the rate, between 0 and 1, at which elements
+     *                          that are not in the set get past the filter
+     * @param <T> the type of element
+     * @return a new set
+     * @throws IllegalArgumentException if falsePositiveRate is not between 0 and 1
+     */
+    public static <T> BloomScreenedSet<T> of(Stream<? extends T> elements, double falsePositiveRate) {
+        return new BloomScreenedSet<>(elements.collect(Collectors.toCollection(HashSet::new)), falsePositiveRate);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if(!filter.mightContain(o)) {
+            rejected.increment();
+            return false;
+        }
+        if(set.contains(o)) {
+            hits.increment();
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for(Object o : c) {
+            if(!filter.mightContain(o) || !set.contains(o)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return Collections.unmodifiableSet(set).iterator();
+    }
+
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+    /**
+     * @return the false positive rate the filter was sized for
+     */
+    public double targetFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * @return the false positive rate expected from how full the filter
+     * actually is
+     */
+    public double expectedFalsePositiveRate() {
+        return filter.expectedFalsePositiveRate();
+    }
+
+    /**
+     * @return the fraction of misses so far that got past the filter, or 0 if
+     * there have been none
+     */
+    public double observedFalsePositiveRate() {
+        long falsePositives = this.falsePositives.sum();
+        long misses = rejected.sum() + falsePositives;
+        return misses == 0 ? 0 : (double) falsePositives / misses;
+    }
+
+    /**
+     * @return the size of the filter in bits
+     */
+    public long filterBits() {
+        return filter.bitSize();
+    }
+
+    /**
+     * @return the number of calls to contains() so far
+     */
+    public long probes() {
+        return rejected.sum() + falsePositives.sum() + hits.sum();
+    }
+
+    /**
+     * @return the number of calls to contains() that found the element
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of calls to contains() that the filter answered
+     * without looking in the set
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the number of calls to contains() that got past the filter but
+     * did not find the element
+     */
+    public long falsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * Sets all of the counts back to zero. Probes made at the same time may
+     * or may not be counted afterwards.
+     */
+    public void resetCounts() {
+        rejected.reset();
+        falsePositives.reset();
+        hits.reset();
+    }
+}
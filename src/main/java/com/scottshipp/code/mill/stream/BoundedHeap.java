@@ -0,0 +1,96 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps the k greatest elements added to it under a comparator, in a binary
+ * min-heap whose root is the least of them. Adding is O(log k), and an
+ * element no greater than the root is turned away with a single comparison.
+ *
+ * @param <T> the type of element kept
+ */
+final class BoundedHeap<T> {
+
+    private final int k;
+    private final Comparator<? super T> comparator;
+    private Object[] heap;
+    private int size;
+
+    BoundedHeap(int k, Comparator<? super T> comparator) {
+        this.k = k;
+        this.comparator = comparator;
+        this.heap = new Object[Math.min(k, 16)];
+    }
+
+    void add(T element) {
+        if(size < k) {
+            if(size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(k, heap.length * 2L));
+            }
+            heap[size] = element;
+            siftUp(size++);
+        } else if(k > 0 && comparator.compare(element, elementAt(0)) > 0) {
+            heap[0] = element;
+            siftDown(0);
+        }
+    }
+
+    BoundedHeap<T> merge(BoundedHeap<T> other) {
+        if(other.size > size) {
+            return other.merge(this);
+        }
+        for(int i = 0; i < other.size; i++) {
+            add(other.elementAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * @return the elements kept, greatest first
+     */
+    List<T> toList() {
+        @SuppressWarnings("unchecked")
+        T[] sorted = (T[]) Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, comparator.reversed());
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    private void siftUp(int i) {
+        T element = elementAt(i);
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            if(comparator.compare(element, elementAt(parent)) >= 0) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = element;
+    }
+
+    private void siftDown(int i) {
+        T element = elementAt(i);
+        int half = size >>> 1;
+        while(i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if(right < size && comparator.compare(elementAt(right), elementAt(child)) < 0) {
+                child = right;
+            }
+            if(comparator.compare(element, elementAt(child)) <= 0) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = element;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T elementAt(int i) {
+        return (T) heap[i];
+    }
+}
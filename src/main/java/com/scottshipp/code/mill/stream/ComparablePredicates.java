@@ -1,5 +1,6 @@
 package com.scottshipp.code.mill.stream;
 
+import java.util.Comparator;
 import java.util.function.Predicate;
 
 /**
@@ -79,7 +80,7 @@ public final class ComparablePredicates {
      * @return true if lower &lt; element &lt; higher.
      */
     public static <T extends Comparable<T>> Predicate<T> isInRangeOpen(T lower, T higher) {
-        return o -> o != null && o.compareTo(lower) > 0 && o.compareTo(higher) < 0;
+        return IntervalPredicate.between(IntervalPredicate.identity(), Comparator.naturalOrder(), Boolean.FALSE, lower, false, higher, false);
     }
 
     /**
@@ -96,22 +97,22 @@ public final class ComparablePredicates {
         if(lower.compareTo(higher) > 0) {
             throw new IllegalArgumentException("Please pass a valid range to the inRange predicate. Your range (" + lower + ", " + higher + ") is invalid.");
         }
-        return s -> s != null && s.compareTo(lower) >= 0 && s.compareTo(higher) <= 0;
+        return IntervalPredicate.between(IntervalPredicate.identity(), Comparator.naturalOrder(), Boolean.FALSE, lower, true, higher, true);
     }
 
     public static <T extends Comparable<T>> Predicate<T> isLessThan(T value) {
-        return s -> s != null && s.compareTo(value) < 0;
+        return IntervalPredicate.below(IntervalPredicate.identity(), Comparator.naturalOrder(), Boolean.FALSE, value, false);
     }
 
     public static <T extends Comparable<T>> Predicate<T> isGreaterThan(T value) {
-        return s -> s != null && s.compareTo(value) > 0;
+        return IntervalPredicate.above(IntervalPredicate.identity(), Comparator.naturalOrder(), Boolean.FALSE, value, false);
     }
 
     public static <T extends Comparable<T>> Predicate<T> isGreaterThanOrEqualTo(T value) {
-        return s -> s != null && s.compareTo(value) >= 0;
+        return IntervalPredicate.above(IntervalPredicate.identity(), Comparator.naturalOrder(), Boolean.FALSE, value, true);
     }
 
     public static <T extends Comparable<T>> Predicate<T> isLessThanOrEqualTo(T value) {
-        return s -> s != null && s.compareTo(value) <= 0;
+        return IntervalPredicate.below(IntervalPredicate.identity(), Comparator.naturalOrder(), Boolean.FALSE, value, true);
     }
 }
@@ -0,0 +1,70 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The template for predicates built by {@link CompiledPredicates}. It tests
+ * the same intervals as an {@link IntervalPredicate}, from plain arrays.
+ *
+ * <p>The bytes of this class are defined again as a new hidden class for every
+ * compiled predicate, so that the calls to the extractor and comparator below
+ * each get a call site, and a type profile, of their own. It must therefore
+ * stay self-contained: no lambdas, nested classes or references to itself.</p>
+ */
+final class CompiledIntervalPredicate implements Predicate<Object> {
+
+    static final int UNBOUNDED = 0;
+    static final int EXCLUSIVE = 1;
+    static final int INCLUSIVE = 2;
+
+    static final int PASS_NULLS = 0;
+    static final int NULL_TRUE = 1;
+    static final int NULL_FALSE = 2;
+
+    private final Function<Object, Object> extractor;
+    private final Comparator<Object> comparator;
+    private final int nullMode;
+    private final Object[] lows;
+    private final int[] lowModes;
+    private final Object[] highs;
+    private final int[] highModes;
+
+    CompiledIntervalPredicate(Function<Object, Object> extractor, Comparator<Object> comparator, int nullMode,
+                              Object[] lows, int[] lowModes, Object[] highs, int[] highModes) {
+        this.extractor = extractor;
+        this.comparator = comparator;
+        this.nullMode = nullMode;
+        this.lows = lows;
+        this.lowModes = lowModes;
+        this.highs = highs;
+        this.highModes = highModes;
+    }
+
+    @Override
+    public boolean test(Object s) {
+        Object data = extractor.apply(s);
+        if(data == null && nullMode != PASS_NULLS) {
+            return nullMode == NULL_TRUE;
+        }
+        for(int i = 0; i < lows.length; i++) {
+            int lowMode = lowModes[i];
+            if(lowMode != UNBOUNDED) {
+                int c = comparator.compare(data, lows[i]);
+                if(c < 0 || (c == 0 && lowMode == EXCLUSIVE)) {
+                    return false;
+                }
+            }
+            int highMode = highModes[i];
+            if(highMode == UNBOUNDED) {
+                return true;
+            }
+            int c = comparator.compare(data, highs[i]);
+            if(c < 0 || (c == 0 && highMode == INCLUSIVE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
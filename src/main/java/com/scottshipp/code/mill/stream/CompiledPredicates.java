@@ -0,0 +1,162 @@
+package com.scottshipp.code.mill.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Compiles range predicates into classes of their own, to keep the calls to
+ * their extractors and comparators monomorphic.
+ *
+ * <p>Every range predicate from {@link ValueComparisonPredicates} or
+ * {@link ComparatorPredicates} runs the same few lines of code. When an
+ * application filters on many different extractors, the calls in those lines
+ * to {@code methodRef.apply} and {@code comparator.compare} see many receiver
+ * types, and the JIT stops inlining them. A compiled predicate carries its own
+ * copy of that code, which only ever sees its own extractor and
+ * comparator.</p>
+ *
+ * <pre>
+ *     {@code
+ *     ValueComparisonPredicates<Order, Long> amount = ValueComparisonPredicates.where(Order::amount).compiled();
+ *     orders.filter(amount.isInRangeClosed(100L, 5_000L));
+ *
+ *     // or compile a predicate after fusing it
+ *     orders.filter(CompiledPredicates.compile(rule));
+ *     }
+ * </pre>
+ *
+ * <p>Each compiled predicate is a hidden class, defined with
+ * {@code MethodHandles.Lookup.defineHiddenClass} and unloaded along with the
+ * predicate. Hidden classes arrived in Java 15: on earlier versions there is
+ * no way to give a predicate its own copy of the code short of a class loader
+ * per predicate, so predicates are returned unchanged and compiling them
+ * costs nothing.</p>
+ *
+ * <p>Compiling takes far longer than building a predicate the normal way, so
+ * it only pays for predicates that are built once and then tested many
+ * times.</p>
+ */
+public final class CompiledPredicates {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType CONSTRUCTOR = MethodType.methodType(void.class, Function.class, Comparator.class,
+            int.class, Object[].class, int[].class, Object[].class, int[].class);
+
+    private CompiledPredicates() {
+        // static methods only
+    }
+
+    /**
+     * Compiles a range predicate, including one fused from several by
+     * {@link FusedPredicates}, into a class of its own. Any other predicate, or
+     * any predicate on a JVM without hidden classes, is returned unchanged.
+     *
+     * @param predicate the predicate to compile
+     * @param <S> the type of element tested
+     * @return an equivalent predicate
+     */
+    public static <S> Predicate<S> compile(Predicate<S> predicate) {
+        if(!(predicate instanceof IntervalPredicate) || !HiddenClasses.SUPPORTED) {
+            return predicate;
+        }
+        try {
+            return HiddenClasses.instantiate(constructorArguments((IntervalPredicate<S, ?>) predicate));
+        } catch(Throwable e) {
+            throw new IllegalStateException("Could not compile predicate " + predicate, e);
+        }
+    }
+
+    /**
+     * @return whether compiled predicates are hidden classes on this JVM
+     */
+    static boolean usesHiddenClasses() {
+        return HiddenClasses.SUPPORTED;
+    }
+
+    private static Object[] constructorArguments(IntervalPredicate<?, ?> predicate) {
+        List<? extends IntervalPredicate.Interval<?>> intervals = predicate.intervals();
+        Object[] lows = new Object[intervals.size()];
+        int[] lowModes = new int[intervals.size()];
+        Object[] highs = new Object[intervals.size()];
+        int[] highModes = new int[intervals.size()];
+        for(int i = 0; i < intervals.size(); i++) {
+            IntervalPredicate.Bound<?> low = intervals.get(i).low;
+            IntervalPredicate.Bound<?> high = intervals.get(i).high;
+            lows[i] = low == null ? null : low.value;
+            lowModes[i] = mode(low);
+            highs[i] = high == null ? null : high.value;
+            highModes[i] = mode(high);
+        }
+        Boolean nullResult = predicate.nullResult();
+        int nullMode = nullResult == null ? CompiledIntervalPredicate.PASS_NULLS
+                : nullResult ? CompiledIntervalPredicate.NULL_TRUE : CompiledIntervalPredicate.NULL_FALSE;
+        return new Object[] {predicate.extractor(), predicate.comparator(), nullMode, lows, lowModes, highs, highModes};
+    }
+
+    private static int mode(IntervalPredicate.Bound<?> bound) {
+        if(bound == null) {
+            return CompiledIntervalPredicate.UNBOUNDED;
+        }
+        return bound.inclusive ? CompiledIntervalPredicate.INCLUSIVE : CompiledIntervalPredicate.EXCLUSIVE;
+    }
+
+    /**
+     * Defines hidden classes from the bytes of {@link CompiledIntervalPredicate},
+     * through reflection so that this library still builds and runs on Java 8.
+     */
+    private static final class HiddenClasses {
+        static final boolean SUPPORTED;
+        private static final Method DEFINE_HIDDEN_CLASS;
+        private static final Object NO_OPTIONS;
+        private static final byte[] TEMPLATE;
+
+        static {
+            Method define = null;
+            Object options = null;
+            byte[] template = null;
+            try {
+                Class<?> option = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+                options = Array.newInstance(option, 0);
+                define = MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class, options.getClass());
+                template = templateBytes();
+            } catch(ReflectiveOperationException | IOException e) {
+                define = null;
+            }
+            SUPPORTED = define != null && template != null;
+            DEFINE_HIDDEN_CLASS = define;
+            NO_OPTIONS = options;
+            TEMPLATE = template;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <S> Predicate<S> instantiate(Object[] arguments) throws Throwable {
+            MethodHandles.Lookup hidden = (MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(LOOKUP, TEMPLATE, true, NO_OPTIONS);
+            MethodHandle constructor = hidden.findConstructor(hidden.lookupClass(), CONSTRUCTOR);
+            return (Predicate<S>) constructor.invokeWithArguments(arguments);
+        }
+
+        private static byte[] templateBytes() throws IOException {
+            try(InputStream in = CompiledIntervalPredicate.class.getResourceAsStream("CompiledIntervalPredicate.class")) {
+                if(in == null) {
+                    return null;
+                }
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                for(int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                    bytes.write(buffer, 0, read);
+                }
+                return bytes.toByteArray();
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Provides the operations of {@link StreamOps} for streams of primitive double
+ * values without boxing them. Sets of values are held in an open-addressing
+ * hash set of the values' bit patterns rather than a HashSet&lt;Double&gt;.
+ *
+ * <p>Values are compared the way {@link Double#equals(Object)} compares them,
+ * which is also how DoubleStream.distinct() behaves: NaN equals NaN, and 0.0
+ * and -0.0 are different values.</p>
+ *
+ * Like their counterparts in {@link StreamOps}, the returned streams are lazy:
+ * nothing is read until a terminal operation runs on them, and closing them
+ * closes the streams passed in.
+ */
+public final class DoubleStreamOps {
+
+    private static final int RESULT_CHARACTERISTICS = Spliterator.DISTINCT | Spliterator.NONNULL;
+
+    private DoubleStreamOps() {
+        // static methods only
+    }
+
+    /**
+     * Concatenates any number of double streams together into one new stream.
+     * The streams are joined as a balanced tree, so the result knows its exact
+     * size when every stream does and splits evenly for parallel execution.
+     *
+     * @param streams An array of double streams
+     * @return A new stream formed from the concatenation of all streams in the array
+     */
+    public static DoubleStream concat(DoubleStream... streams) {
+        return streams.length == 0 ? DoubleStream.empty() : concat(streams, 0, streams.length);
+    }
+
+    private static DoubleStream concat(DoubleStream[] streams, int from, int to) {
+        if(to - from == 1) {
+            return streams[from];
+        }
+        int mid = (from + to) >>> 1;
+        return DoubleStream.concat(concat(streams, from, mid), concat(streams, mid, to));
+    }
+
+    /**
+     * Given any number of double streams, returns distinct values such that the
+     * set of values in the returned stream each exist in all of the passed
+     * streams.
+     *
+     * <p>As with {@link StreamOps#intersection(java.util.stream.Stream[])}, only
+     * the smallest stream is collected into a set, each further stream narrows
+     * it down, and the matching values of the largest stream are emitted
+     * lazily in its encounter order.</p>
+     *
+     * @param streams An array of double streams
+     * @return distinct values of all passed streams such that the set of values
+     * in the returned stream each exist in all of the passed streams
+     */
+    public static DoubleStream intersection(DoubleStream... streams) {
+        if(streams.length == 0) {
+            return DoubleStream.empty();
+        }
+        Spliterator.OfDouble[] bySize = new Spliterator.OfDouble[streams.length];
+        for(int i = 0; i < streams.length; i++) {
+            bySize[i] = streams[i].spliterator();
+        }
+        Arrays.sort(bySize, Comparator.comparingLong(Spliterator::estimateSize));
+        int characteristics = RESULT_CHARACTERISTICS | (bySize[bySize.length - 1].characteristics() & Spliterator.ORDERED);
+        return StreamSupport.doubleStream(() -> intersect(bySize, characteristics), characteristics, false)
+                .onClose(StreamOps.closeAll(streams));
+    }
+
+    private static Spliterator.OfDouble intersect(Spliterator.OfDouble[] bySize, int characteristics) {
+        Spliterator.OfDouble largest = bySize[bySize.length - 1];
+        if(bySize.length == 1) {
+            LongHashSet seen = new LongHashSet();
+            return MoreSpliterators.filteringDouble(largest, value -> seen.add(bits(value)), MoreSpliterators.NEVER, characteristics);
+        }
+        LongHashSet built = new LongHashSet(bySize[0].estimateSize());
+        bySize[0].forEachRemaining((double value) -> built.add(bits(value)));
+        LongHashSet candidates = built;
+        for(int i = 1; i < bySize.length - 1 && !candidates.isEmpty(); i++) {
+            LongHashSet current = candidates;
+            LongHashSet found = new LongHashSet(current.size());
+            bySize[i].forEachRemaining((double value) -> {
+                long bits = bits(value);
+                if(current.contains(bits)) {
+                    found.add(bits);
+                }
+            });
+            candidates = found;
+        }
+        LongHashSet toEmit = candidates;
+        return MoreSpliterators.filteringDouble(largest, value -> toEmit.remove(bits(value)), toEmit::isEmpty, characteristics);
+    }
+
+    /**
+     * Given any number of double streams, returns distinct values such that the
+     * set of values in the returned stream are those distinct values of the
+     * first stream that are not contained in any of the subsequent passed
+     * streams.
+     *
+     * <p>The subsequent streams are read, in a single pass, into one set of
+     * exclusions, and the first stream is then filtered lazily in its
+     * encounter order.</p>
+     *
+     * @param streams An array of double streams
+     * @return distinct values of the first stream such that the set of values
+     * in the returned stream are not contained in any of the subsequent passed streams
+     */
+    public static DoubleStream difference(DoubleStream... streams) {
+        if(streams.length == 0) {
+            return DoubleStream.empty();
+        }
+        Spliterator.OfDouble[] inputs = new Spliterator.OfDouble[streams.length];
+        long expected = 0;
+        for(int i = 0; i < streams.length; i++) {
+            inputs[i] = streams[i].spliterator();
+            expected = i == 0 ? 0 : saturatedAdd(expected, inputs[i].estimateSize());
+        }
+        long expectedExclusions = expected;
+        int characteristics = RESULT_CHARACTERISTICS | (inputs[0].characteristics() & Spliterator.ORDERED);
+        return StreamSupport.doubleStream(() -> {
+            LongHashSet exclusions = new LongHashSet(expectedExclusions);
+            for(int i = 1; i < inputs.length; i++) {
+                inputs[i].forEachRemaining((double value) -> exclusions.add(bits(value)));
+            }
+            return MoreSpliterators.filteringDouble(inputs[0], value -> exclusions.add(bits(value)),
+                    MoreSpliterators.NEVER, characteristics);
+        }, characteristics, false).onClose(StreamOps.closeAll(streams));
+    }
+
+    /**
+     * Returns a new stream containing all distinct values from all passed
+     * double streams, in encounter order.
+     *
+     * @param streams An array of double streams
+     * @return a new stream containing all distinct values from all passed streams
+     */
+    public static DoubleStream distinctValues(DoubleStream... streams) {
+        Spliterator.OfDouble all = concat(streams).spliterator();
+        int characteristics = RESULT_CHARACTERISTICS | (all.characteristics() & Spliterator.ORDERED);
+        return StreamSupport.doubleStream(() -> {
+            LongHashSet seen = new LongHashSet();
+            return MoreSpliterators.filteringDouble(all, value -> seen.add(bits(value)), MoreSpliterators.NEVER, characteristics);
+        }, characteristics, false).onClose(StreamOps.closeAll(streams));
+    }
+
+    /**
+     * Maps a value to the bits Double.equals compares, with every NaN collapsed into one.
+     */
+    private static long bits(double value) {
+        return Double.doubleToLongBits(value);
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+}
@@ -0,0 +1,180 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ *
+ * DoubleValuePredicates is the primitive double counterpart of
+ * {@link ValueComparisonPredicates}. It builds predicates that compare a double
+ * returned by some member method of the elements of a Stream&lt;S&gt;, without
+ * boxing the value on every element and without calling compareTo.
+ *
+ * <pre>
+ *     {@code
+ *          import static DoubleValuePredicates.where;
+ *
+ *          // parcels weighing between 1.5 and 2.5 kg, inclusive
+ *          parcels.filter(where(Parcel::getWeight).isInRangeClosed(1.5, 2.5));
+ *
+ *          // standard Java boxes getWeight() on every element here
+ *          parcels.filter(ValueComparisonPredicates.where(Parcel::getWeight).isInRangeClosed(1.5, 2.5));
+ *     }
+ * </pre>
+ *
+ * <p>The methods taking a Double, required by {@link RangePredicate}, unbox
+ * their arguments once and return the same predicates as the methods taking
+ * a double. Comparisons follow the primitive operators, so a NaN value never
+ * matches any of the predicates.</p>
+ *
+ * @param <S> Type of the element in a Stream&lt;S&gt;
+ */
+public final class DoubleValuePredicates<S> implements RangePredicate<S, Double> {
+    private final ToDoubleFunction<S> methodRef;
+
+    private DoubleValuePredicates(ToDoubleFunction<S> methodRef) {
+        this.methodRef = methodRef;
+    }
+
+    /**
+     * Used to construct a predicate which can test against a given
+     * value or range of values.
+     *
+     * @param methodRef the method reference
+     * @param <S> the type holding the method
+     * @return a {@link DoubleValuePredicates DoubleValuePredicates} for the data method reference in question
+     */
+    public static <S> DoubleValuePredicates<S> where(ToDoubleFunction<S> methodRef) {
+        return new DoubleValuePredicates<>(methodRef);
+    }
+
+    /**
+     * Same as {@link #isInRangeOpen(double, double)}
+     *
+     * @param low the lower bound
+     * @param high the higher bound
+     * @return a predicate that returns true if lower &lt; data &lt; higher
+     */
+    public Predicate<S> isBetween(double low, double high) {
+        return isInRangeOpen(low, high);
+    }
+
+    /**
+     * Returns a predicate that returns true if lower &lt; data &lt; higher.
+     * It will throw a runtime exception if low &gt; high.
+     *
+     * @param low the lower bound
+     * @param high the higher bound
+     * @return a predicate that returns true if lower &lt; data &lt; higher
+     */
+    public Predicate<S> isInRangeOpen(double low, double high) {
+        validateRange(low, high);
+        return (S s) -> {
+            double data = methodRef.applyAsDouble(s);
+            return data > low && data < high;
+        };
+    }
+
+    /**
+     * Returns a predicate that returns true if lower &lt;= data &lt;= higher.
+     * It will throw a runtime exception if low &gt; high.
+     *
+     * @param low the lower bound
+     * @param high the higher bound
+     * @return a predicate that returns true if lower &lt;= data &lt;= higher
+     */
+    public Predicate<S> isInRangeClosed(double low, double high) {
+        validateRange(low, high);
+        return (S s) -> {
+            double data = methodRef.applyAsDouble(s);
+            return data >= low && data <= high;
+        };
+    }
+
+    /**
+     *
+     * @param low the lower bound
+     * @return true if the data is &gt; low
+     */
+    public Predicate<S> isGreaterThan(double low) {
+        return (S s) -> methodRef.applyAsDouble(s) > low;
+    }
+
+    /**
+     *
+     * @param high the upper bound
+     * @return true if the data is &lt; high
+     */
+    public Predicate<S> isLessThan(double high) {
+        return (S s) -> methodRef.applyAsDouble(s) < high;
+    }
+
+    /**
+     *
+     * @param low the lower bound
+     * @return true if the data is &gt;= low
+     */
+    public Predicate<S> isGreaterThanOrEqualTo(double low) {
+        return (S s) -> methodRef.applyAsDouble(s) >= low;
+    }
+
+    /**
+     *
+     * @param high the upper bound
+     * @return true if the data is &lt;= high
+     */
+    public Predicate<S> isLessThanOrEqualTo(double high) {
+        return (S s) -> methodRef.applyAsDouble(s) <= high;
+    }
+
+    /**
+     *
+     * @param value the value to check for equality
+     * @return true if the data equals value
+     */
+    public Predicate<S> equaling(double value) {
+        return (S s) -> methodRef.applyAsDouble(s) == value;
+    }
+
+    @Override
+    public Predicate<S> isBetween(Double low, Double high) {
+        return isBetween(low.doubleValue(), high.doubleValue());
+    }
+
+    @Override
+    public Predicate<S> isInRangeOpen(Double low, Double high) {
+        return isInRangeOpen(low.doubleValue(), high.doubleValue());
+    }
+
+    @Override
+    public Predicate<S> isInRangeClosed(Double low, Double high) {
+        return isInRangeClosed(low.doubleValue(), high.doubleValue());
+    }
+
+    @Override
+    public Predicate<S> isGreaterThan(Double low) {
+        return isGreaterThan(low.doubleValue());
+    }
+
+    @Override
+    public Predicate<S> isLessThan(Double high) {
+        return isLessThan(high.doubleValue());
+    }
+
+    @Override
+    public Predicate<S> isGreaterThanOrEqualTo(Double low) {
+        return isGreaterThanOrEqualTo(low.doubleValue());
+    }
+
+    @Override
+    public Predicate<S> isLessThanOrEqualTo(Double high) {
+        return isLessThanOrEqualTo(high.doubleValue());
+    }
+
+    private static void validateRange(double lower, double higher) {
+        if(!(lower <= higher)) {
+            throw new IllegalArgumentException("Please pass a valid range to the inRange predicate. Your range (" + lower + ", " + higher + ") is invalid.");
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Combines many predicates into one, fusing the range predicates among them.
+ *
+ * <p>Every range predicate returned by {@link ValueComparisonPredicates},
+ * {@link ComparatorPredicates} and {@link ComparablePredicates} knows the
+ * interval it accepts. When two of them compare the same extractor with the
+ * same comparator, such as two predicates from the same
+ * {@code where(Order::amount)} builder, they are merged into a single
+ * predicate that extracts the value once and checks it against the
+ * intersection (for {@link #allOf}) or union (for {@link #anyOf}) of their
+ * intervals. Any other predicates are kept, in order, and tested one after
+ * another in a single loop rather than a chain of nested lambdas.</p>
+ *
+ * <pre>
+ *     {@code
+ *     ValueComparisonPredicates<Order, Long> amount = ValueComparisonPredicates.where(Order::amount);
+ *
+ *     // one extraction and at most two comparisons per order
+ *     Predicate<Order> rule = FusedPredicates.allOf(
+ *         amount.isGreaterThan(100L),
+ *         amount.isLessThanOrEqualTo(5_000L),
+ *         amount.isGreaterThanOrEqualTo(250L),
+ *         order -> order.isPaid()
+ *     );
+ *     }
+ * </pre>
+ *
+ * <p>The same fusion happens when the range predicates are chained directly
+ * with {@link Predicate#and(Predicate)}, {@link Predicate#or(Predicate)} and
+ * {@link Predicate#negate()}, and chains through the predicates returned here
+ * keep fusing as more range predicates are added.</p>
+ */
+public final class FusedPredicates {
+
+    private FusedPredicates() {
+        // static methods only
+    }
+
+    /**
+     * Returns a predicate that is true when all of the given predicates are,
+     * testing them in order and stopping at the first that is false.
+     *
+     * @param predicates the predicates to combine
+     * @param <S> the type of element tested
+     * @return a predicate that is true when all of the given predicates are
+     */
+    @SafeVarargs
+    public static <S> Predicate<S> allOf(Predicate<? super S>... predicates) {
+        // copied element by element, since passing the array on is what javac flags as unsafe
+        List<Predicate<? super S>> list = new ArrayList<>(predicates.length);
+        for(Predicate<? super S> predicate : predicates) {
+            list.add(predicate);
+        }
+        return allOf(list);
+    }
+
+    /**
+     * Returns a predicate that is true when all of the given predicates are,
+     * testing them in order and stopping at the first that is false.
+     *
+     * @param predicates the predicates to combine
+     * @param <S> the type of element tested
+     * @return a predicate that is true when all of the given predicates are
+     */
+    public static <S> Predicate<S> allOf(Collection<? extends Predicate<? super S>> predicates) {
+        List<Predicate<? super S>> parts = fuse(predicates, true);
+        if(parts.size() == 1) {
+            return narrow(parts.get(0));
+        }
+        return new AllOf<>(parts.toArray(newArray(parts.size())));
+    }
+
+    /**
+     * Returns a predicate that is true when any of the given predicates is,
+     * testing them in order and stopping at the first that is true.
+     *
+     * @param predicates the predicates to combine
+     * @param <S> the type of element tested
+     * @return a predicate that is true when any of the given predicates is
+     */
+    @SafeVarargs
+    public static <S> Predicate<S> anyOf(Predicate<? super S>... predicates) {
+        List<Predicate<? super S>> list = new ArrayList<>(predicates.length);
+        for(Predicate<? super S> predicate : predicates) {
+            list.add(predicate);
+        }
+        return anyOf(list);
+    }
+
+    /**
+     * Returns a predicate that is true when any of the given predicates is,
+     * testing them in order and stopping at the first that is true.
+     *
+     * @param predicates the predicates to combine
+     * @param <S> the type of element tested
+     * @return a predicate that is true when any of the given predicates is
+     */
+    public static <S> Predicate<S> anyOf(Collection<? extends Predicate<? super S>> predicates) {
+        List<Predicate<? super S>> parts = fuse(predicates, false);
+        if(parts.size() == 1) {
+            return narrow(parts.get(0));
+        }
+        return new AnyOf<>(parts.toArray(newArray(parts.size())));
+    }
+
+    /**
+     * Flattens nested combinations of the same kind and merges each range
+     * predicate into the first earlier one it can be fused with.
+     */
+    private static <S> List<Predicate<? super S>> fuse(Collection<? extends Predicate<? super S>> predicates, boolean all) {
+        List<Predicate<? super S>> flat = new ArrayList<>(predicates.size());
+        for(Predicate<? super S> predicate : predicates) {
+            if(all && predicate instanceof AllOf) {
+                flat.addAll(Arrays.asList(((AllOf<? super S>) predicate).parts));
+            } else if(!all && predicate instanceof AnyOf) {
+                flat.addAll(Arrays.asList(((AnyOf<? super S>) predicate).parts));
+            } else {
+                flat.add(predicate);
+            }
+        }
+        List<Predicate<? super S>> fused = new ArrayList<>(flat.size());
+        for(Predicate<? super S> predicate : flat) {
+            if(predicate instanceof IntervalPredicate && merge(fused, (IntervalPredicate<?, ?>) predicate, all)) {
+                continue;
+            }
+            fused.add(predicate);
+        }
+        return fused;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S> boolean merge(List<Predicate<? super S>> fused, IntervalPredicate<?, ?> predicate, boolean all) {
+        for(int i = 0; i < fused.size(); i++) {
+            if(fused.get(i) instanceof IntervalPredicate) {
+                IntervalPredicate<Object, ?> earlier = (IntervalPredicate<Object, ?>) fused.get(i);
+                if(earlier.fusable(predicate) != null) {
+                    Predicate<Object> other = (Predicate<Object>) predicate;
+                    fused.set(i, (Predicate<? super S>) (all ? earlier.and(other) : earlier.or(other)));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S> Predicate<S> narrow(Predicate<? super S> predicate) {
+        return (Predicate<S>) predicate;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S> Predicate<? super S>[] newArray(int size) {
+        return (Predicate<? super S>[]) new Predicate<?>[size];
+    }
+
+    private static final class AllOf<S> implements Predicate<S> {
+        private final Predicate<? super S>[] parts;
+
+        AllOf(Predicate<? super S>[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean test(S s) {
+            for(Predicate<? super S> part : parts) {
+                if(!part.test(s)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Predicate<S> and(Predicate<? super S> other) {
+            return allOf(this, other);
+        }
+    }
+
+    private static final class AnyOf<S> implements Predicate<S> {
+        private final Predicate<? super S>[] parts;
+
+        AnyOf(Predicate<? super S>[] parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public boolean test(S s) {
+            for(Predicate<? super S> part : parts) {
+                if(part.test(s)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Predicate<S> or(Predicate<? super S> other) {
+            return anyOf(this, other);
+        }
+    }
+}
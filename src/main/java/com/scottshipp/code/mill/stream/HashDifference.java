@@ -0,0 +1,169 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streaming difference behind {@link StreamOps#difference(Stream[])}.
+ *
+ * <p>Every subtrahend that is not already a set is drained, in one pass, into
+ * a single exclusion set. Subtrahends which are sets are probed as they are.
+ * The minuend is then streamed lazily and each element is emitted only if
+ * {@code exclusions.add(element)} succeeds, so that one hash lookup both
+ * tests for exclusion and keeps the output distinct.</p>
+ *
+ * @param <T> the type of element
+ */
+final class HashDifference<T> {
+
+    private static final int RESULT_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL;
+
+    private final SetOperand<T> minuend;
+    private final List<SetOperand<T>> sets = new ArrayList<>();
+    private final List<SetOperand<T>> scans = new ArrayList<>();
+
+    private HashDifference(SetOperand<T> minuend, List<SetOperand<T>> subtrahends) {
+        this.minuend = minuend;
+        for(SetOperand<T> operand : subtrahends) {
+            (operand.isSet() ? sets : scans).add(operand);
+        }
+    }
+
+    /**
+     * Returns a lazy stream of the distinct elements of the minuend that are
+     * in none of the subtrahends.
+     *
+     * @param minuend the input to take elements from
+     * @param subtrahends the inputs whose elements are excluded
+     * @param closeHandler closes the inputs when the returned stream is closed
+     * @param <T> the type of element
+     * @return the difference
+     */
+    static <T> Stream<T> stream(SetOperand<T> minuend, List<SetOperand<T>> subtrahends, Runnable closeHandler) {
+        HashDifference<T> difference = new HashDifference<>(minuend, subtrahends);
+        int characteristics = Spliterator.DISTINCT | (minuend.spliterator().characteristics() & RESULT_CHARACTERISTICS);
+        return StreamSupport.stream(() -> difference.spliterator(characteristics), characteristics, false)
+                .onClose(closeHandler);
+    }
+
+    private Spliterator<T> spliterator(int characteristics) {
+        long expected = 0;
+        for(SetOperand<T> scan : scans) {
+            if(scan.size() == Long.MAX_VALUE) {
+                expected = Long.MAX_VALUE;
+                break;
+            }
+            expected += scan.size();
+        }
+        Set<T> exclusions = new HashSet<>(HashIntersection.initialCapacity(expected));
+        for(SetOperand<T> scan : scans) {
+            scan.spliterator().forEachRemaining(exclusions::add);
+        }
+
+        Predicate<T> emit = exclusions::add;
+        for(SetOperand<T> set : sets) {
+            Set<T> excluded = set.set();
+            Predicate<T> previous = emit;
+            emit = t -> !excluded.contains(t) && previous.test(t);
+        }
+        return MoreSpliterators.filtering(minuend.spliterator(), emit, characteristics);
+    }
+
+    /**
+     * Returns a lazy stream of the distinct elements of stream that are not
+     * in the stream produced by exclusions, holding only a Bloom filter of the
+     * exclusions in memory.
+     *
+     * <p>Elements the filter rules out are emitted straight away, in encounter
+     * order. Elements the filter cannot rule out are held back, then checked
+     * exactly against a second pass over the exclusions once stream is
+     * exhausted, and the ones that survive are emitted last.</p>
+     *
+     * @param stream the input to take elements from
+     * @param exclusions supplies the elements to exclude, the same ones each time it is called
+     * @param expectedExclusions roughly how many distinct elements exclusions holds
+     * @param falsePositiveRate the false positive rate to size the filter for
+     * @param <T> the type of element
+     * @return the difference
+     */
+    static <T> Stream<T> screened(Stream<T> stream, Supplier<Stream<T>> exclusions,
+                                  long expectedExclusions, double falsePositiveRate) {
+        BloomFilter<T> filter = BloomFilter.create(expectedExclusions, falsePositiveRate);
+        Spliterator<T> source = stream.spliterator();
+        int characteristics = Spliterator.DISTINCT | (source.characteristics() & Spliterator.NONNULL);
+        return StreamSupport.stream(() -> new ScreenedSpliterator<>(source, exclusions, filter, characteristics),
+                characteristics, false)
+                .onClose(stream::close);
+    }
+
+    private static final class ScreenedSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements Consumer<T> {
+        private final Spliterator<T> source;
+        private final Supplier<Stream<T>> exclusions;
+        private final BloomFilter<T> filter;
+        private final Set<T> emitted = new HashSet<>();
+        private final Set<T> suspects = new HashSet<>();
+        private Iterator<T> verified;
+        private T current;
+
+        ScreenedSpliterator(Spliterator<T> source, Supplier<Stream<T>> exclusions,
+                            BloomFilter<T> filter, int characteristics) {
+            super(Long.MAX_VALUE, characteristics);
+            this.source = source;
+            this.exclusions = exclusions;
+            this.filter = filter;
+            try(Stream<T> excluded = exclusions.get()) {
+                excluded.forEach(filter::add);
+            }
+        }
+
+        @Override
+        public void accept(T t) {
+            current = t;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while(verified == null && source.tryAdvance(this)) {
+                T t = current;
+                current = null;
+                if(filter.mightContain(t)) {
+                    suspects.add(t);
+                } else if(emitted.add(t)) {
+                    action.accept(t);
+                    return true;
+                }
+            }
+            if(verified == null) {
+                verify();
+            }
+            if(verified.hasNext()) {
+                action.accept(verified.next());
+                return true;
+            }
+            return false;
+        }
+
+        private void verify() {
+            emitted.clear();
+            if(!suspects.isEmpty()) {
+                try(Stream<T> excluded = exclusions.get()) {
+                    Iterator<T> iterator = excluded.iterator();
+                    while(!suspects.isEmpty() && iterator.hasNext()) {
+                        suspects.remove(iterator.next());
+                    }
+                }
+            }
+            verified = suspects.iterator();
+        }
+    }
+}
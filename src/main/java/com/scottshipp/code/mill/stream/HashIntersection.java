@@ -0,0 +1,150 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Multi-way hash intersection behind {@link StreamOps#intersection(Stream[])}.
+ *
+ * <p>The operands are planned as soon as the intersection is created, using
+ * their sizes, but nothing is traversed until a terminal operation runs on
+ * the returned stream. Then:</p>
+ *
+ * <ol>
+ *     <li>Operands which are already sets are never copied. They are only
+ *     probed with contains().</li>
+ *     <li>Of the remaining operands, the smallest is drained into a single
+ *     set of candidates, keeping only elements that every set operand
+ *     contains.</li>
+ *     <li>Each further operand except the largest narrows the candidates
+ *     down to the ones it contains, so the working set only ever shrinks.</li>
+ *     <li>The largest operand is never stored. Its elements are emitted
+ *     lazily, in its encounter order, as they are found among the
+ *     candidates. Each emitted element is removed from the candidates, which
+ *     keeps the output distinct, and traversal stops as soon as no
+ *     candidates are left.</li>
+ * </ol>
+ *
+ * <p>When every operand is a set, the smallest set is streamed and probed
+ * against the others, and no new set is built at all.</p>
+ *
+ * @param <T> the type of element
+ */
+final class HashIntersection<T> {
+
+    private static final int RESULT_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL;
+
+    private final List<SetOperand<T>> sets = new ArrayList<>();
+    private final List<SetOperand<T>> scans = new ArrayList<>();
+
+    private HashIntersection(List<SetOperand<T>> operands) {
+        for(SetOperand<T> operand : operands) {
+            (operand.isSet() ? sets : scans).add(operand);
+        }
+        sets.sort(SetOperand.BY_SIZE);
+        scans.sort(SetOperand.BY_SIZE);
+    }
+
+    /**
+     * Returns a lazy stream of the distinct elements found in every operand.
+     *
+     * @param operands the inputs to intersect
+     * @param closeHandler closes the inputs when the returned stream is closed
+     * @param <T> the type of element
+     * @return the intersection
+     */
+    static <T> Stream<T> stream(List<SetOperand<T>> operands, Runnable closeHandler) {
+        if(operands.isEmpty()) {
+            return Stream.empty();
+        }
+        HashIntersection<T> intersection = new HashIntersection<>(operands);
+        return StreamSupport.stream(intersection::spliterator, intersection.characteristics(), false)
+                .onClose(closeHandler);
+    }
+
+    private SetOperand<T> emitted() {
+        return scans.isEmpty() ? sets.get(0) : scans.get(scans.size() - 1);
+    }
+
+    private int characteristics() {
+        return Spliterator.DISTINCT | (emitted().spliterator().characteristics() & RESULT_CHARACTERISTICS);
+    }
+
+    private Spliterator<T> spliterator() {
+        int characteristics = characteristics();
+        if(scans.isEmpty()) {
+            List<SetOperand<T>> probes = sets.subList(1, sets.size());
+            return MoreSpliterators.filtering(sets.get(0).spliterator(), inAll(probes), characteristics);
+        }
+
+        Predicate<T> inAllSets = inAll(sets);
+        if(scans.size() == 1) {
+            Set<T> seen = new HashSet<>();
+            return MoreSpliterators.filtering(scans.get(0).spliterator(),
+                    t -> inAllSets.test(t) && seen.add(t), characteristics);
+        }
+
+        SetOperand<T> build = scans.get(0);
+        Set<T> candidates = new HashSet<>(initialCapacity(build.size()));
+        build.spliterator().forEachRemaining(t -> {
+            if(inAllSets.test(t)) {
+                candidates.add(t);
+            }
+        });
+
+        Set<T> remaining = candidates;
+        for(SetOperand<T> probe : scans.subList(1, scans.size() - 1)) {
+            if(remaining.isEmpty()) {
+                break;
+            }
+            Set<T> current = remaining;
+            Set<T> found = new HashSet<>(initialCapacity(current.size()));
+            probe.spliterator().forEachRemaining(t -> {
+                if(current.contains(t)) {
+                    found.add(t);
+                }
+            });
+            remaining = found;
+        }
+
+        Set<T> toEmit = remaining;
+        return MoreSpliterators.filtering(emitted().spliterator(), toEmit::remove, toEmit::isEmpty, characteristics);
+    }
+
+    private static <T> Predicate<T> inAll(List<SetOperand<T>> operands) {
+        if(operands.isEmpty()) {
+            return t -> true;
+        }
+        @SuppressWarnings("unchecked")
+        Set<T>[] probes = (Set<T>[]) new Set<?>[operands.size()];
+        for(int i = 0; i < probes.length; i++) {
+            probes[i] = operands.get(i).set();
+        }
+        return t -> {
+            for(Set<T> probe : probes) {
+                if(!probe.contains(t)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Returns a HashSet capacity that holds expectedSize elements without
+     * rehashing, or the default capacity when the size is unknown.
+     */
+    static int initialCapacity(long expectedSize) {
+        if(expectedSize == Long.MAX_VALUE) {
+            return 16;
+        }
+        long bounded = Math.min(expectedSize, 1 << 29);
+        return (int) Math.max(16L, bounded * 4 / 3 + 1);
+    }
+}
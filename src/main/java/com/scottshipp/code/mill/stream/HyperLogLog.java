@@ -0,0 +1,329 @@
+package com.scottshipp.code.mill.stream;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A HyperLogLog sketch, which estimates how many distinct values it has been
+ * given in a fixed amount of memory, however many values there are.
+ *
+ * <p>A sketch of precision p holds 2<sup>p</sup> one-byte registers and
+ * estimates with a relative standard error of about 1.04 / sqrt(2<sup>p</sup>):
+ * around 1.6% at precision 12, in 4 KiB, and 0.4% at precision 16, in 64
+ * KiB. Until a sketch has seen 2<sup>p</sup> / 4 distinct values it keeps their
+ * hashes instead, and counts them exactly. The estimate from the registers
+ * uses Ertl's improved estimator, which needs no bias tables and is accurate
+ * from small to very large counts.</p>
+ *
+ * <pre>
+ *     {@code
+ *     // unique visitors, counted without holding them
+ *     long visitors = events.map(Event::visitorId).collect(MoreCollectors.approxDistinctCount(14));
+ *
+ *     // or combine sketches from many nodes
+ *     HyperLogLog total = new HyperLogLog(14);
+ *     for(byte[] bytes : sketchesFromEachNode) {
+ *         total.merge(HyperLogLog.fromByteArray(bytes));
+ *     }
+ *     long visitors = total.estimate();
+ *     }
+ * </pre>
+ *
+ * <p>Values are hashed to 64 bits. Strings and other CharSequences, and
+ * integral and floating point Numbers, are hashed by their contents; any
+ * other object by its hashCode(), which holds only 32 bits, so counts of such
+ * objects much beyond a hundred million will drift. Use {@link #add(long)}
+ * with a 64-bit key of your own for those. Null counts as a value of its own,
+ * distinct from every other.</p>
+ *
+ * <p>A HyperLogLog is not thread-safe.</p>
+ */
+public final class HyperLogLog {
+
+    /** The lowest precision allowed. */
+    public static final int MIN_PRECISION = 4;
+
+    /** The highest precision allowed. */
+    public static final int MAX_PRECISION = 18;
+
+    private static final byte FORMAT = 1;
+    private static final byte EXACT = 0;
+    private static final byte REGISTERS = 1;
+    private static final byte EXACT_WITH_NULL = 2;
+
+    // every long has a hash of its own, so null is only told apart while counting exactly
+    private static final long NULL_HASH = mix(0x6E756C6CL);
+
+    private final int precision;
+    private LongHashSet exact;
+    private boolean exactNull;
+    private byte[] registers;
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param precision the number of bits choosing a register, from 4 to 18
+     * @throws IllegalArgumentException if precision is out of range
+     */
+    public HyperLogLog(int precision) {
+        this.precision = checkPrecision(precision);
+        this.exact = new LongHashSet();
+    }
+
+    /**
+     * @throws IllegalArgumentException if precision is out of range
+     */
+    static int checkPrecision(int precision) {
+        if(precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be from " + MIN_PRECISION + " to " + MAX_PRECISION + ", but was " + precision);
+        }
+        return precision;
+    }
+
+    /**
+     * Adds a value to the sketch.
+     *
+     * @param value the value, which may be null
+     */
+    public void add(Object value) {
+        if(value == null) {
+            addNull();
+        } else {
+            addHash(hash(value));
+        }
+    }
+
+    /**
+     * Adds a long value to the sketch. The same as adding the Long.
+     *
+     * @param value the value
+     */
+    public void add(long value) {
+        addHash(mix(value));
+    }
+
+    /**
+     * Adds all of the values of other to this sketch, as if they had been added
+     * to it directly.
+     *
+     * @param other a sketch of the same precision
+     * @return this sketch
+     * @throws IllegalArgumentException if other has a different precision
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if(other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge a sketch of precision " + other.precision + " into one of precision " + precision);
+        }
+        if(other.exact != null) {
+            other.exact.forEach(this::addHash);
+            if(other.exactNull) {
+                addNull();
+            }
+        } else {
+            if(exact != null) {
+                toRegisters();
+            }
+            for(int i = 0; i < registers.length; i++) {
+                registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the estimated number of distinct values added, exact while the
+     * count is below a quarter of the number of registers
+     */
+    public long estimate() {
+        if(exact != null) {
+            return exactSize();
+        }
+        int m = registers.length;
+        int q = 64 - precision;
+        int[] counts = new int[q + 2];
+        for(byte register : registers) {
+            counts[register]++;
+        }
+        double z = m * tau(1 - (double) counts[q + 1] / m);
+        for(int k = q; k >= 1; k--) {
+            z = 0.5 * (z + counts[k]);
+        }
+        z += m * sigma((double) counts[0] / m);
+        return Math.round(m * (m / (2 * Math.log(2))) / z);
+    }
+
+    /**
+     * @return the precision this sketch was created with
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * Serializes this sketch, to be sent to another process and merged there.
+     *
+     * @return the bytes of this sketch
+     * @see #fromByteArray(byte[])
+     */
+    public byte[] toByteArray() {
+        ByteBuffer bytes;
+        if(exact != null) {
+            bytes = ByteBuffer.allocate(3 + 4 + 8 * exact.size());
+            bytes.put(FORMAT).put((byte) precision).put(exactNull ? EXACT_WITH_NULL : EXACT).putInt(exact.size());
+            exact.forEach(bytes::putLong);
+        } else {
+            bytes = ByteBuffer.allocate(3 + registers.length);
+            bytes.put(FORMAT).put((byte) precision).put(REGISTERS).put(registers);
+        }
+        return bytes.array();
+    }
+
+    /**
+     * Reads a sketch written by {@link #toByteArray()}.
+     *
+     * @param bytes the bytes of a sketch
+     * @return the sketch
+     * @throws IllegalArgumentException if the bytes are not a sketch
+     */
+    public static HyperLogLog fromByteArray(byte[] bytes) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if(in.get() != FORMAT) {
+                throw new IllegalArgumentException("Not a HyperLogLog sketch, or from a newer version");
+            }
+            HyperLogLog sketch = new HyperLogLog(in.get());
+            byte mode = in.get();
+            if(mode == EXACT || mode == EXACT_WITH_NULL) {
+                for(int i = in.getInt(); i > 0; i--) {
+                    sketch.addHash(in.getLong());
+                }
+                if(mode == EXACT_WITH_NULL) {
+                    sketch.addNull();
+                }
+            } else if(mode == REGISTERS) {
+                sketch.toRegisters();
+                in.get(sketch.registers);
+                for(byte register : sketch.registers) {
+                    if(register < 0 || register > 65 - sketch.precision) {
+                        throw new IllegalArgumentException("Corrupt HyperLogLog register value " + register);
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown HyperLogLog mode " + mode);
+            }
+            if(in.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes after HyperLogLog sketch");
+            }
+            return sketch;
+        } catch(BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated HyperLogLog sketch", e);
+        }
+    }
+
+    private void addHash(long hash) {
+        if(exact != null) {
+            exact.add(hash);
+            if(exactSize() > (1 << precision) / 4) {
+                toRegisters();
+            }
+        } else {
+            addToRegisters(hash);
+        }
+    }
+
+    private void addNull() {
+        if(exact == null) {
+            addToRegisters(NULL_HASH);
+        } else if(!exactNull) {
+            exactNull = true;
+            if(exactSize() > (1 << precision) / 4) {
+                toRegisters();
+            }
+        }
+    }
+
+    private int exactSize() {
+        return exact.size() + (exactNull ? 1 : 0);
+    }
+
+    private void addToRegisters(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        long rest = hash << precision;
+        int rank = rest == 0 ? 65 - precision : Long.numberOfLeadingZeros(rest) + 1;
+        if(rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    private void toRegisters() {
+        LongHashSet hashes = exact;
+        exact = null;
+        registers = new byte[1 << precision];
+        hashes.forEach(this::addToRegisters);
+        if(exactNull) {
+            exactNull = false;
+            addToRegisters(NULL_HASH);
+        }
+    }
+
+    private static double sigma(double x) {
+        if(x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while(previous != z);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if(x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while(previous != z);
+        return z / 3;
+    }
+
+    private static long hash(Object value) {
+        if(value instanceof CharSequence) {
+            CharSequence chars = (CharSequence) value;
+            long h = 0xCBF29CE484222325L;
+            for(int i = 0; i < chars.length(); i++) {
+                h = (h ^ chars.charAt(i)) * 0x100000001B3L;
+            }
+            return mix(h);
+        }
+        if(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return mix(((Number) value).longValue());
+        }
+        if(value instanceof Double || value instanceof Float) {
+            return mix(Double.doubleToLongBits(((Number) value).doubleValue()));
+        }
+        return mix(value.hashCode());
+    }
+
+    /**
+     * Spreads the bits of value over all 64 bits of the hash, as SplitMix64
+     * does.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,844 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compressed set of int values, laid out the way Roaring bitmaps are. It
+ * is meant for dense int domains, such as IDs, shard numbers or days of the
+ * year, where even a primitive hash set spends far more memory per value than
+ * a bit.
+ *
+ * <p>Values are grouped by their upper 16 bits into chunks of up to 65536
+ * values. Each chunk is stored in whichever of three containers suits it:</p>
+ *
+ * <ul>
+ *     <li>a sorted array of the lower 16 bits, for sparse chunks of up to
+ *     4096 values,</li>
+ *     <li>a plain 65536-bit bitmap, for denser chunks,</li>
+ *     <li>a list of runs of consecutive values, for chunks made of long runs.
+ *     Run containers are only chosen by {@link #runOptimize()}.</li>
+ * </ul>
+ *
+ * <p>{@link #and(IntBitmap)}, {@link #andNot(IntBitmap)} and {@link #or(IntBitmap)}
+ * work a chunk at a time, 64 values per machine word when both chunks are
+ * bitmaps, and return a new IntBitmap without changing either operand.</p>
+ *
+ * <pre>
+ *     {@code
+ *     IntBitmap active = IntBitmap.of(activeUserIds);
+ *     IntBitmap premium = IntBitmap.of(premiumUserIds);
+ *     IntStream activePremium = active.and(premium).stream();
+ *     }
+ * </pre>
+ *
+ * <p>See {@link IntStreamOps#denseIntersection(IntStream...)} and the other
+ * dense operations there for the same set algebra directly over streams.</p>
+ *
+ * <p>An IntBitmap is not thread-safe. It must not be modified while one of its
+ * streams is being consumed.</p>
+ */
+public final class IntBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BATCH = 1 << 16;
+
+    private int[] keys;
+    private Container[] containers;
+    private int count;
+
+    /**
+     * Creates an empty bitmap.
+     */
+    public IntBitmap() {
+        this(4);
+    }
+
+    private IntBitmap(int capacity) {
+        keys = new int[Math.max(1, capacity)];
+        containers = new Container[Math.max(1, capacity)];
+    }
+
+    /**
+     * Creates a bitmap of the given values.
+     *
+     * @param values the values to add, in any order and possibly repeated
+     * @return a new bitmap holding the distinct values
+     */
+    public static IntBitmap of(int... values) {
+        IntBitmap bitmap = new IntBitmap();
+        bitmap.addAll(values.clone(), values.length);
+        return bitmap;
+    }
+
+    /**
+     * Creates a bitmap of every value in the stream. The values are added in
+     * sorted batches, so the stream does not need to be sorted.
+     *
+     * @param values the values to add, in any order and possibly repeated
+     * @return a new bitmap holding the distinct values
+     */
+    public static IntBitmap of(IntStream values) {
+        IntBitmap bitmap = new IntBitmap();
+        Batcher batcher = bitmap.new Batcher();
+        values.sequential().forEach(batcher);
+        batcher.flush();
+        return bitmap;
+    }
+
+    static IntBitmap of(Spliterator.OfInt values) {
+        IntBitmap bitmap = new IntBitmap();
+        bitmap.addAll(values);
+        return bitmap;
+    }
+
+    void addAll(Spliterator.OfInt values) {
+        Batcher batcher = new Batcher();
+        values.forEachRemaining(batcher);
+        batcher.flush();
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value to add
+     * @return true if the value was not already present
+     */
+    public boolean add(int value) {
+        int high = value >> 16;
+        int index = indexOf(high);
+        if(index < 0) {
+            index = insertAt(-index - 1, high, new ArrayContainer(4));
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        containers[index] = container.add(value & 0xFFFF);
+        return containers[index].cardinality() > before;
+    }
+
+    /**
+     * @param value the value to look for
+     * @return true if the value is present
+     */
+    public boolean contains(int value) {
+        int index = indexOf(value >> 16);
+        return index >= 0 && containers[index].contains(value & 0xFFFF);
+    }
+
+    /**
+     * @return the number of values present
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for(int i = 0; i < count; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return true if no value is present
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the values present in both this bitmap and other.
+     *
+     * @param other the bitmap to intersect with
+     * @return a new bitmap
+     */
+    public IntBitmap and(IntBitmap other) {
+        IntBitmap result = new IntBitmap(Math.min(count, other.count));
+        int i = 0;
+        int j = 0;
+        while(i < count && j < other.count) {
+            if(keys[i] < other.keys[j]) {
+                i++;
+            } else if(keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(keys[i], Container.and(containers[i], other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values present in this bitmap but not in other.
+     *
+     * @param other the bitmap whose values are removed
+     * @return a new bitmap
+     */
+    public IntBitmap andNot(IntBitmap other) {
+        IntBitmap result = new IntBitmap(count);
+        int j = 0;
+        for(int i = 0; i < count; i++) {
+            while(j < other.count && other.keys[j] < keys[i]) {
+                j++;
+            }
+            boolean shared = j < other.count && other.keys[j] == keys[i];
+            result.append(keys[i], shared ? Container.andNot(containers[i], other.containers[j]) : containers[i].copy());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values present in this bitmap, in other, or in both.
+     *
+     * @param other the bitmap to combine with
+     * @return a new bitmap
+     */
+    public IntBitmap or(IntBitmap other) {
+        IntBitmap result = new IntBitmap(count + other.count);
+        int i = 0;
+        int j = 0;
+        while(i < count || j < other.count) {
+            if(j == other.count || (i < count && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i++].copy());
+            } else if(i == count || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j++].copy());
+            } else {
+                result.append(keys[i], Container.or(containers[i++], other.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts each chunk to whichever container takes the least memory,
+     * including run containers for chunks made of long runs of consecutive
+     * values. Worth calling on a bitmap that will be kept and reused.
+     *
+     * @return this bitmap
+     */
+    public IntBitmap runOptimize() {
+        for(int i = 0; i < count; i++) {
+            containers[i] = containers[i].optimize();
+        }
+        return this;
+    }
+
+    /**
+     * Returns the values present, in ascending order. The stream reports
+     * SORTED, DISTINCT and its exact size.
+     *
+     * @return a stream of the values present
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    Spliterator.OfInt spliterator() {
+        return Spliterators.spliterator(new ValueIterator(), cardinality(),
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    private int indexOf(int high) {
+        if(count > 0 && keys[count - 1] == high) {
+            return count - 1;
+        }
+        return Arrays.binarySearch(keys, 0, count, high);
+    }
+
+    private int insertAt(int index, int high, Container container) {
+        ensureCapacity(count + 1);
+        System.arraycopy(keys, index, keys, index + 1, count - index);
+        System.arraycopy(containers, index, containers, index + 1, count - index);
+        keys[index] = high;
+        containers[index] = container;
+        count++;
+        return index;
+    }
+
+    private void append(int high, Container container) {
+        if(container != null) {
+            ensureCapacity(count + 1);
+            keys[count] = high;
+            containers[count] = container;
+            count++;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if(capacity > keys.length) {
+            int newCapacity = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, newCapacity);
+            containers = Arrays.copyOf(containers, newCapacity);
+        }
+    }
+
+    /**
+     * Sorts the first n values and adds them a chunk at a time.
+     */
+    private void addAll(int[] values, int n) {
+        Arrays.sort(values, 0, n);
+        int from = 0;
+        while(from < n) {
+            int high = values[from] >> 16;
+            int to = from + 1;
+            while(to < n && values[to] >> 16 == high) {
+                to++;
+            }
+            int index = indexOf(high);
+            if(index < 0) {
+                index = insertAt(-index - 1, high, new ArrayContainer(to - from));
+            }
+            containers[index] = containers[index].addSorted(values, from, to);
+            from = to;
+        }
+    }
+
+    /**
+     * Collects values from a stream into sorted batches.
+     */
+    private final class Batcher implements IntConsumer {
+        private final int[] batch = new int[BATCH];
+        private int size;
+
+        @Override
+        public void accept(int value) {
+            batch[size++] = value;
+            if(size == BATCH) {
+                flush();
+            }
+        }
+
+        void flush() {
+            addAll(batch, size);
+            size = 0;
+        }
+    }
+
+    /**
+     * Iterates the values present, in ascending order.
+     */
+    private final class ValueIterator implements PrimitiveIterator.OfInt {
+        private int index = -1;
+        private int base;
+        private PrimitiveIterator.OfInt lows = Container.EMPTY;
+
+        @Override
+        public boolean hasNext() {
+            while(!lows.hasNext()) {
+                if(++index >= count) {
+                    return false;
+                }
+                base = keys[index] << 16;
+                lows = containers[index].lows();
+            }
+            return true;
+        }
+
+        @Override
+        public int nextInt() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return base | lows.nextInt();
+        }
+    }
+
+    /**
+     * The values of one chunk, as the lower 16 bits of each value. Mutating
+     * methods may return a different container to replace this one.
+     */
+    private abstract static class Container {
+
+        static final PrimitiveIterator.OfInt EMPTY = IntStream.empty().iterator();
+
+        abstract boolean contains(int low);
+
+        abstract int cardinality();
+
+        abstract Container add(int low);
+
+        /**
+         * Adds the lower 16 bits of values[from, to), which are sorted.
+         */
+        abstract Container addSorted(int[] values, int from, int to);
+
+        /**
+         * @return a new bitmap container holding the same values
+         */
+        abstract BitmapContainer toBitmap();
+
+        abstract Container copy();
+
+        abstract PrimitiveIterator.OfInt lows();
+
+        abstract int sizeInBytes();
+
+        Container optimize() {
+            int cardinality = cardinality();
+            int runs = RunContainer.countRuns(lows());
+            int arrayBytes = cardinality <= ARRAY_MAX ? cardinality * 2 : Integer.MAX_VALUE;
+            int runBytes = runs * 4;
+            int best = Math.min(Math.min(arrayBytes, runBytes), BitmapContainer.BYTES);
+            if(best == sizeInBytes()) {
+                return this;
+            } else if(best == runBytes) {
+                return RunContainer.of(lows(), runs);
+            } else if(best == arrayBytes) {
+                return ArrayContainer.of(lows(), cardinality);
+            }
+            return toBitmap();
+        }
+
+        static Container and(Container a, Container b) {
+            if(a instanceof ArrayContainer) {
+                return ((ArrayContainer) a).filter(b, true);
+            } else if(b instanceof ArrayContainer) {
+                return ((ArrayContainer) b).filter(a, true);
+            }
+            BitmapContainer result = a.toBitmap();
+            result.andInPlace(b.toBitmap());
+            return result.shrink();
+        }
+
+        static Container andNot(Container a, Container b) {
+            if(a instanceof ArrayContainer) {
+                return ((ArrayContainer) a).filter(b, false);
+            }
+            BitmapContainer result = a.toBitmap();
+            result.andNotInPlace(b);
+            return result.shrink();
+        }
+
+        static Container or(Container a, Container b) {
+            if(a instanceof ArrayContainer && b instanceof ArrayContainer
+                    && a.cardinality() + b.cardinality() <= ARRAY_MAX) {
+                return ((ArrayContainer) a).union((ArrayContainer) b);
+            }
+            BitmapContainer result = a.toBitmap();
+            result.orInPlace(b);
+            return result.shrinkOrSelf();
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] content;
+        private int cardinality;
+
+        ArrayContainer(int capacity) {
+            content = new char[Math.max(4, Math.min(capacity, ARRAY_MAX))];
+        }
+
+        private ArrayContainer(char[] content, int cardinality) {
+            this.content = content;
+            this.cardinality = cardinality;
+        }
+
+        static ArrayContainer of(PrimitiveIterator.OfInt lows, int cardinality) {
+            char[] content = new char[cardinality];
+            for(int i = 0; i < cardinality; i++) {
+                content[i] = (char) lows.nextInt();
+            }
+            return new ArrayContainer(content, cardinality);
+        }
+
+        @Override
+        boolean contains(int low) {
+            return Arrays.binarySearch(content, 0, cardinality, (char) low) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container add(int low) {
+            int index = Arrays.binarySearch(content, 0, cardinality, (char) low);
+            if(index >= 0) {
+                return this;
+            }
+            if(cardinality == ARRAY_MAX) {
+                return toBitmap().add(low);
+            }
+            index = -index - 1;
+            if(cardinality == content.length) {
+                content = Arrays.copyOf(content, Math.min(content.length * 2, ARRAY_MAX));
+            }
+            System.arraycopy(content, index, content, index + 1, cardinality - index);
+            content[index] = (char) low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container addSorted(int[] values, int from, int to) {
+            if(cardinality + (to - from) > ARRAY_MAX) {
+                return toBitmap().addSorted(values, from, to).shrinkOrSelf();
+            }
+            char[] merged = new char[Math.max(4, cardinality + (to - from))];
+            int size = 0;
+            int i = 0;
+            int j = from;
+            while(i < cardinality || j < to) {
+                char next;
+                if(j == to || (i < cardinality && content[i] <= (char) values[j])) {
+                    next = content[i++];
+                } else {
+                    next = (char) values[j++];
+                }
+                if(size == 0 || merged[size - 1] != next) {
+                    merged[size++] = next;
+                }
+            }
+            content = merged;
+            cardinality = size;
+            return this;
+        }
+
+        /**
+         * @return the values of this container that other does (keep) or
+         * does not (!keep) contain, or null if there are none
+         */
+        Container filter(Container other, boolean keep) {
+            char[] kept = new char[cardinality];
+            int size = 0;
+            for(int i = 0; i < cardinality; i++) {
+                if(other.contains(content[i]) == keep) {
+                    kept[size++] = content[i];
+                }
+            }
+            return size == 0 ? null : new ArrayContainer(kept, size);
+        }
+
+        ArrayContainer union(ArrayContainer other) {
+            ArrayContainer result = new ArrayContainer(Arrays.copyOf(content, cardinality), cardinality);
+            int[] values = new int[other.cardinality];
+            for(int i = 0; i < values.length; i++) {
+                values[i] = other.content[i];
+            }
+            result.addSorted(values, 0, values.length);
+            return result;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for(int i = 0; i < cardinality; i++) {
+                bitmap.set(content[i]);
+            }
+            return bitmap;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(content, cardinality), cardinality);
+        }
+
+        @Override
+        PrimitiveIterator.OfInt lows() {
+            return new PrimitiveIterator.OfInt() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < cardinality;
+                }
+
+                @Override
+                public int nextInt() {
+                    if(index >= cardinality) {
+                        throw new NoSuchElementException();
+                    }
+                    return content[index++];
+                }
+            };
+        }
+
+        @Override
+        int sizeInBytes() {
+            return cardinality * 2;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        static final int BYTES = 8192;
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[1024], 0);
+        }
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        void set(int low) {
+            long before = words[low >>> 6];
+            long after = before | (1L << low);
+            words[low >>> 6] = after;
+            if(before != after) {
+                cardinality++;
+            }
+        }
+
+        @Override
+        boolean contains(int low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container add(int low) {
+            set(low);
+            return this;
+        }
+
+        @Override
+        BitmapContainer addSorted(int[] values, int from, int to) {
+            for(int i = from; i < to; i++) {
+                set(values[i] & 0xFFFF);
+            }
+            return this;
+        }
+
+        void andInPlace(BitmapContainer other) {
+            int result = 0;
+            for(int i = 0; i < words.length; i++) {
+                words[i] &= other.words[i];
+                result += Long.bitCount(words[i]);
+            }
+            cardinality = result;
+        }
+
+        void andNotInPlace(Container other) {
+            if(other instanceof BitmapContainer) {
+                long[] otherWords = ((BitmapContainer) other).words;
+                int result = 0;
+                for(int i = 0; i < words.length; i++) {
+                    words[i] &= ~otherWords[i];
+                    result += Long.bitCount(words[i]);
+                }
+                cardinality = result;
+                return;
+            }
+            PrimitiveIterator.OfInt lows = other.lows();
+            while(lows.hasNext()) {
+                int low = lows.nextInt();
+                if(contains(low)) {
+                    words[low >>> 6] &= ~(1L << low);
+                    cardinality--;
+                }
+            }
+        }
+
+        void orInPlace(Container other) {
+            if(other instanceof BitmapContainer) {
+                long[] otherWords = ((BitmapContainer) other).words;
+                int result = 0;
+                for(int i = 0; i < words.length; i++) {
+                    words[i] |= otherWords[i];
+                    result += Long.bitCount(words[i]);
+                }
+                cardinality = result;
+                return;
+            }
+            PrimitiveIterator.OfInt lows = other.lows();
+            while(lows.hasNext()) {
+                set(lows.nextInt());
+            }
+        }
+
+        /**
+         * @return an array container if few enough values remain, null if
+         * none remain, otherwise this
+         */
+        Container shrink() {
+            return cardinality == 0 ? null : shrinkOrSelf();
+        }
+
+        Container shrinkOrSelf() {
+            return cardinality <= ARRAY_MAX && cardinality > 0 ? ArrayContainer.of(lows(), cardinality) : this;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        Container copy() {
+            return toBitmap();
+        }
+
+        @Override
+        PrimitiveIterator.OfInt lows() {
+            return new PrimitiveIterator.OfInt() {
+                private int index;
+                private long word = words[0];
+
+                @Override
+                public boolean hasNext() {
+                    while(word == 0) {
+                        if(++index == words.length) {
+                            return false;
+                        }
+                        word = words[index];
+                    }
+                    return true;
+                }
+
+                @Override
+                public int nextInt() {
+                    if(!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int low = index * 64 + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    return low;
+                }
+            };
+        }
+
+        @Override
+        int sizeInBytes() {
+            return BYTES;
+        }
+    }
+
+    /**
+     * Runs of consecutive values, each stored as its start and its length
+     * minus one.
+     */
+    private static final class RunContainer extends Container {
+        private final char[] starts;
+        private final char[] lengths;
+        private final int runs;
+        private final int cardinality;
+
+        private RunContainer(char[] starts, char[] lengths, int runs) {
+            this.starts = starts;
+            this.lengths = lengths;
+            this.runs = runs;
+            int total = 0;
+            for(int i = 0; i < runs; i++) {
+                total += lengths[i] + 1;
+            }
+            this.cardinality = total;
+        }
+
+        static int countRuns(PrimitiveIterator.OfInt lows) {
+            int runs = 0;
+            int previous = -2;
+            while(lows.hasNext()) {
+                int low = lows.nextInt();
+                if(low != previous + 1) {
+                    runs++;
+                }
+                previous = low;
+            }
+            return runs;
+        }
+
+        static RunContainer of(PrimitiveIterator.OfInt lows, int runs) {
+            char[] starts = new char[runs];
+            char[] lengths = new char[runs];
+            int run = -1;
+            int previous = -2;
+            while(lows.hasNext()) {
+                int low = lows.nextInt();
+                if(low != previous + 1) {
+                    starts[++run] = (char) low;
+                } else {
+                    lengths[run]++;
+                }
+                previous = low;
+            }
+            return new RunContainer(starts, lengths, runs);
+        }
+
+        @Override
+        boolean contains(int low) {
+            int index = Arrays.binarySearch(starts, 0, runs, (char) low);
+            if(index >= 0) {
+                return true;
+            }
+            int run = -index - 2;
+            return run >= 0 && low <= starts[run] + lengths[run];
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container add(int low) {
+            return contains(low) ? this : toBitmap().add(low);
+        }
+
+        @Override
+        Container addSorted(int[] values, int from, int to) {
+            return toBitmap().addSorted(values, from, to);
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for(int i = 0; i < runs; i++) {
+                for(int low = starts[i], end = starts[i] + lengths[i]; low <= end; low++) {
+                    bitmap.set(low);
+                }
+            }
+            return bitmap;
+        }
+
+        @Override
+        Container copy() {
+            // run containers are never modified in place
+            return this;
+        }
+
+        @Override
+        PrimitiveIterator.OfInt lows() {
+            return new PrimitiveIterator.OfInt() {
+                private int run;
+                private int offset;
+
+                @Override
+                public boolean hasNext() {
+                    return run < runs;
+                }
+
+                @Override
+                public int nextInt() {
+                    if(run >= runs) {
+                        throw new NoSuchElementException();
+                    }
+                    int low = starts[run] + offset;
+                    if(offset++ == lengths[run]) {
+                        run++;
+                        offset = 0;
+                    }
+                    return low;
+                }
+            };
+        }
+
+        @Override
+        int sizeInBytes() {
+            return runs * 4;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.scottshipp.code.mill.stream;
+
+/**
+ * An open-addressing hash set of int values, with linear probing and no
+ * boxing. Used by {@link IntStreamOps} in place of a HashSet&lt;Integer&gt;.
+ *
+ * <p>Zero marks a free slot in the table, so whether the set holds zero is
+ * tracked separately. Removal shifts later entries of the probe sequence
+ * back, so that no tombstones are needed.</p>
+ */
+final class IntHashSet {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int mask;
+    private int resizeAt;
+    private int size;
+    private boolean hasZero;
+
+    IntHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize the number of elements to hold without resizing,
+     *                     or Long.MAX_VALUE if unknown
+     */
+    IntHashSet(long expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(long expectedSize) {
+        if(expectedSize == Long.MAX_VALUE) {
+            return 16;
+        }
+        long wanted = (long) Math.ceil(Math.min(expectedSize, MAX_CAPACITY) / LOAD_FACTOR);
+        int capacity = 16;
+        while(capacity < wanted && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    private static int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return true if the value was not already present
+     */
+    boolean add(int key) {
+        if(key == 0) {
+            if(hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int i = slot(key) & mask;
+        for(int k = keys[i]; k != 0; k = keys[i]) {
+            if(k == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        if(++size > resizeAt) {
+            rehash();
+        }
+        return true;
+    }
+
+    boolean contains(int key) {
+        if(key == 0) {
+            return hasZero;
+        }
+        int i = slot(key) & mask;
+        for(int k = keys[i]; k != 0; k = keys[i]) {
+            if(k == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the value was present
+     */
+    boolean remove(int key) {
+        if(key == 0) {
+            if(!hasZero) {
+                return false;
+            }
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int i = slot(key) & mask;
+        for(int k = keys[i]; k != 0; k = keys[i]) {
+            if(k == key) {
+                shiftBack(i);
+                size--;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    private void shiftBack(int free) {
+        int i = free;
+        while(true) {
+            i = (i + 1) & mask;
+            int k = keys[i];
+            if(k == 0) {
+                break;
+            }
+            int home = slot(k) & mask;
+            // move k into the free slot unless its home lies cyclically in (free, i]
+            if(free <= i ? (home <= free || home > i) : (home <= free && home > i)) {
+                keys[free] = k;
+                free = i;
+            }
+        }
+        keys[free] = 0;
+    }
+
+    private void rehash() {
+        int[] old = keys;
+        if(old.length == MAX_CAPACITY) {
+            if(size >= MAX_CAPACITY - 1) {
+                throw new IllegalStateException("Too many values for a hash set: " + size);
+            }
+            resizeAt = MAX_CAPACITY - 1;
+            return;
+        }
+        allocate(old.length << 1);
+        for(int k : old) {
+            if(k != 0) {
+                int i = slot(k) & mask;
+                while(keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
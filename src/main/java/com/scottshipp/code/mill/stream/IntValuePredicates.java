@@ -0,0 +1,179 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ *
+ * IntValuePredicates is the primitive int counterpart of
+ * {@link ValueComparisonPredicates}. It builds predicates that compare an int
+ * returned by some member method of the elements of a Stream&lt;S&gt;, without
+ * boxing the value on every element and without calling compareTo.
+ *
+ * <pre>
+ *     {@code
+ *          import static IntValuePredicates.where;
+ *
+ *          // orders of between 10 and 20 items, inclusive
+ *          orders.filter(where(Order::getQuantity).isInRangeClosed(10, 20));
+ *
+ *          // standard Java boxes getQuantity() on every element here
+ *          orders.filter(ValueComparisonPredicates.where(Order::getQuantity).isInRangeClosed(10, 20));
+ *     }
+ * </pre>
+ *
+ * <p>The methods taking an Integer, required by {@link RangePredicate}, unbox
+ * their arguments once and return the same predicates as the methods taking
+ * an int.</p>
+ *
+ * @param <S> Type of the element in a Stream&lt;S&gt;
+ */
+public final class IntValuePredicates<S> implements RangePredicate<S, Integer> {
+    private final ToIntFunction<S> methodRef;
+
+    private IntValuePredicates(ToIntFunction<S> methodRef) {
+        this.methodRef = methodRef;
+    }
+
+    /**
+     * Used to construct a predicate which can test against a given
+     * value or range of values.
+     *
+     * @param methodRef the method reference
+     * @param <S> the type holding the method
+     * @return an {@link IntValuePredicates IntValuePredicates} for the data method reference in question
+     */
+    public static <S> IntValuePredicates<S> where(ToIntFunction<S> methodRef) {
+        return new IntValuePredicates<>(methodRef);
+    }
+
+    /**
+     * Same as {@link #isInRangeOpen(int, int)}
+     *
+     * @param low the lower bound
+     * @param high the higher bound
+     * @return a predicate that returns true if lower &lt; data &lt; higher
+     */
+    public Predicate<S> isBetween(int low, int high) {
+        return isInRangeOpen(low, high);
+    }
+
+    /**
+     * Returns a predicate that returns true if lower &lt; data &lt; higher.
+     * It will throw a runtime exception if low &gt; high.
+     *
+     * @param low the lower bound
+     * @param high the higher bound
+     * @return a predicate that returns true if lower &lt; data &lt; higher
+     */
+    public Predicate<S> isInRangeOpen(int low, int high) {
+        validateRange(low, high);
+        return (S s) -> {
+            int data = methodRef.applyAsInt(s);
+            return data > low && data < high;
+        };
+    }
+
+    /**
+     * Returns a predicate that returns true if lower &lt;= data &lt;= higher.
+     * It will throw a runtime exception if low &gt; high.
+     *
+     * @param low the lower bound
+     * @param high the higher bound
+     * @return a predicate that returns true if lower &lt;= data &lt;= higher
+     */
+    public Predicate<S> isInRangeClosed(int low, int high) {
+        validateRange(low, high);
+        return (S s) -> {
+            int data = methodRef.applyAsInt(s);
+            return data >= low && data <= high;
+        };
+    }
+
+    /**
+     *
+     * @param low the lower bound
+     * @return true if the data is &gt; low
+     */
+    public Predicate<S> isGreaterThan(int low) {
+        return (S s) -> methodRef.applyAsInt(s) > low;
+    }
+
+    /**
+     *
+     * @param high the upper bound
+     * @return true if the data is &lt; high
+     */
+    public Predicate<S> isLessThan(int high) {
+        return (S s) -> methodRef.applyAsInt(s) < high;
+    }
+
+    /**
+     *
+     * @param low the lower bound
+     * @return true if the data is &gt;= low
+     */
+    public Predicate<S> isGreaterThanOrEqualTo(int low) {
+        return (S s) -> methodRef.applyAsInt(s) >= low;
+    }
+
+    /**
+     *
+     * @param high the upper bound
+     * @return true if the data is &lt;= high
+     */
+    public Predicate<S> isLessThanOrEqualTo(int high) {
+        return (S s) -> methodRef.applyAsInt(s) <= high;
+    }
+
+    /**
+     *
+     * @param value the value to check for equality
+     * @return true if the data equals value
+     */
+    public Predicate<S> equaling(int value) {
+        return (S s) -> methodRef.applyAsInt(s) == value;
+    }
+
+    @Override
+    public Predicate<S> isBetween(Integer low, Integer high) {
+        return isBetween(low.intValue(), high.intValue());
+    }
+
+    @Override
+    public Predicate<S> isInRangeOpen(Integer low, Integer high) {
+        return isInRangeOpen(low.intValue(), high.intValue());
+    }
+
+    @Override
+    public Predicate<S> isInRangeClosed(Integer low, Integer high) {
+        return isInRangeClosed(low.intValue(), high.intValue());
+    }
+
+    @Override
+    public Predicate<S> isGreaterThan(Integer low) {
+        return isGreaterThan(low.intValue());
+    }
+
+    @Override
+    public Predicate<S> isLessThan(Integer high) {
+        return isLessThan(high.intValue());
+    }
+
+    @Override
+    public Predicate<S> isGreaterThanOrEqualTo(Integer low) {
+        return isGreaterThanOrEqualTo(low.intValue());
+    }
+
+    @Override
+    public Predicate<S> isLessThanOrEqualTo(Integer high) {
+        return isLessThanOrEqualTo(high.intValue());
+    }
+
+    private static void validateRange(int lower, int higher) {
+        if(lower > higher) {
+            throw new IllegalArgumentException("Please pass a valid range to the inRange predicate. Your range (" + lower + ", " + higher + ") is invalid.");
+        }
+    }
+
+}
@@ -0,0 +1,337 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A predicate that tests whether a value extracted from each element lies in a
+ * set of intervals under some comparator. The range predicates of
+ * {@link ValueComparisonPredicates}, {@link ComparatorPredicates} and
+ * {@link ComparablePredicates} are all built on this class.
+ *
+ * <p>{@link #and(Predicate)}, {@link #or(Predicate)} and {@link #negate()} fuse
+ * with another IntervalPredicate over the same extractor and comparator
+ * instances: the result is a single IntervalPredicate whose intervals are the
+ * intersection, union or complement, so the value is still extracted once and
+ * compared a minimal number of times however long the chain. With any other
+ * predicate they fall back to {@link FusedPredicates}.</p>
+ *
+ * @param <S> the type of element tested
+ * @param <T> the type of value extracted and compared
+ */
+final class IntervalPredicate<S, T> implements Predicate<S> {
+
+    private static final Function<Object, Object> IDENTITY = t -> t;
+
+    private final Function<? super S, ? extends T> extractor;
+    private final Comparator<? super T> comparator;
+    private final Boolean nullResult;
+    private final List<Interval<T>> intervals;
+
+    /**
+     * @param nullResult the result for a null extracted value, or null to pass
+     *                   nulls to the comparator like any other value
+     */
+    private IntervalPredicate(Function<? super S, ? extends T> extractor, Comparator<? super T> comparator,
+                              Boolean nullResult, List<Interval<T>> intervals) {
+        this.extractor = extractor;
+        this.comparator = comparator;
+        this.nullResult = nullResult;
+        this.intervals = intervals;
+    }
+
+    /**
+     * @return a function returning its argument, always the same instance so
+     * that predicates using it can be fused
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Function<T, T> identity() {
+        return (Function<T, T>) (Function<?, ?>) IDENTITY;
+    }
+
+    /**
+     * @return a predicate matching values above (or, if inclusive, equal to) low
+     */
+    static <S, T> IntervalPredicate<S, T> above(Function<? super S, ? extends T> extractor, Comparator<? super T> comparator,
+                                                Boolean nullResult, T low, boolean inclusive) {
+        return of(extractor, comparator, nullResult, new Interval<>(new Bound<>(low, inclusive), null));
+    }
+
+    /**
+     * @return a predicate matching values below (or, if inclusive, equal to) high
+     */
+    static <S, T> IntervalPredicate<S, T> below(Function<? super S, ? extends T> extractor, Comparator<? super T> comparator,
+                                                Boolean nullResult, T high, boolean inclusive) {
+        return of(extractor, comparator, nullResult, new Interval<>(null, new Bound<>(high, inclusive)));
+    }
+
+    /**
+     * @return a predicate matching values between low and high, with each bound
+     * included or not. A range with low above high matches nothing.
+     */
+    static <S, T> IntervalPredicate<S, T> between(Function<? super S, ? extends T> extractor, Comparator<? super T> comparator,
+                                                  Boolean nullResult, T low, boolean lowInclusive, T high, boolean highInclusive) {
+        return of(extractor, comparator, nullResult,
+                new Interval<>(new Bound<>(low, lowInclusive), new Bound<>(high, highInclusive)));
+    }
+
+    private static <S, T> IntervalPredicate<S, T> of(Function<? super S, ? extends T> extractor, Comparator<? super T> comparator,
+                                                     Boolean nullResult, Interval<T> interval) {
+        List<Interval<T>> intervals = new ArrayList<>(1);
+        if(!interval.isEmpty(comparator)) {
+            intervals.add(interval);
+        }
+        return new IntervalPredicate<>(extractor, comparator, nullResult, intervals);
+    }
+
+    @Override
+    public boolean test(S s) {
+        T data = extractor.apply(s);
+        if(data == null && nullResult != null) {
+            return nullResult;
+        }
+        for(Interval<T> interval : intervals) {
+            if(interval.startsAfter(data, comparator)) {
+                return false;
+            } else if(interval.reaches(data, comparator)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Predicate<S> and(Predicate<? super S> other) {
+        IntervalPredicate<S, T> fusable = fusable(other);
+        if(fusable == null) {
+            return FusedPredicates.allOf(this, other);
+        }
+        Boolean nulls = nullResult == null ? null : nullResult && fusable.nullResult;
+        return new IntervalPredicate<>(extractor, comparator, nulls, intersect(intervals, fusable.intervals));
+    }
+
+    @Override
+    public Predicate<S> or(Predicate<? super S> other) {
+        IntervalPredicate<S, T> fusable = fusable(other);
+        if(fusable == null) {
+            return FusedPredicates.anyOf(this, other);
+        }
+        Boolean nulls = nullResult == null ? null : nullResult || fusable.nullResult;
+        List<Interval<T>> all = new ArrayList<>(intervals);
+        all.addAll(fusable.intervals);
+        return new IntervalPredicate<>(extractor, comparator, nulls, union(all));
+    }
+
+    @Override
+    public IntervalPredicate<S, T> negate() {
+        Boolean nulls = nullResult == null ? null : !nullResult;
+        return new IntervalPredicate<>(extractor, comparator, nulls, complement(intervals));
+    }
+
+    /**
+     * @return other as an IntervalPredicate of this type, if it uses the same
+     * extractor, comparator and null handling, otherwise null
+     */
+    @SuppressWarnings("unchecked")
+    IntervalPredicate<S, T> fusable(Predicate<?> other) {
+        if(!(other instanceof IntervalPredicate)) {
+            return null;
+        }
+        IntervalPredicate<?, ?> candidate = (IntervalPredicate<?, ?>) other;
+        boolean sameComparator = comparator == candidate.comparator || comparator.equals(candidate.comparator);
+        boolean sameNulls = (nullResult == null) == (candidate.nullResult == null);
+        return extractor == candidate.extractor && sameComparator && sameNulls ? (IntervalPredicate<S, T>) candidate : null;
+    }
+
+    Function<? super S, ? extends T> extractor() {
+        return extractor;
+    }
+
+    Comparator<? super T> comparator() {
+        return comparator;
+    }
+
+    Boolean nullResult() {
+        return nullResult;
+    }
+
+    List<Interval<T>> intervals() {
+        return intervals;
+    }
+
+    private List<Interval<T>> intersect(List<Interval<T>> a, List<Interval<T>> b) {
+        List<Interval<T>> result = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while(i < a.size() && j < b.size()) {
+            Interval<T> x = a.get(i);
+            Interval<T> y = b.get(j);
+            Interval<T> overlap = new Interval<>(maxLow(x.low, y.low), minHigh(x.high, y.high));
+            if(!overlap.isEmpty(comparator)) {
+                result.add(overlap);
+            }
+            if(compareHighs(x.high, y.high) < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return result;
+    }
+
+    private List<Interval<T>> union(List<Interval<T>> all) {
+        all.sort((x, y) -> compareLows(x.low, y.low));
+        List<Interval<T>> result = new ArrayList<>();
+        for(Interval<T> next : all) {
+            int last = result.size() - 1;
+            if(last >= 0 && result.get(last).touches(next, comparator)) {
+                Interval<T> merged = result.get(last);
+                result.set(last, new Interval<>(merged.low, compareHighs(merged.high, next.high) >= 0 ? merged.high : next.high));
+            } else {
+                result.add(next);
+            }
+        }
+        return result;
+    }
+
+    private List<Interval<T>> complement(List<Interval<T>> sorted) {
+        List<Interval<T>> result = new ArrayList<>();
+        Bound<T> from = null;
+        for(Interval<T> interval : sorted) {
+            if(interval.low != null) {
+                Interval<T> gap = new Interval<>(from, interval.low.flip());
+                if(!gap.isEmpty(comparator)) {
+                    result.add(gap);
+                }
+            }
+            if(interval.high == null) {
+                return result;
+            }
+            from = interval.high.flip();
+        }
+        result.add(new Interval<>(from, null));
+        return result;
+    }
+
+    private Bound<T> maxLow(Bound<T> a, Bound<T> b) {
+        return compareLows(a, b) >= 0 ? a : b;
+    }
+
+    private Bound<T> minHigh(Bound<T> a, Bound<T> b) {
+        return compareHighs(a, b) <= 0 ? a : b;
+    }
+
+    /**
+     * Orders lower bounds, with no bound lowest and an inclusive bound below an
+     * exclusive one on the same value.
+     */
+    private int compareLows(Bound<T> a, Bound<T> b) {
+        if(a == null || b == null) {
+            return a == b ? 0 : a == null ? -1 : 1;
+        }
+        int c = comparator.compare(a.value, b.value);
+        return c != 0 || a.inclusive == b.inclusive ? c : a.inclusive ? -1 : 1;
+    }
+
+    /**
+     * Orders upper bounds, with no bound highest and an inclusive bound above an
+     * exclusive one on the same value.
+     */
+    private int compareHighs(Bound<T> a, Bound<T> b) {
+        if(a == null || b == null) {
+            return a == b ? 0 : a == null ? 1 : -1;
+        }
+        int c = comparator.compare(a.value, b.value);
+        return c != 0 || a.inclusive == b.inclusive ? c : a.inclusive ? 1 : -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("IntervalPredicate");
+        if(intervals.isEmpty()) {
+            sb.append(" {}");
+        }
+        for(int i = 0; i < intervals.size(); i++) {
+            sb.append(i == 0 ? " " : " U ").append(intervals.get(i));
+        }
+        return sb.append(nullResult == null ? "" : nullResult ? " or null" : "").toString();
+    }
+
+    static final class Bound<T> {
+        final T value;
+        final boolean inclusive;
+
+        Bound(T value, boolean inclusive) {
+            this.value = value;
+            this.inclusive = inclusive;
+        }
+
+        Bound<T> flip() {
+            return new Bound<>(value, !inclusive);
+        }
+    }
+
+    /**
+     * An interval between two bounds, where a null bound means unbounded.
+     */
+    static final class Interval<T> {
+        final Bound<T> low;
+        final Bound<T> high;
+
+        Interval(Bound<T> low, Bound<T> high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        boolean isEmpty(Comparator<? super T> comparator) {
+            if(low == null || high == null) {
+                return false;
+            }
+            int c = comparator.compare(low.value, high.value);
+            return c > 0 || (c == 0 && !(low.inclusive && high.inclusive));
+        }
+
+        /**
+         * @return true if this interval lies entirely above value
+         */
+        boolean startsAfter(T value, Comparator<? super T> comparator) {
+            if(low == null) {
+                return false;
+            }
+            int c = comparator.compare(value, low.value);
+            return c < 0 || (c == 0 && !low.inclusive);
+        }
+
+        /**
+         * @return true if this interval's upper bound admits value
+         */
+        boolean reaches(T value, Comparator<? super T> comparator) {
+            if(high == null) {
+                return true;
+            }
+            int c = comparator.compare(value, high.value);
+            return c < 0 || (c == 0 && high.inclusive);
+        }
+
+        /**
+         * @return true if next, which starts no lower than this interval,
+         * overlaps or adjoins it
+         */
+        boolean touches(Interval<T> next, Comparator<? super T> comparator) {
+            if(high == null || next.low == null) {
+                return true;
+            }
+            int c = comparator.compare(next.low.value, high.value);
+            return c < 0 || (c == 0 && (next.low.inclusive || high.inclusive));
+        }
+
+        @Override
+        public String toString() {
+            return (low == null ? "(-inf" : (low.inclusive ? "[" : "(") + low.value) + ", "
+                    + (high == null ? "+inf)" : high.value + (high.inclusive ? "]" : ")"));
+        }
+    }
+}
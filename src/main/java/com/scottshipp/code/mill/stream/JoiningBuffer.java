@@ -0,0 +1,133 @@
+package com.scottshipp.code.mill.stream;
+
+/**
+ * The accumulation type of {@link MoreCollectors#joining(CharSequence)}: a rope
+ * of char arrays that grows without ever copying what it already holds.
+ *
+ * <p>Appending fills the last chunk and starts a new, larger one when it is
+ * full. Merging two buffers links the chunks of the second after the first, so
+ * the combine steps of a parallel stream cost O(1) however much text they
+ * join. The text is copied once, at the end, into a String of exactly the
+ * right length.</p>
+ */
+final class JoiningBuffer {
+
+    private static final int FIRST_CHUNK = 256;
+    private static final int MAX_CHUNK = 1 << 16;
+
+    private final String delimiter;
+    private Chunk head;
+    private Chunk tail;
+    private long length;
+    private boolean empty = true;
+
+    JoiningBuffer(CharSequence delimiter) {
+        this.delimiter = delimiter.toString();
+    }
+
+    /**
+     * Appends the delimiter, unless this is the first element, and then the
+     * element's text, or "null".
+     */
+    void add(Object element) {
+        if(empty) {
+            empty = false;
+        } else {
+            append(delimiter);
+        }
+        append(element instanceof CharSequence ? (CharSequence) element : String.valueOf(element));
+    }
+
+    /**
+     * Links the chunks of other after this buffer's, separated by the
+     * delimiter. Other must not be used afterwards.
+     */
+    JoiningBuffer merge(JoiningBuffer other) {
+        if(other.empty) {
+            return this;
+        }
+        if(empty) {
+            return other;
+        }
+        append(delimiter);
+        // either buffer may hold only empty text, and so no chunks at all
+        if(tail == null) {
+            head = other.head;
+            tail = other.tail;
+        } else if(other.tail != null) {
+            tail.next = other.head;
+            tail = other.tail;
+        }
+        length += other.length;
+        return this;
+    }
+
+    /**
+     * @return the joined text between prefix and suffix
+     */
+    String toString(CharSequence prefix, CharSequence suffix) {
+        long total = prefix.length() + length + suffix.length();
+        if(total > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("Joined text of " + total + " chars is too long for a String");
+        }
+        char[] chars = new char[(int) total];
+        int offset = copy(prefix, chars, 0);
+        for(Chunk chunk = head; chunk != null; chunk = chunk.next) {
+            System.arraycopy(chunk.chars, 0, chars, offset, chunk.size);
+            offset += chunk.size;
+        }
+        copy(suffix, chars, offset);
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return toString("", "");
+    }
+
+    private void append(CharSequence text) {
+        int from = 0;
+        int to = text.length();
+        while(from < to) {
+            if(tail == null || tail.size == tail.chars.length) {
+                grow();
+            }
+            int n = Math.min(to - from, tail.chars.length - tail.size);
+            if(text instanceof String) {
+                ((String) text).getChars(from, from + n, tail.chars, tail.size);
+            } else {
+                for(int i = 0; i < n; i++) {
+                    tail.chars[tail.size + i] = text.charAt(from + i);
+                }
+            }
+            tail.size += n;
+            from += n;
+        }
+        length += to;
+    }
+
+    private void grow() {
+        Chunk chunk = new Chunk((int) Math.min(MAX_CHUNK, Math.max(FIRST_CHUNK, length)));
+        if(tail == null) {
+            head = chunk;
+        } else {
+            tail.next = chunk;
+        }
+        tail = chunk;
+    }
+
+    private static int copy(CharSequence text, char[] chars, int offset) {
+        text.toString().getChars(0, text.length(), chars, offset);
+        return offset + text.length();
+    }
+
+    private static final class Chunk {
+        final char[] chars;
+        int size;
+        Chunk next;
+
+        Chunk(int capacity) {
+            this.chars = new char[capacity];
+        }
+    }
+}
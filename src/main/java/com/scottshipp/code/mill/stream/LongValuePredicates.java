@@ -0,0 +1,179 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ *
+ * LongValuePredicates is the primitive long counterpart of
+ * {@link ValueComparisonPredicates}. It builds predicates that compare a long
+ * returned by some member method of the elements of a Stream&lt;S&gt;, without
+ * boxing the value on every element and without calling compareTo.
+ *
+ * <pre>
+ *     {@code
+ *          import static LongValuePredicates.where;
+ *
+ *          // orders of between $10.00 and $20.00, inclusive
+ *          orders.filter(where(Order::getAmountInCents).isInRangeClosed(1000L, 2000L));
+ *
+ *          // standard Java boxes getAmountInCents() on every element here
+ *          orders.filter(ValueComparisonPredicates.where(Order::getAmountInCents).isInRangeClosed(1000L, 2000L));
+ *     }
+ * </pre>
+ *
+ * <p>The methods taking a Long, required by {@link RangePredicate}, unbox
+ * their arguments once and return the same predicates as the methods taking
+ * a long.</p>
+ *
+ * @param <S> Type of the element in a Stream&lt;S&gt;
+ */
+public final class LongValuePredicates<S> implements RangePredicate<S, Long> {
+    private final ToLongFunction<S> methodRef;
+
+    private LongValuePredicates(ToLongFunction<S> methodRef) {
+        this.methodRef = methodRef;
+    }
+
+    /**
+     * Used to construct a predicate which can test against a given
+     * value or range of values.
+     *
+     * @param methodRef the method reference
+     * @param <S> the type holding the method
+     * @return a {@link LongValuePredicates LongValuePredicates} for the data method reference in question
+     */
+    public static <S> LongValuePredicates<S> where(ToLongFunction<S> methodRef) {
+        return new LongValuePredicates<>(methodRef);
+    }
+
+    /**
+     * Same as {@link #isInRangeOpen(long, long)}
+     *
+     * @param low the lower bound
+     * @param high the higher bound
+     * @return a predicate that returns true if lower &lt; data &lt; higher
+     */
+    public Predicate<S> isBetween(long low, long high) {
+        return isInRangeOpen(low, high);
+    }
+
+    /**
+     * Returns a predicate that returns true if lower &lt; data &lt; higher.
+     * It will throw a runtime exception if low &gt; high.
+     *
+     * @param low the lower bound
+     * @param high the higher bound
+     * @return a predicate that returns true if lower &lt; data &lt; higher
+     */
+    public Predicate<S> isInRangeOpen(long low, long high) {
+        validateRange(low, high);
+        return (S s) -> {
+            long data = methodRef.applyAsLong(s);
+            return data > low && data < high;
+        };
+    }
+
+    /**
+     * Returns a predicate that returns true if lower &lt;= data &lt;= higher.
+     * It will throw a runtime exception if low &gt; high.
+     *
+     * @param low the lower bound
+     * @param high the higher bound
+     * @return a predicate that returns true if lower &lt;= data &lt;= higher
+     */
+    public Predicate<S> isInRangeClosed(long low, long high) {
+        validateRange(low, high);
+        return (S s) -> {
+            long data = methodRef.applyAsLong(s);
+            return data >= low && data <= high;
+        };
+    }
+
+    /**
+     *
+     * @param low the lower bound
+     * @return true if the data is &gt; low
+     */
+    public Predicate<S> isGreaterThan(long low) {
+        return (S s) -> methodRef.applyAsLong(s) > low;
+    }
+
+    /**
+     *
+     * @param high the upper bound
+     * @return true if the data is &lt; high
+     */
+    public Predicate<S> isLessThan(long high) {
+        return (S s) -> methodRef.applyAsLong(s) < high;
+    }
+
+    /**
+     *
+     * @param low the lower bound
+     * @return true if the data is &gt;= low
+     */
+    public Predicate<S> isGreaterThanOrEqualTo(long low) {
+        return (S s) -> methodRef.applyAsLong(s) >= low;
+    }
+
+    /**
+     *
+     * @param high the upper bound
+     * @return true if the data is &lt;= high
+     */
+    public Predicate<S> isLessThanOrEqualTo(long high) {
+        return (S s) -> methodRef.applyAsLong(s) <= high;
+    }
+
+    /**
+     *
+     * @param value the value to check for equality
+     * @return true if the data equals value
+     */
+    public Predicate<S> equaling(long value) {
+        return (S s) -> methodRef.applyAsLong(s) == value;
+    }
+
+    @Override
+    public Predicate<S> isBetween(Long low, Long high) {
+        return isBetween(low.longValue(), high.longValue());
+    }
+
+    @Override
+    public Predicate<S> isInRangeOpen(Long low, Long high) {
+        return isInRangeOpen(low.longValue(), high.longValue());
+    }
+
+    @Override
+    public Predicate<S> isInRangeClosed(Long low, Long high) {
+        return isInRangeClosed(low.longValue(), high.longValue());
+    }
+
+    @Override
+    public Predicate<S> isGreaterThan(Long low) {
+        return isGreaterThan(low.longValue());
+    }
+
+    @Override
+    public Predicate<S> isLessThan(Long high) {
+        return isLessThan(high.longValue());
+    }
+
+    @Override
+    public Predicate<S> isGreaterThanOrEqualTo(Long low) {
+        return isGreaterThanOrEqualTo(low.longValue());
+    }
+
+    @Override
+    public Predicate<S> isLessThanOrEqualTo(Long high) {
+        return isLessThanOrEqualTo(high.longValue());
+    }
+
+    private static void validateRange(long lower, long higher) {
+        if(lower > higher) {
+            throw new IllegalArgumentException("Please pass a valid range to the inRange predicate. Your range (" + lower + ", " + higher + ") is invalid.");
+        }
+    }
+
+}
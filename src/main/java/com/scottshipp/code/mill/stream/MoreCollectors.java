@@ -1,14 +1,34 @@
 package com.scottshipp.code.mill.stream;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
+import static java.util.stream.Collector.Characteristics.CONCURRENT;
 import static java.util.stream.Collector.Characteristics.IDENTITY_FINISH;
+import static java.util.stream.Collector.Characteristics.UNORDERED;
 
 /**
  * Additional stream collectors to augment those in java.util.stream.Collectors.
@@ -56,6 +76,13 @@ public final class MoreCollectors {
      * Returns a Collector that concatenates the toString() value of the input
      * elements into a String, in encounter order.
      *
+     * <p>Elements are gathered into a rope of char arrays, so nothing already
+     * joined is copied as the text grows, and the partial results of a
+     * parallel stream are linked together rather than copied at every level.
+     * The text is copied once, into a String of exactly the right length.
+     * Elements that are already a CharSequence are appended without calling
+     * toString().</p>
+     *
      * @param delimiter the delimiter to be used between each element
      * @param prefix the sequence of characters to be used at the beginning of the joined result
      * @param suffix the sequence of characters to be used at the end of the joined result
@@ -65,20 +92,152 @@ public final class MoreCollectors {
      * @see java.util.stream.Stream#collect
      */
     public static <T> Collector<T, ?, String> joining(CharSequence delimiter, CharSequence prefix, CharSequence suffix) {
-        return Collector.of(
-                () -> new StringJoiner(delimiter, prefix, suffix),
-                (a, t) -> a.add(t == null ? "null" : t.toString()),
-                StringJoiner::merge,
-                StringJoiner::toString
+        Objects.requireNonNull(prefix, "prefix");
+        Objects.requireNonNull(suffix, "suffix");
+        return Collector.<T, JoiningBuffer, String>of(
+                () -> new JoiningBuffer(delimiter),
+                JoiningBuffer::add,
+                JoiningBuffer::merge,
+                buffer -> buffer.toString(prefix, suffix)
+        );
+    }
+
+    /**
+     * Returns a Collector that writes the toString() value of the input
+     * elements straight to out, in encounter order, and returns out. The
+     * joined text is never held in memory, so this suits very long results
+     * bound for a Writer, a StringBuilder or a network stream.
+     *
+     * <pre>
+     *     {@code
+     *     try(Writer csv = Files.newBufferedWriter(path)) {
+     *         fields.stream().collect(MoreCollectors.joiningTo(csv, ","));
+     *     }
+     *     }
+     * </pre>
+     *
+     * <p>Because every element is written as soon as it arrives, the stream
+     * must be sequential. Only one collection at a time may write to out: on a
+     * parallel stream, the first part of the stream to be collected claims out,
+     * and any other part throws an IllegalStateException before writing
+     * anything. By then the first part may have written some of its elements,
+     * so out holds a partial result, though never text from two parts of the
+     * stream interleaved. An IOException from out is rethrown as an
+     * UncheckedIOException.</p>
+     *
+     * @param out where to write the joined text
+     * @param delimiter the delimiter to be used between each element
+     * @param <T> The type of element (will be inferred from the Stream)
+     * @param <A> the type of Appendable written to
+     * @return a Collector that writes the toString() value of the input elements to out, in encounter order
+     */
+    public static <T, A extends Appendable> Collector<T, ?, A> joiningTo(A out, CharSequence delimiter) {
+        return joiningTo(out, delimiter, "", "");
+    }
+
+    /**
+     * Returns a Collector that writes prefix, the toString() value of the input
+     * elements separated by delimiter, and suffix straight to out, in
+     * encounter order, and returns out.
+     *
+     * @param out where to write the joined text
+     * @param delimiter the delimiter to be used between each element
+     * @param prefix the sequence of characters to be written before the first element
+     * @param suffix the sequence of characters to be written after the last element
+     * @param <T> The type of element (will be inferred from the Stream)
+     * @param <A> the type of Appendable written to
+     * @return a Collector that writes the toString() value of the input elements to out, in encounter order
+     * @see #joiningTo(Appendable, CharSequence)
+     */
+    public static <T, A extends Appendable> Collector<T, ?, A> joiningTo(A out, CharSequence delimiter,
+                                                                           CharSequence prefix, CharSequence suffix) {
+        Objects.requireNonNull(out, "out");
+        Objects.requireNonNull(delimiter, "delimiter");
+        Objects.requireNonNull(prefix, "prefix");
+        Objects.requireNonNull(suffix, "suffix");
+        AtomicBoolean writing = new AtomicBoolean();
+        return Collector.<T, AppendingJoiner<A>, A>of(
+                () -> new AppendingJoiner<>(out, writing, delimiter, prefix),
+                AppendingJoiner::add,
+                (a, b) -> {
+                    throw new IllegalStateException("joiningTo writes as it goes and cannot be used with a parallel stream");
+                },
+                joiner -> joiner.finish(suffix)
+        );
+    }
+
+    /**
+     * Returns a Collector that encodes the toString() value of the input
+     * elements, separated by delimiter, straight to a channel such as a file or
+     * socket, and returns the number of bytes written.
+     *
+     * <p>Text is encoded a few kilobytes at a time into one direct ByteBuffer,
+     * which is written to the channel whenever it fills, so memory use stays
+     * the same however long the stream. Characters split across elements,
+     * like surrogate pairs, are encoded correctly.</p>
+     *
+     * <pre>
+     *     {@code
+     *     try(FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+     *         long bytes = rows.collect(MoreCollectors.joiningTo(out, StandardCharsets.UTF_8.newEncoder(), "\n"));
+     *     }
+     *     }
+     * </pre>
+     *
+     * <p>The encoder is reset when collection starts, so it can be reused, but
+     * not by two collections at once. As with
+     * {@link #joiningTo(Appendable, CharSequence)}, the stream must be
+     * sequential: on a parallel stream, the first part to be collected claims
+     * the channel and the encoder, and any other part throws an
+     * IllegalStateException before encoding or writing anything. An
+     * IOException, including a CharacterCodingException for text the encoder
+     * cannot map, is rethrown as an UncheckedIOException.</p>
+     *
+     * @param channel where to write the encoded text
+     * @param encoder the encoder for the channel's charset
+     * @param delimiter the delimiter to be used between each element
+     * @param <T> The type of element (will be inferred from the Stream)
+     * @return a Collector that writes the encoded input elements to channel and
+     * returns the number of bytes written
+     */
+    public static <T> Collector<T, ?, Long> joiningTo(WritableByteChannel channel, CharsetEncoder encoder,
+                                                      CharSequence delimiter) {
+        Objects.requireNonNull(channel, "channel");
+        Objects.requireNonNull(encoder, "encoder");
+        Objects.requireNonNull(delimiter, "delimiter");
+        AtomicBoolean writing = new AtomicBoolean();
+        return Collector.<T, ChannelJoiner, Long>of(
+                () -> new ChannelJoiner(channel, writing, encoder, delimiter),
+                ChannelJoiner::add,
+                (a, b) -> {
+                    throw new IllegalStateException("joiningTo writes as it goes and cannot be used with a parallel stream");
+                },
+                ChannelJoiner::finish
         );
     }
 
+    /**
+     * Passes only the elements matching predicate on to collector.
+     *
+     * <p>The result has the same characteristics as collector, so wrapping a
+     * CONCURRENT collector such as {@link java.util.stream.Collectors#toConcurrentMap} gives a
+     * CONCURRENT collector, which a parallel stream fills from every thread
+     * at once instead of merging per-thread results.</p>
+     *
+     * @param predicate the test for elements to include
+     * @param collector the collector receiving the included elements
+     * @param <T> the type of input elements
+     * @param <A> the intermediate accumulation type of the collector
+     * @param <R> the result type of the collector
+     * @return a Collector passing the elements matching predicate to collector
+     */
     public static <T, A, R> Collector<T, A, R> including(Predicate<T> predicate, Collector<T, A, R> collector) {
+        BiConsumer<A, T> accumulator = collector.accumulator();
         return Collector.of(
                 collector.supplier(),
                 (s, t) -> {
                     if(predicate.test(t)) {
-                        collector.accumulator().accept(s, t);
+                        accumulator.accept(s, t);
                     }
                 },
                 collector.combiner(),
@@ -87,16 +246,51 @@ public final class MoreCollectors {
         );
     }
 
+    /**
+     * Passes only the non-null elements on to collector, keeping its
+     * characteristics.
+     *
+     * @param collector the collector receiving the non-null elements
+     * @param <T> the type of input elements
+     * @param <A> the intermediate accumulation type of the collector
+     * @param <R> the result type of the collector
+     * @return a Collector passing the non-null elements to collector
+     * @see #including(Predicate, Collector)
+     */
     public static <T, A, R> Collector<T, A, R> excludingNull(Collector<T, A, R> collector) {
-        return excluding(Objects::isNull, collector);
+        BiConsumer<A, T> accumulator = collector.accumulator();
+        return Collector.of(
+                collector.supplier(),
+                (s, t) -> {
+                    if(t != null) {
+                        accumulator.accept(s, t);
+                    }
+                },
+                collector.combiner(),
+                collector.finisher(),
+                setToArray(collector.characteristics())
+        );
     }
 
+    /**
+     * Passes only the elements not matching predicate on to collector, keeping
+     * its characteristics.
+     *
+     * @param predicate the test for elements to exclude
+     * @param collector the collector receiving the remaining elements
+     * @param <T> the type of input elements
+     * @param <A> the intermediate accumulation type of the collector
+     * @param <R> the result type of the collector
+     * @return a Collector passing the elements not matching predicate to collector
+     * @see #including(Predicate, Collector)
+     */
     public static <T, A, R> Collector<T, A, R> excluding(Predicate<T> predicate, Collector<T, A, R> collector) {
+        BiConsumer<A, T> accumulator = collector.accumulator();
         return Collector.of(
                 collector.supplier(),
                 (s, t) -> {
-                    if(predicate.negate().test(t)) {
-                        collector.accumulator().accept(s, t);
+                    if(!predicate.test(t)) {
+                        accumulator.accept(s, t);
                     }
                 },
                 collector.combiner(),
@@ -105,6 +299,149 @@ public final class MoreCollectors {
         );
     }
 
+    /**
+     * Collects the elements matching predicate into a List, in encounter order.
+     * The same as {@code including(predicate, Collectors.toList())}, without
+     * going through a downstream collector for each element.
+     *
+     * @param predicate the test for elements to include
+     * @param <T> the type of input elements
+     * @return a Collector of the matching elements into a List
+     */
+    public static <T> Collector<T, ?, List<T>> includingToList(Predicate<? super T> predicate) {
+        return Collector.<T, List<T>>of(
+                ArrayList::new,
+                (list, t) -> {
+                    if(predicate.test(t)) {
+                        list.add(t);
+                    }
+                },
+                (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                },
+                IDENTITY_FINISH
+        );
+    }
+
+    /**
+     * Collects the elements matching predicate into a Set. The same as
+     * {@code including(predicate, Collectors.toSet())}, without going through a
+     * downstream collector for each element.
+     *
+     * @param predicate the test for elements to include
+     * @param <T> the type of input elements
+     * @return a Collector of the matching elements into a Set
+     */
+    public static <T> Collector<T, ?, Set<T>> includingToSet(Predicate<? super T> predicate) {
+        return Collector.<T, Set<T>>of(
+                HashSet::new,
+                (set, t) -> {
+                    if(predicate.test(t)) {
+                        set.add(t);
+                    }
+                },
+                (left, right) -> {
+                    if(left.size() < right.size()) {
+                        right.addAll(left);
+                        return right;
+                    }
+                    left.addAll(right);
+                    return left;
+                },
+                IDENTITY_FINISH,
+                UNORDERED
+        );
+    }
+
+    /**
+     * Counts the elements matching predicate. The same as
+     * {@code including(predicate, Collectors.counting())}, but counting into a
+     * primitive long rather than boxing a Long for every element.
+     *
+     * @param predicate the test for elements to count
+     * @param <T> the type of input elements
+     * @return a Collector counting the matching elements
+     */
+    public static <T> Collector<T, ?, Long> includingCount(Predicate<? super T> predicate) {
+        return Collector.<T, long[], Long>of(
+                () -> new long[1],
+                (count, t) -> {
+                    if(predicate.test(t)) {
+                        count[0]++;
+                    }
+                },
+                (left, right) -> {
+                    left[0] += right[0];
+                    return left;
+                },
+                count -> count[0],
+                UNORDERED
+        );
+    }
+
+    /**
+     * Concatenates the toString() value of the elements matching predicate
+     * into a String, in encounter order. The same as
+     * {@code including(predicate, MoreCollectors.joining(delimiter))}, without
+     * going through a downstream collector for each element.
+     *
+     * @param predicate the test for elements to include
+     * @param delimiter the delimiter to be used between each element
+     * @param <T> the type of input elements
+     * @return a Collector joining the matching elements into a String
+     * @see #joining(CharSequence)
+     */
+    public static <T> Collector<T, ?, String> includingJoining(Predicate<? super T> predicate, CharSequence delimiter) {
+        return Collector.<T, JoiningBuffer, String>of(
+                () -> new JoiningBuffer(delimiter),
+                (buffer, t) -> {
+                    if(predicate.test(t)) {
+                        buffer.add(t);
+                    }
+                },
+                JoiningBuffer::merge,
+                JoiningBuffer::toString
+        );
+    }
+
+    /**
+     * Filters, maps and collects in one step: each element matching predicate
+     * is transformed by mapper and passed to the downstream collector.
+     *
+     * <pre>
+     *     {@code
+     *     // the names of the paid orders, without a filter and a map stage in front
+     *     List<String> names = orders.collect(MoreCollectors.filteringMapping(Order::isPaid, Order::name, toList()));
+     *     }
+     * </pre>
+     *
+     * @param predicate the test for elements to include
+     * @param mapper the function applied to each included element
+     * @param downstream the collector receiving the mapped elements
+     * @param <T> the type of input elements
+     * @param <U> the type the elements are mapped to
+     * @param <A> the intermediate accumulation type of the downstream collector
+     * @param <R> the result type of the downstream collector
+     * @return a Collector which filters, maps and then collects the input elements
+     */
+    public static <T, U, A, R> Collector<T, A, R> filteringMapping(Predicate<? super T> predicate,
+                                                                  Function<? super T, ? extends U> mapper,
+                                                                  Collector<? super U, A, R> downstream) {
+        BiConsumer<A, ? super U> accumulator = downstream.accumulator();
+        return Collector.of(
+                downstream.supplier(),
+                (s, t) -> {
+                    if(predicate.test(t)) {
+                        accumulator.accept(s, mapper.apply(t));
+                    }
+                },
+                downstream.combiner(),
+                downstream.finisher(),
+                setToArray(downstream.characteristics())
+        );
+    }
+
     private static Collector.Characteristics[] setToArray(Set<Collector.Characteristics> characteristics) {
         return characteristics.toArray(new Collector.Characteristics[characteristics.size()]);
     }
@@ -140,4 +477,598 @@ public final class MoreCollectors {
         );
     }
 
+    /**
+     * Collects elements matching the given type into a single thread-safe
+     * collection, which every thread of a parallel stream adds to directly.
+     *
+     * <pre>
+     *     {@code
+     *     Set<RcsMessage> results = messages.parallelStream()
+     *           .collect(MoreCollectors.concurrentTypedCollector(RcsMessage.class, ConcurrentHashMap::newKeySet));
+     *     }
+     * </pre>
+     *
+     * <p>The collector is CONCURRENT and UNORDERED, so no per-thread
+     * collections are built and merged. The collection must support
+     * concurrent adds, like {@code ConcurrentHashMap.newKeySet()} or a
+     * {@link java.util.concurrent.ConcurrentLinkedQueue}.</p>
+     *
+     * @param clazz the type of element to collect
+     * @param supplier a supplier of a thread-safe collection, such as ConcurrentLinkedQueue::new
+     * @param <T> the type of input elements to the reduction operation
+     * @param <S> the type of output elements in the resulting collection
+     * @param <R> the collection supplied by the supplier
+     * @return a new collection of the elements that were instances of S
+     */
+    public static <T, S extends T, R extends Collection<S>> Collector<T, ?, R> concurrentTypedCollector(Class<S> clazz, Supplier<R> supplier) {
+        return Collector.of(
+                supplier,
+                (R collection, T o) -> {
+                    if (clazz.isInstance(o)) {
+                        collection.add(clazz.cast(o));
+                    }
+                },
+                (R r1, R r2) -> { r1.addAll(r2); return r1; },
+                CONCURRENT,
+                UNORDERED,
+                IDENTITY_FINISH
+        );
+    }
+
+    /**
+     * Returns a CONCURRENT Collector that concatenates the toString() value of
+     * the input elements into a String, in no particular order.
+     *
+     * <p>Threads append to a small set of buffers, each claimed with an atomic
+     * swap rather than a lock, and the buffers are linked together at the end.
+     * Use it when the order of the joined elements does not matter, such as
+     * for a set of ids; {@link #joining(CharSequence)} keeps encounter order.</p>
+     *
+     * @param delimiter the delimiter to be used between each element
+     * @param <T> The type of element (will be inferred from the Stream)
+     * @return a Collector that concatenates the toString() value of the input elements into a String, in any order
+     */
+    public static <T> Collector<T, ?, String> concurrentJoining(CharSequence delimiter) {
+        return concurrentJoining(delimiter, "", "");
+    }
+
+    /**
+     * Returns a CONCURRENT Collector that concatenates the toString() value of
+     * the input elements into a String between prefix and suffix, in no
+     * particular order.
+     *
+     * @param delimiter the delimiter to be used between each element
+     * @param prefix the sequence of characters to be used at the beginning of the joined result
+     * @param suffix the sequence of characters to be used at the end of the joined result
+     * @param <T> The type of element (will be inferred from the Stream)
+     * @return a Collector that concatenates the toString() value of the input elements into a String, in any order
+     * @see #concurrentJoining(CharSequence)
+     */
+    public static <T> Collector<T, ?, String> concurrentJoining(CharSequence delimiter, CharSequence prefix, CharSequence suffix) {
+        Objects.requireNonNull(delimiter, "delimiter");
+        Objects.requireNonNull(prefix, "prefix");
+        Objects.requireNonNull(suffix, "suffix");
+        return Collector.<T, StripedJoiner, String>of(
+                () -> new StripedJoiner(delimiter),
+                StripedJoiner::add,
+                StripedJoiner::merge,
+                joiner -> joiner.toString(prefix, suffix),
+                CONCURRENT,
+                UNORDERED
+        );
+    }
+
+    /**
+     * Returns a Collector to the k greatest elements under comparator, greatest
+     * first, without sorting the stream.
+     *
+     * <pre>
+     *     {@code
+     *     // the 100 largest orders
+     *     List<Order> largest = orders.collect(MoreCollectors.topK(100, Comparator.comparing(Order::amount)));
+     *     }
+     * </pre>
+     *
+     * <p>Elements are kept in a binary heap of at most k elements, so
+     * collecting n elements takes O(n log k) time and O(k) memory, against
+     * O(n log n) time and O(n) memory for {@code sorted(comparator.reversed()).limit(k)}.
+     * Each thread of a parallel stream fills a heap of its own, and the heaps
+     * are merged. Which of several equal elements are kept is unspecified.</p>
+     *
+     * @param k the number of elements to keep
+     * @param comparator the comparator ordering the elements
+     * @param <T> the type of input elements
+     * @return a Collector to a List of at most k elements, greatest first
+     * @throws IllegalArgumentException if k is negative
+     */
+    public static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator) {
+        if(k < 0) {
+            throw new IllegalArgumentException("k must not be negative, but was " + k);
+        }
+        Objects.requireNonNull(comparator, "comparator");
+        return Collector.<T, BoundedHeap<T>, List<T>>of(
+                () -> new BoundedHeap<>(k, comparator),
+                BoundedHeap::add,
+                BoundedHeap::merge,
+                BoundedHeap::toList
+        );
+    }
+
+    /**
+     * Returns a Collector to the k elements with the greatest values of
+     * extractor, greatest first, without sorting the stream.
+     *
+     * @param k the number of elements to keep
+     * @param extractor the function giving the value to order elements by
+     * @param <T> the type of input elements
+     * @param <U> the type of value elements are ordered by
+     * @return a Collector to a List of at most k elements, greatest first
+     * @see #topK(int, Comparator)
+     */
+    public static <T, U extends Comparable<? super U>> Collector<T, ?, List<T>> topK(int k, Function<? super T, ? extends U> extractor) {
+        return topK(k, Comparator.comparing(extractor));
+    }
+
+    /**
+     * Returns a Collector to the k greatest elements under the comparator of a
+     * {@link ComparatorPredicates} builder, greatest first, so that the same
+     * {@code where(...)} can both filter and rank.
+     *
+     * @param k the number of elements to keep
+     * @param where the builder whose comparator orders the elements
+     * @param <T> the type of input elements
+     * @return a Collector to a List of at most k elements, greatest first
+     * @see #topK(int, Comparator)
+     */
+    public static <T> Collector<T, ?, List<T>> topK(int k, ComparatorPredicates<T> where) {
+        return topK(k, where.comparator());
+    }
+
+    /**
+     * Returns a Collector to the k elements with the greatest values of the
+     * method reference of a {@link ValueComparisonPredicates} builder,
+     * greatest first. Elements with a null value rank lowest.
+     *
+     * @param k the number of elements to keep
+     * @param where the builder whose method reference orders the elements
+     * @param <T> the type of input elements
+     * @return a Collector to a List of at most k elements, greatest first
+     * @see #topK(int, Comparator)
+     */
+    public static <T> Collector<T, ?, List<T>> topK(int k, ValueComparisonPredicates<T, ?> where) {
+        return topK(k, where.comparator());
+    }
+
+    /**
+     * Returns a Collector to the k least elements under comparator, least
+     * first, without sorting the stream.
+     *
+     * @param k the number of elements to keep
+     * @param comparator the comparator ordering the elements
+     * @param <T> the type of input elements
+     * @return a Collector to a List of at most k elements, least first
+     * @throws IllegalArgumentException if k is negative
+     * @see #topK(int, Comparator)
+     */
+    public static <T> Collector<T, ?, List<T>> bottomK(int k, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator, "comparator");
+        return topK(k, Collections.reverseOrder(comparator));
+    }
+
+    /**
+     * Returns a Collector to the k elements with the least values of
+     * extractor, least first, without sorting the stream.
+     *
+     * @param k the number of elements to keep
+     * @param extractor the function giving the value to order elements by
+     * @param <T> the type of input elements
+     * @param <U> the type of value elements are ordered by
+     * @return a Collector to a List of at most k elements, least first
+     * @see #topK(int, Comparator)
+     */
+    public static <T, U extends Comparable<? super U>> Collector<T, ?, List<T>> bottomK(int k, Function<? super T, ? extends U> extractor) {
+        return bottomK(k, Comparator.comparing(extractor));
+    }
+
+    /**
+     * Returns a Collector to the k least elements under the comparator of a
+     * {@link ComparatorPredicates} builder, least first.
+     *
+     * @param k the number of elements to keep
+     * @param where the builder whose comparator orders the elements
+     * @param <T> the type of input elements
+     * @return a Collector to a List of at most k elements, least first
+     * @see #topK(int, Comparator)
+     */
+    public static <T> Collector<T, ?, List<T>> bottomK(int k, ComparatorPredicates<T> where) {
+        return bottomK(k, where.comparator());
+    }
+
+    /**
+     * Returns a Collector to the k elements with the least values of the
+     * method reference of a {@link ValueComparisonPredicates} builder, least
+     * first. Elements with a null value rank lowest.
+     *
+     * @param k the number of elements to keep
+     * @param where the builder whose method reference orders the elements
+     * @param <T> the type of input elements
+     * @return a Collector to a List of at most k elements, least first
+     * @see #topK(int, Comparator)
+     */
+    public static <T> Collector<T, ?, List<T>> bottomK(int k, ValueComparisonPredicates<T, ?> where) {
+        return bottomK(k, where.comparator());
+    }
+
+    /**
+     * Returns a Collector estimating the number of distinct elements, in a
+     * fixed amount of memory, with a {@link HyperLogLog} sketch.
+     *
+     * <pre>
+     *     {@code
+     *     // about 0.8% error, in 16 KiB, however many visitors there are
+     *     long visitors = events.map(Event::visitorId).collect(MoreCollectors.approxDistinctCount(14));
+     *     }
+     * </pre>
+     *
+     * <p>The count is exact until there are 2<sup>precision</sup> / 4 distinct
+     * elements. Use {@link #hyperLogLog(int)} instead to keep the sketch, for
+     * merging with sketches from elsewhere.</p>
+     *
+     * @param precision the precision of the sketch, from 4 to 18; each step up
+     *                  doubles its memory and cuts its error by about 30%
+     * @param <T> the type of input elements
+     * @return a Collector estimating the number of distinct elements
+     * @throws IllegalArgumentException if precision is out of range
+     */
+    public static <T> Collector<T, ?, Long> approxDistinctCount(int precision) {
+        HyperLogLog.checkPrecision(precision);
+        return Collector.<T, HyperLogLog, Long>of(
+                () -> new HyperLogLog(precision),
+                HyperLogLog::add,
+                HyperLogLog::merge,
+                HyperLogLog::estimate,
+                UNORDERED
+        );
+    }
+
+    /**
+     * Returns a Collector to a {@link HyperLogLog} sketch of the elements,
+     * which can be merged with other sketches of the same precision, and sent
+     * between processes with {@link HyperLogLog#toByteArray()}.
+     *
+     * @param precision the precision of the sketch, from 4 to 18
+     * @param <T> the type of input elements
+     * @return a Collector to a sketch of the elements
+     * @throws IllegalArgumentException if precision is out of range
+     * @see #approxDistinctCount(int)
+     */
+    public static <T> Collector<T, ?, HyperLogLog> hyperLogLog(int precision) {
+        HyperLogLog.checkPrecision(precision);
+        return Collector.<T, HyperLogLog>of(
+                () -> new HyperLogLog(precision),
+                HyperLogLog::add,
+                HyperLogLog::merge,
+                UNORDERED,
+                IDENTITY_FINISH
+        );
+    }
+
+    /**
+     * Splits a stream of mixed types in a single pass, collecting the
+     * instances of each class in collectors with that class's collector, and
+     * returns the results by class.
+     *
+     * <pre>
+     *     {@code
+     *     Map<Class<?>, Collector<?, ?, ?>> byEventType = new LinkedHashMap<>();
+     *     byEventType.put(OrderPlaced.class, Collectors.toList());
+     *     byEventType.put(OrderShipped.class, Collectors.counting());
+     *     Map<Class<?>, Object> results = events.collect(MoreCollectors.byType(byEventType));
+     *     List<OrderPlaced> placed = (List<OrderPlaced>) results.get(OrderPlaced.class);
+     *     }
+     * </pre>
+     *
+     * <p>Which collector, if any, an element goes to is worked out once per
+     * concrete class and cached in a {@link ClassValue}, so each element costs
+     * one lookup however many types there are. An element that is an instance
+     * of several of the classes goes only to the first of them in the map's
+     * iteration order, so use a LinkedHashMap, listing subclasses before
+     * superclasses, when the classes overlap. Elements of none of the classes,
+     * and nulls, are dropped.</p>
+     *
+     * @param collectors the collector for each class of element to collect
+     * @param <T> the type of input elements
+     * @return a Collector to a map of each class to the result of its collector,
+     * in the iteration order of collectors
+     */
+    public static <T> Collector<T, ?, Map<Class<?>, Object>> byType(Map<Class<?>, ? extends Collector<?, ?, ?>> collectors) {
+        TypeDispatch dispatch = new TypeDispatch(collectors);
+        return Collector.<T, Object[], Map<Class<?>, Object>>of(
+                dispatch::newContainers,
+                dispatch::accept,
+                dispatch::combine,
+                dispatch::finish
+        );
+    }
+
+    private static final class AppendingJoiner<A extends Appendable> {
+        private final A out;
+        private final AtomicBoolean writing;
+        private final CharSequence delimiter;
+        private final CharSequence prefix;
+        private boolean started;
+
+        /**
+         * Claims out for this joiner until it finishes, so that a parallel
+         * stream fails before a second part of it writes anything.
+         */
+        AppendingJoiner(A out, AtomicBoolean writing, CharSequence delimiter, CharSequence prefix) {
+            if(!writing.compareAndSet(false, true)) {
+                throw new IllegalStateException("joiningTo writes as it goes and cannot be used with a parallel stream");
+            }
+            this.out = out;
+            this.writing = writing;
+            this.delimiter = delimiter;
+            this.prefix = prefix;
+        }
+
+        void add(Object element) {
+            boolean added = false;
+            try {
+                out.append(started ? delimiter : prefix);
+                started = true;
+                out.append(element instanceof CharSequence ? (CharSequence) element : String.valueOf(element));
+                added = true;
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                // the collection ends with any exception, so let out be claimed again
+                if(!added) {
+                    writing.set(false);
+                }
+            }
+        }
+
+        A finish(CharSequence suffix) {
+            try {
+                if(!started) {
+                    out.append(prefix);
+                }
+                out.append(suffix);
+                return out;
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                writing.set(false);
+            }
+        }
+    }
+
+    private static final class ChannelJoiner {
+        private static final int CHARS = 1 << 12;
+        private static final int BYTES = 1 << 16;
+
+        private final WritableByteChannel channel;
+        private final AtomicBoolean writing;
+        private final CharsetEncoder encoder;
+        private final String delimiter;
+        private final CharBuffer chars = CharBuffer.allocate(CHARS);
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTES);
+        private long written;
+        private boolean started;
+
+        /**
+         * Claims the channel, and with it the encoder, for this joiner until it
+         * finishes, as {@link AppendingJoiner} claims its Appendable.
+         */
+        ChannelJoiner(WritableByteChannel channel, AtomicBoolean writing, CharsetEncoder encoder,
+                      CharSequence delimiter) {
+            if(!writing.compareAndSet(false, true)) {
+                throw new IllegalStateException("joiningTo writes as it goes and cannot be used with a parallel stream");
+            }
+            this.channel = channel;
+            this.writing = writing;
+            this.encoder = encoder.reset();
+            this.delimiter = delimiter.toString();
+        }
+
+        void add(Object element) {
+            boolean added = false;
+            try {
+                if(started) {
+                    put(delimiter);
+                }
+                started = true;
+                put(String.valueOf(element));
+                added = true;
+            } finally {
+                if(!added) {
+                    writing.set(false);
+                }
+            }
+        }
+
+        Long finish() {
+            try {
+                encode(true);
+                while(encoder.flush(bytes).isOverflow()) {
+                    drain();
+                }
+                drain();
+                return written;
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                writing.set(false);
+            }
+        }
+
+        private void put(String text) {
+            int from = 0;
+            while(from < text.length()) {
+                if(!chars.hasRemaining()) {
+                    try {
+                        encode(false);
+                    } catch(IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                int n = Math.min(text.length() - from, chars.remaining());
+                text.getChars(from, from + n, chars.array(), chars.arrayOffset() + chars.position());
+                chars.position(chars.position() + n);
+                from += n;
+            }
+        }
+
+        /**
+         * Encodes the buffered chars, writing to the channel whenever the bytes
+         * fill up. A high surrogate at the end stays buffered for its pair,
+         * unless this is the end of input.
+         */
+        private void encode(boolean endOfInput) throws IOException {
+            chars.flip();
+            while(true) {
+                CoderResult result = encoder.encode(chars, bytes, endOfInput);
+                if(result.isOverflow()) {
+                    drain();
+                } else if(result.isUnderflow()) {
+                    break;
+                } else {
+                    result.throwException();
+                }
+            }
+            chars.compact();
+        }
+
+        private void drain() throws IOException {
+            bytes.flip();
+            while(bytes.hasRemaining()) {
+                written += channel.write(bytes);
+            }
+            bytes.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final class TypeDispatch {
+        private final Class<?>[] classes;
+        private final Supplier<Object>[] suppliers;
+        private final BiConsumer<Object, Object>[] accumulators;
+        private final BinaryOperator<Object>[] combiners;
+        private final Function<Object, Object>[] finishers;
+        private final ClassValue<Integer> index = new ClassValue<Integer>() {
+            @Override
+            protected Integer computeValue(Class<?> type) {
+                for(int i = 0; i < classes.length; i++) {
+                    if(classes[i].isAssignableFrom(type)) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+        };
+
+        TypeDispatch(Map<Class<?>, ? extends Collector<?, ?, ?>> collectors) {
+            int size = collectors.size();
+            classes = new Class<?>[size];
+            suppliers = (Supplier<Object>[]) new Supplier<?>[size];
+            accumulators = (BiConsumer<Object, Object>[]) new BiConsumer<?, ?>[size];
+            combiners = (BinaryOperator<Object>[]) new BinaryOperator<?>[size];
+            finishers = (Function<Object, Object>[]) new Function<?, ?>[size];
+            int i = 0;
+            for(Map.Entry<Class<?>, ? extends Collector<?, ?, ?>> entry : collectors.entrySet()) {
+                Collector<Object, Object, Object> collector = (Collector<Object, Object, Object>) entry.getValue();
+                classes[i] = Objects.requireNonNull(entry.getKey(), "class");
+                suppliers[i] = collector.supplier();
+                accumulators[i] = collector.accumulator();
+                combiners[i] = collector.combiner();
+                finishers[i] = collector.finisher();
+                i++;
+            }
+        }
+
+        Object[] newContainers() {
+            Object[] containers = new Object[suppliers.length];
+            for(int i = 0; i < containers.length; i++) {
+                containers[i] = suppliers[i].get();
+            }
+            return containers;
+        }
+
+        void accept(Object[] containers, Object element) {
+            if(element == null) {
+                return;
+            }
+            int i = index.get(element.getClass());
+            if(i >= 0) {
+                accumulators[i].accept(containers[i], element);
+            }
+        }
+
+        Object[] combine(Object[] left, Object[] right) {
+            for(int i = 0; i < left.length; i++) {
+                left[i] = combiners[i].apply(left[i], right[i]);
+            }
+            return left;
+        }
+
+        Map<Class<?>, Object> finish(Object[] containers) {
+            Map<Class<?>, Object> results = new LinkedHashMap<>();
+            for(int i = 0; i < containers.length; i++) {
+                results.put(classes[i], finishers[i].apply(containers[i]));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Joining buffers for many threads at once. A thread takes a buffer by
+     * swapping it out of its slot for null, appends to it and puts it back; a
+     * thread finding a slot empty tries the next one. There are twice as many
+     * slots as processors, so a free one is always near.
+     */
+    private static final class StripedJoiner {
+        private final AtomicReferenceArray<JoiningBuffer> stripes;
+
+        StripedJoiner(CharSequence delimiter) {
+            int size = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+            stripes = new AtomicReferenceArray<>(size);
+            for(int i = 0; i < size; i++) {
+                stripes.set(i, new JoiningBuffer(delimiter));
+            }
+        }
+
+        void add(Object element) {
+            int mask = stripes.length() - 1;
+            long id = Thread.currentThread().getId();
+            int i = (int) (id ^ (id >>> 16)) * 0x9E3779B9;
+            while(true) {
+                int slot = i & mask;
+                JoiningBuffer buffer = stripes.getAndSet(slot, null);
+                if(buffer != null) {
+                    buffer.add(element);
+                    stripes.set(slot, buffer);
+                    return;
+                }
+                i++;
+            }
+        }
+
+        StripedJoiner merge(StripedJoiner other) {
+            for(int i = 0; i < other.stripes.length(); i++) {
+                int slot = i & (stripes.length() - 1);
+                stripes.set(slot, stripes.get(slot).merge(other.stripes.get(i)));
+            }
+            return this;
+        }
+
+        String toString(CharSequence prefix, CharSequence suffix) {
+            JoiningBuffer all = stripes.get(0);
+            for(int i = 1; i < stripes.length(); i++) {
+                all = all.merge(stripes.get(i));
+            }
+            return all.toString(prefix, suffix);
+        }
+    }
+
 }
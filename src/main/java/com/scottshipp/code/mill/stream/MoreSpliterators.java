@@ -0,0 +1,351 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Spliterators used to build the streams returned by {@link StreamOps}.
+ *
+ * Stateful filtering (for example a predicate that removes what it has seen
+ * from a set) has to live inside the spliterator rather than in a call to
+ * Stream.filter, because a spliterator is only ever advanced by one thread
+ * at a time, even after the resulting stream is made parallel.
+ */
+final class MoreSpliterators {
+
+    /**
+     * The exhausted condition for filtering which never stops early.
+     */
+    static final BooleanSupplier NEVER = () -> false;
+
+    private MoreSpliterators() {
+        // static methods only
+    }
+
+    /**
+     * Returns a spliterator over the elements of source which match the
+     * predicate. The predicate may be stateful.
+     *
+     * @param source the spliterator to filter
+     * @param predicate the predicate an element must match to be kept
+     * @param characteristics the characteristics to report, which must not
+     *                        include SIZED
+     * @param <T> the type of element
+     * @return a filtering spliterator
+     */
+    static <T> Spliterator<T> filtering(Spliterator<T> source, Predicate<? super T> predicate, int characteristics) {
+        return new FilteringSpliterator<>(source, predicate, NEVER, characteristics);
+    }
+
+    /**
+     * Same as {@link #filtering(Spliterator, Predicate, int)}, except that
+     * traversal stops early, without draining the rest of source, as soon as
+     * exhausted returns true. Used when nothing further can match.
+     *
+     * @param source the spliterator to filter
+     * @param predicate the predicate an element must match to be kept
+     * @param exhausted returns true once no further element can match
+     * @param characteristics the characteristics to report, which must not
+     *                        include SIZED
+     * @param <T> the type of element
+     * @return a filtering spliterator
+     */
+    static <T> Spliterator<T> filtering(Spliterator<T> source, Predicate<? super T> predicate,
+                                        BooleanSupplier exhausted, int characteristics) {
+        return new FilteringSpliterator<>(source, predicate, exhausted, characteristics);
+    }
+
+    /**
+     * Primitive int version of {@link #filtering(Spliterator, Predicate, BooleanSupplier, int)}.
+     */
+    static Spliterator.OfInt filteringInt(Spliterator.OfInt source, IntPredicate predicate,
+                                          BooleanSupplier exhausted, int characteristics) {
+        return new FilteringIntSpliterator(source, predicate, exhausted, characteristics);
+    }
+
+    /**
+     * Primitive long version of {@link #filtering(Spliterator, Predicate, BooleanSupplier, int)}.
+     */
+    static Spliterator.OfLong filteringLong(Spliterator.OfLong source, LongPredicate predicate,
+                                            BooleanSupplier exhausted, int characteristics) {
+        return new FilteringLongSpliterator(source, predicate, exhausted, characteristics);
+    }
+
+    /**
+     * Primitive double version of {@link #filtering(Spliterator, Predicate, BooleanSupplier, int)}.
+     */
+    static Spliterator.OfDouble filteringDouble(Spliterator.OfDouble source, DoublePredicate predicate,
+                                                BooleanSupplier exhausted, int characteristics) {
+        return new FilteringDoubleSpliterator(source, predicate, exhausted, characteristics);
+    }
+
+    /**
+     * Returns a spliterator over the elements of every part, one part after
+     * another. Unlike Stream.flatMap, it keeps the exact size when every part
+     * knows its size, splits for parallel execution by handing out whole runs
+     * of parts (balanced by their sizes) and then by splitting the last
+     * remaining part, and stops reading as soon as the consumer does.
+     *
+     * @param parts the spliterators to concatenate, which must not be used afterwards
+     * @param <T> the type of element
+     * @return a concatenating spliterator
+     */
+    static <T> Spliterator<T> concat(Spliterator<T>[] parts) {
+        if(parts.length == 1) {
+            return parts[0];
+        }
+        return new ConcatSpliterator<>(parts, 0, parts.length);
+    }
+
+    private static final class ConcatSpliterator<T> implements Spliterator<T> {
+        private static final int KEPT = ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE | CONCURRENT;
+
+        private final Spliterator<T>[] parts;
+        private final int end;
+        private int index;
+        private int characteristics;
+
+        ConcatSpliterator(Spliterator<T>[] parts, int index, int end) {
+            this.parts = parts;
+            this.index = index;
+            this.end = end;
+            this.characteristics = computeCharacteristics();
+        }
+
+        private int computeCharacteristics() {
+            if(end == index) {
+                // no parts: empty, and KEPT would claim CONCURRENT and IMMUTABLE together
+                return SIZED | SUBSIZED | IMMUTABLE;
+            }
+            if(end - index == 1) {
+                return parts[index].characteristics();
+            }
+            int result = KEPT;
+            long size = 0;
+            for(int i = index; i < end; i++) {
+                result &= parts[i].characteristics();
+                size += parts[i].estimateSize();
+                if(size < 0) {
+                    result &= ~(SIZED | SUBSIZED);
+                    break;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while(index < end) {
+                if(parts[index].tryAdvance(action)) {
+                    return true;
+                }
+                index++;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            while(index < end) {
+                parts[index++].forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int remaining = end - index;
+            if(remaining == 0) {
+                return null;
+            }
+            if(remaining == 1) {
+                return parts[index].trySplit();
+            }
+            long half = estimateSize() / 2;
+            long prefixSize = parts[index].estimateSize();
+            int mid = index + 1;
+            while(mid < end - 1 && prefixSize < half) {
+                prefixSize += parts[mid++].estimateSize();
+            }
+            Spliterator<T> prefix = mid - index == 1 ? parts[index] : new ConcatSpliterator<>(parts, index, mid);
+            index = mid;
+            characteristics = computeCharacteristics();
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = 0;
+            for(int i = index; i < end; i++) {
+                size += parts[i].estimateSize();
+                if(size < 0) {
+                    return Long.MAX_VALUE;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            if(end - index == 1) {
+                return parts[index].getComparator();
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    private static final class FilteringSpliterator<T> extends Spliterators.AbstractSpliterator<T> implements Consumer<T> {
+        private final Spliterator<T> source;
+        private final Predicate<? super T> predicate;
+        private final BooleanSupplier exhausted;
+        private T current;
+
+        FilteringSpliterator(Spliterator<T> source, Predicate<? super T> predicate,
+                             BooleanSupplier exhausted, int characteristics) {
+            super(source.estimateSize(), characteristics);
+            this.source = source;
+            this.predicate = predicate;
+            this.exhausted = exhausted;
+        }
+
+        @Override
+        public void accept(T t) {
+            current = t;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while(!exhausted.getAsBoolean() && source.tryAdvance(this)) {
+                T t = current;
+                current = null;
+                if(predicate.test(t)) {
+                    action.accept(t);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if(exhausted != NEVER) {
+                while(tryAdvance(action)) {
+                    // keep going until the source runs out or nothing more can match
+                }
+                return;
+            }
+            source.forEachRemaining(t -> {
+                if(predicate.test(t)) {
+                    action.accept(t);
+                }
+            });
+        }
+    }
+
+    private static final class FilteringIntSpliterator extends Spliterators.AbstractIntSpliterator implements IntConsumer {
+        private final Spliterator.OfInt source;
+        private final IntPredicate predicate;
+        private final BooleanSupplier exhausted;
+        private int current;
+
+        FilteringIntSpliterator(Spliterator.OfInt source, IntPredicate predicate,
+                                BooleanSupplier exhausted, int characteristics) {
+            super(source.estimateSize(), characteristics);
+            this.source = source;
+            this.predicate = predicate;
+            this.exhausted = exhausted;
+        }
+
+        @Override
+        public void accept(int value) {
+            current = value;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            while(!exhausted.getAsBoolean() && source.tryAdvance((IntConsumer) this)) {
+                if(predicate.test(current)) {
+                    action.accept(current);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class FilteringLongSpliterator extends Spliterators.AbstractLongSpliterator implements LongConsumer {
+        private final Spliterator.OfLong source;
+        private final LongPredicate predicate;
+        private final BooleanSupplier exhausted;
+        private long current;
+
+        FilteringLongSpliterator(Spliterator.OfLong source, LongPredicate predicate,
+                                 BooleanSupplier exhausted, int characteristics) {
+            super(source.estimateSize(), characteristics);
+            this.source = source;
+            this.predicate = predicate;
+            this.exhausted = exhausted;
+        }
+
+        @Override
+        public void accept(long value) {
+            current = value;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            while(!exhausted.getAsBoolean() && source.tryAdvance((LongConsumer) this)) {
+                if(predicate.test(current)) {
+                    action.accept(current);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class FilteringDoubleSpliterator extends Spliterators.AbstractDoubleSpliterator implements DoubleConsumer {
+        private final Spliterator.OfDouble source;
+        private final DoublePredicate predicate;
+        private final BooleanSupplier exhausted;
+        private double current;
+
+        FilteringDoubleSpliterator(Spliterator.OfDouble source, DoublePredicate predicate,
+                                   BooleanSupplier exhausted, int characteristics) {
+            super(source.estimateSize(), characteristics);
+            this.source = source;
+            this.predicate = predicate;
+            this.exhausted = exhausted;
+        }
+
+        @Override
+        public void accept(double value) {
+            current = value;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            while(!exhausted.getAsBoolean() && source.tryAdvance((DoubleConsumer) this)) {
+                if(predicate.test(current)) {
+                    action.accept(current);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * A bounded, least-recently-used cache of compiled patterns shared by every
+ * regex predicate in {@link StringPredicates}, so that predicates built over
+ * and over from the same configuration strings compile each regex only once.
+ */
+final class PatternCache {
+
+    static final int MAX_SIZE = 256;
+
+    private static final Map<Key, Pattern> CACHE = new LinkedHashMap<Key, Pattern>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Pattern> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    private PatternCache() {
+        // static methods only
+    }
+
+    /**
+     * @param regex the regular expression to compile
+     * @param flags the match flags, as for {@link Pattern#compile(String, int)}
+     * @return the cached pattern, compiling it if needed
+     */
+    static Pattern compile(String regex, int flags) {
+        Key key = new Key(regex, flags);
+        synchronized(CACHE) {
+            Pattern pattern = CACHE.get(key);
+            if(pattern != null) {
+                return pattern;
+            }
+        }
+        // compile outside the lock; a racing thread compiling the same regex is harmless
+        Pattern pattern = Pattern.compile(regex, flags);
+        synchronized(CACHE) {
+            CACHE.put(key, pattern);
+        }
+        return pattern;
+    }
+
+    static int size() {
+        synchronized(CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    private static final class Key {
+        private final String regex;
+        private final int flags;
+
+        Key(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return flags == other.flags && regex.equals(other.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(regex, flags);
+        }
+    }
+}
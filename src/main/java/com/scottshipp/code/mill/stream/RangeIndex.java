@@ -0,0 +1,425 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * An index of many range predicates over the same value, which finds all the
+ * ranges containing an element at once instead of testing each predicate in
+ * turn.
+ *
+ * <p>Each range is registered under an int id of the caller's choosing, such as
+ * a subscriber number. Looking up an element extracts its value once, finds its
+ * position among the sorted bounds of all ranges with a binary search, and then
+ * walks a centered interval tree, so that it takes O(log n + k) time for n
+ * ranges of which k match.</p>
+ *
+ * <pre>
+ *     {@code
+ *     ValueComparisonPredicates<Order, Long> amount = ValueComparisonPredicates.where(Order::amount);
+ *     RangeIndex<Order, Long> subscriptions = RangeIndex.over(amount)
+ *             .addInRangeClosed(1, 0L, 100L)
+ *             .addGreaterThan(2, 50L)
+ *             .add(3, amount.isLessThan(10L).or(amount.isGreaterThan(1_000L)))
+ *             .build();
+ *
+ *     // the ids of the subscribers interested in an order
+ *     IntStream subscribers = subscriptions.matching(order);
+ *     }
+ * </pre>
+ *
+ * <p>Ranges are accepted from the builder passed to {@link #over(RangePredicate)},
+ * which must be a {@link ValueComparisonPredicates} or {@link ComparatorPredicates},
+ * including ranges fused from several of its predicates with and, or and negate.
+ * An id may be used for any number of ranges; it is reported once for each
+ * range that matches.</p>
+ *
+ * <p>A RangeIndex is immutable and safe to share between threads.</p>
+ *
+ * @param <S> the type of element looked up
+ * @param <T> the type of value the ranges compare
+ */
+public final class RangeIndex<S, T> {
+
+    private final Function<? super S, ? extends T> extractor;
+    private final Comparator<? super T> comparator;
+    private final boolean nullsHaveOwnResult;
+    private final int[] nullIds;
+    private final Object[] bounds;
+
+    // the tree, with node i holding the ranges at [nodeStart[i], nodeStart[i + 1]) of both arrays below
+    private final int[] centers;
+    private final int[] left;
+    private final int[] right;
+    private final int[] nodeStart;
+    private final int[] byLowSlot;
+    private final int[] byLowId;
+    private final int[] byHighSlot;
+    private final int[] byHighId;
+    private final int intervals;
+    private final int size;
+
+    private RangeIndex(Builder<S, T> builder) {
+        IntervalPredicate<S, T> first = builder.first;
+        this.extractor = first == null ? null : first.extractor();
+        this.comparator = first == null ? null : first.comparator();
+        this.nullsHaveOwnResult = first != null && first.nullResult() != null;
+        this.nullIds = builder.nullIds.stream().mapToInt(Integer::intValue).toArray();
+        this.intervals = builder.ids.size();
+        this.size = builder.size;
+
+        // the distinct finite bounds of all ranges, in order
+        List<T> values = new ArrayList<>();
+        for(IntervalPredicate.Interval<T> interval : builder.intervals) {
+            if(interval.low != null) {
+                values.add(interval.low.value);
+            }
+            if(interval.high != null) {
+                values.add(interval.high.value);
+            }
+        }
+        values.sort(comparator);
+        List<T> distinct = new ArrayList<>();
+        for(T value : values) {
+            if(distinct.isEmpty() || comparator.compare(distinct.get(distinct.size() - 1), value) != 0) {
+                distinct.add(value);
+            }
+        }
+        this.bounds = distinct.toArray();
+
+        // slot 2i + 1 is the i-th bound itself and slot 2i the values just below it
+        int[] lows = new int[intervals];
+        int[] highs = new int[intervals];
+        int[] ids = new int[intervals];
+        for(int i = 0; i < intervals; i++) {
+            IntervalPredicate.Interval<T> interval = builder.intervals.get(i);
+            lows[i] = interval.low == null ? 0 : 2 * indexOf(interval.low.value) + (interval.low.inclusive ? 1 : 2);
+            highs[i] = interval.high == null ? 2 * bounds.length : 2 * indexOf(interval.high.value) + (interval.high.inclusive ? 1 : 0);
+            ids[i] = builder.ids.get(i);
+        }
+
+        TreeBuilder tree = new TreeBuilder(lows, highs, ids);
+        Integer[] all = new Integer[intervals];
+        Arrays.setAll(all, i -> i);
+        tree.build(Arrays.asList(all));
+        this.centers = Arrays.copyOf(tree.centers, tree.nodes);
+        this.left = Arrays.copyOf(tree.left, tree.nodes);
+        this.right = Arrays.copyOf(tree.right, tree.nodes);
+        this.nodeStart = Arrays.copyOf(tree.nodeStart, tree.nodes + 1);
+        this.nodeStart[tree.nodes] = intervals;
+        this.byLowSlot = tree.byLowSlot;
+        this.byLowId = tree.byLowId;
+        this.byHighSlot = tree.byHighSlot;
+        this.byHighId = tree.byHighId;
+    }
+
+    /**
+     * Starts building an index of ranges from the given predicate builder.
+     *
+     * @param where the builder whose ranges will be indexed, such as
+     *              {@code ValueComparisonPredicates.where(Order::amount)}
+     * @param <S> the type of element looked up
+     * @param <T> the type of value the ranges compare
+     * @return a new builder
+     */
+    public static <S, T> Builder<S, T> over(RangePredicate<S, T> where) {
+        return new Builder<>(where);
+    }
+
+    /**
+     * Passes the id of each range containing the element's value to action,
+     * without allocating.
+     *
+     * @param element the element to look up
+     * @param action called with the id of each matching range
+     */
+    public void forEachMatching(S element, IntConsumer action) {
+        if(size == 0) {
+            return;
+        }
+        T value = extractor.apply(element);
+        if(value == null && nullsHaveOwnResult) {
+            for(int id : nullIds) {
+                action.accept(id);
+            }
+            return;
+        }
+        // ranges that can never match, like an empty open range, add no intervals and so no tree
+        if(intervals == 0) {
+            return;
+        }
+        int slot = slotOf(value);
+        int node = 0;
+        while(node != -1) {
+            int center = centers[node];
+            int from = nodeStart[node];
+            int to = nodeStart[node + 1];
+            if(slot < center) {
+                for(int i = from; i < to && byLowSlot[i] <= slot; i++) {
+                    action.accept(byLowId[i]);
+                }
+                node = left[node];
+            } else if(slot > center) {
+                for(int i = from; i < to && byHighSlot[i] >= slot; i++) {
+                    action.accept(byHighId[i]);
+                }
+                node = right[node];
+            } else {
+                for(int i = from; i < to; i++) {
+                    action.accept(byLowId[i]);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param element the element to look up
+     * @return the ids of the ranges containing the element's value, in no
+     * particular order
+     */
+    public IntStream matching(S element) {
+        IntStream.Builder ids = IntStream.builder();
+        forEachMatching(element, ids);
+        return ids.build();
+    }
+
+    /**
+     * @param element the element to look up
+     * @return a BitSet with the bit of each id whose range contains the
+     * element's value set. Ids must not be negative.
+     */
+    public BitSet matchingBits(S element) {
+        BitSet ids = new BitSet();
+        forEachMatching(element, ids::set);
+        return ids;
+    }
+
+    /**
+     * @return the number of ranges in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(T value) {
+        return Arrays.binarySearch(bounds, value, boundComparator());
+    }
+
+    private int slotOf(T value) {
+        int index = indexOf(value);
+        return index >= 0 ? 2 * index + 1 : 2 * (-index - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparator<Object> boundComparator() {
+        return (Comparator<Object>) comparator;
+    }
+
+    /**
+     * Builds the centered interval tree over ranges of slots. Every node's
+     * center is one of the slot bounds of its ranges, so every node holds at
+     * least one range and the tree has at most as many nodes as ranges.
+     */
+    private static final class TreeBuilder {
+        final int[] lows;
+        final int[] highs;
+        final int[] ids;
+        final int[] centers;
+        final int[] left;
+        final int[] right;
+        final int[] nodeStart;
+        final int[] byLowSlot;
+        final int[] byLowId;
+        final int[] byHighSlot;
+        final int[] byHighId;
+        int nodes;
+        int stored;
+
+        TreeBuilder(int[] lows, int[] highs, int[] ids) {
+            this.lows = lows;
+            this.highs = highs;
+            this.ids = ids;
+            int capacity = Math.max(1, lows.length);
+            centers = new int[capacity];
+            left = new int[capacity];
+            right = new int[capacity];
+            nodeStart = new int[capacity + 1];
+            byLowSlot = new int[lows.length];
+            byLowId = new int[lows.length];
+            byHighSlot = new int[lows.length];
+            byHighId = new int[lows.length];
+        }
+
+        int build(List<Integer> ranges) {
+            if(ranges.isEmpty()) {
+                return -1;
+            }
+            int[] slots = new int[ranges.size() * 2];
+            for(int i = 0; i < ranges.size(); i++) {
+                slots[2 * i] = lows[ranges.get(i)];
+                slots[2 * i + 1] = highs[ranges.get(i)];
+            }
+            Arrays.sort(slots);
+            int center = slots[ranges.size()];
+
+            List<Integer> here = new ArrayList<>();
+            List<Integer> below = new ArrayList<>();
+            List<Integer> above = new ArrayList<>();
+            for(int range : ranges) {
+                if(highs[range] < center) {
+                    below.add(range);
+                } else if(lows[range] > center) {
+                    above.add(range);
+                } else {
+                    here.add(range);
+                }
+            }
+
+            int node = nodes++;
+            centers[node] = center;
+            nodeStart[node] = stored;
+            here.sort(Comparator.comparingInt(range -> lows[range]));
+            for(int i = 0; i < here.size(); i++) {
+                byLowSlot[stored + i] = lows[here.get(i)];
+                byLowId[stored + i] = ids[here.get(i)];
+            }
+            here.sort(Comparator.comparingInt(range -> -highs[range]));
+            for(int i = 0; i < here.size(); i++) {
+                byHighSlot[stored + i] = highs[here.get(i)];
+                byHighId[stored + i] = ids[here.get(i)];
+            }
+            stored += here.size();
+            left[node] = build(below);
+            right[node] = build(above);
+            return node;
+        }
+    }
+
+    /**
+     * Collects the ranges of a {@link RangeIndex}.
+     *
+     * @param <S> the type of element looked up
+     * @param <T> the type of value the ranges compare
+     */
+    public static final class Builder<S, T> {
+        private final RangePredicate<S, T> where;
+        private final List<Integer> ids = new ArrayList<>();
+        private final List<IntervalPredicate.Interval<T>> intervals = new ArrayList<>();
+        private final List<Integer> nullIds = new ArrayList<>();
+        private IntervalPredicate<S, T> first;
+        private int size;
+
+        private Builder(RangePredicate<S, T> where) {
+            this.where = where;
+        }
+
+        /**
+         * Adds a range built by this builder's {@link RangePredicate}, or fused
+         * from several of them.
+         *
+         * @param id the id to report when the range matches
+         * @param range the range predicate
+         * @return this builder
+         * @throws IllegalArgumentException if the predicate is not a range over
+         * the same value and comparator as the other ranges
+         */
+        @SuppressWarnings("unchecked")
+        public Builder<S, T> add(int id, Predicate<S> range) {
+            if(!(range instanceof IntervalPredicate)) {
+                throw new IllegalArgumentException("Only range predicates from ValueComparisonPredicates or ComparatorPredicates can be indexed, not " + range);
+            }
+            IntervalPredicate<S, T> interval = (IntervalPredicate<S, T>) range;
+            if(first == null) {
+                first = interval;
+            } else if(first.fusable(interval) == null) {
+                throw new IllegalArgumentException("All ranges in an index must compare the same value with the same comparator");
+            }
+            for(IntervalPredicate.Interval<T> part : interval.intervals()) {
+                ids.add(id);
+                intervals.add(part);
+            }
+            if(Boolean.TRUE.equals(interval.nullResult())) {
+                nullIds.add(id);
+            }
+            size++;
+            return this;
+        }
+
+        /**
+         * @param id the id to report when the range matches
+         * @param low the lower bound
+         * @param high the higher bound
+         * @return this builder
+         * @see RangePredicate#isInRangeClosed(Object, Object)
+         */
+        public Builder<S, T> addInRangeClosed(int id, T low, T high) {
+            return add(id, where.isInRangeClosed(low, high));
+        }
+
+        /**
+         * @param id the id to report when the range matches
+         * @param low the lower bound
+         * @param high the higher bound
+         * @return this builder
+         * @see RangePredicate#isInRangeOpen(Object, Object)
+         */
+        public Builder<S, T> addInRangeOpen(int id, T low, T high) {
+            return add(id, where.isInRangeOpen(low, high));
+        }
+
+        /**
+         * @param id the id to report when the range matches
+         * @param value the value to compare against
+         * @return this builder
+         * @see RangePredicate#isGreaterThan(Object)
+         */
+        public Builder<S, T> addGreaterThan(int id, T value) {
+            return add(id, where.isGreaterThan(value));
+        }
+
+        /**
+         * @param id the id to report when the range matches
+         * @param value the value to compare against
+         * @return this builder
+         * @see RangePredicate#isGreaterThanOrEqualTo(Object)
+         */
+        public Builder<S, T> addGreaterThanOrEqualTo(int id, T value) {
+            return add(id, where.isGreaterThanOrEqualTo(value));
+        }
+
+        /**
+         * @param id the id to report when the range matches
+         * @param value the value to compare against
+         * @return this builder
+         * @see RangePredicate#isLessThan(Object)
+         */
+        public Builder<S, T> addLessThan(int id, T value) {
+            return add(id, where.isLessThan(value));
+        }
+
+        /**
+         * @param id the id to report when the range matches
+         * @param value the value to compare against
+         * @return this builder
+         * @see RangePredicate#isLessThanOrEqualTo(Object)
+         */
+        public Builder<S, T> addLessThanOrEqualTo(int id, T value) {
+            return add(id, where.isLessThanOrEqualTo(value));
+        }
+
+        /**
+         * @return a new index of the ranges added so far
+         */
+        public RangeIndex<S, T> build() {
+            return new RangeIndex<>(this);
+        }
+    }
+}
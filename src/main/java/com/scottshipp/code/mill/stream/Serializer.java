@@ -0,0 +1,109 @@
+package com.scottshipp.code.mill.stream;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes values to, and reads them back from, a binary stream. Used by the
+ * operations of {@link StreamOps} that spill to disk under a {@link SpillConfig}.
+ *
+ * <pre>
+ *     {@code
+ *     Serializer<Order> orders = new Serializer<Order>() {
+ *         public void write(Order order, DataOutput out) throws IOException {
+ *             out.writeLong(order.id());
+ *             out.writeUTF(order.customer());
+ *         }
+ *
+ *         public Order read(DataInput in) throws IOException {
+ *             return new Order(in.readLong(), in.readUTF());
+ *         }
+ *     };
+ *     }
+ * </pre>
+ *
+ * <p>A value read back must be equal to the value written, with the same
+ * hashCode. Values passed to {@link #write(Object, DataOutput)} are never
+ * null.</p>
+ *
+ * @param <T> the type of value serialized
+ */
+public interface Serializer<T> {
+
+    /**
+     * Writes value to out.
+     *
+     * @param value the value, which is not null
+     * @param out where to write it
+     * @throws IOException if out cannot be written to
+     */
+    void write(T value, DataOutput out) throws IOException;
+
+    /**
+     * Reads a value written by {@link #write(Object, DataOutput)}.
+     *
+     * @param in where to read it from
+     * @return the value
+     * @throws IOException if in cannot be read from
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * @return a Serializer for Strings of any length, written as their chars
+     */
+    static Serializer<String> strings() {
+        return new Serializer<String>() {
+            @Override
+            public void write(String value, DataOutput out) throws IOException {
+                out.writeInt(value.length());
+                for(int i = 0; i < value.length(); i++) {
+                    out.writeChar(value.charAt(i));
+                }
+            }
+
+            @Override
+            public String read(DataInput in) throws IOException {
+                char[] chars = new char[in.readInt()];
+                for(int i = 0; i < chars.length; i++) {
+                    chars[i] = in.readChar();
+                }
+                return new String(chars);
+            }
+        };
+    }
+
+    /**
+     * @return a Serializer for Longs
+     */
+    static Serializer<Long> longs() {
+        return new Serializer<Long>() {
+            @Override
+            public void write(Long value, DataOutput out) throws IOException {
+                out.writeLong(value);
+            }
+
+            @Override
+            public Long read(DataInput in) throws IOException {
+                return in.readLong();
+            }
+        };
+    }
+
+    /**
+     * @return a Serializer for Integers
+     */
+    static Serializer<Integer> integers() {
+        return new Serializer<Integer>() {
+            @Override
+            public void write(Integer value, DataOutput out) throws IOException {
+                out.writeInt(value);
+            }
+
+            @Override
+            public Integer read(DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+    }
+}
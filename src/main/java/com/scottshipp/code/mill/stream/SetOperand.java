@@ -0,0 +1,72 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
+/**
+ * One input to a set operation such as {@link StreamOps#intersection(Stream[])}.
+ * Holds the elements as a spliterator along with the best known size, and
+ * remembers the original {@link Set} when there is one so that it can be
+ * probed directly instead of being copied into a new set.
+ *
+ * @param <T> the type of element
+ */
+final class SetOperand<T> {
+
+    /**
+     * Orders operands from the smallest known size to the largest.
+     */
+    static final Comparator<SetOperand<?>> BY_SIZE = Comparator.comparingLong(SetOperand::size);
+
+    private final Spliterator<T> spliterator;
+    private final Set<T> set;
+    private final long size;
+
+    private SetOperand(Spliterator<T> spliterator, Set<T> set) {
+        this.spliterator = spliterator;
+        this.set = set;
+        this.size = set != null ? set.size() : spliterator.estimateSize();
+    }
+
+    /**
+     * Wraps a stream. The stream's spliterator is obtained right away, which
+     * links the stream without traversing it.
+     */
+    static <T> SetOperand<T> of(Stream<T> stream) {
+        return new SetOperand<>(stream.spliterator(), null);
+    }
+
+    /**
+     * Wraps a collection, keeping hold of it as a set if it is one.
+     */
+    static <T> SetOperand<T> of(Collection<T> collection) {
+        Set<T> set = collection instanceof Set ? (Set<T>) collection : null;
+        return new SetOperand<>(collection.spliterator(), set);
+    }
+
+    Spliterator<T> spliterator() {
+        return spliterator;
+    }
+
+    /**
+     * @return true if this operand can answer contains() without being copied
+     */
+    boolean isSet() {
+        return set != null;
+    }
+
+    Set<T> set() {
+        return set;
+    }
+
+    /**
+     * @return the exact size when known, otherwise an estimate which is
+     * Long.MAX_VALUE when nothing is known
+     */
+    long size() {
+        return size;
+    }
+}
@@ -0,0 +1,242 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * A k-way merge over spliterators which are each sorted by the same
+ * comparator. Used for the sorted set operations in {@link StreamOps}, such as
+ * {@link StreamOps#sortedIntersection(Comparator, java.util.stream.Stream[])}.
+ *
+ * <p>Only the current head element of each input is held, so extra memory is
+ * proportional to the number of inputs and not to the number of elements, and
+ * nothing is ever hashed. The output is sorted by the same comparator. An
+ * input that turns out not to be sorted causes an IllegalStateException.</p>
+ *
+ * @param <T> the type of element
+ */
+final class SortedMergeSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    /**
+     * The set operation performed by the merge.
+     */
+    enum Operation {
+        /** Distinct elements found in every input. */
+        INTERSECTION,
+        /** Distinct elements of the first input found in none of the others. */
+        DIFFERENCE,
+        /** Every element of every input, duplicates included. */
+        UNION,
+        /** Distinct elements found in any input. */
+        DISTINCT
+    }
+
+    private final Operation operation;
+    private final Comparator<? super T> comparator;
+    private final Cursor<T>[] cursors;
+    private final PriorityQueue<Cursor<T>> queue;
+    private boolean started;
+    private boolean hasLast;
+    private T last;
+
+    @SuppressWarnings("unchecked")
+    SortedMergeSpliterator(Operation operation, Comparator<? super T> comparator, Spliterator<T>[] inputs) {
+        super(estimate(operation, inputs), characteristics(operation, inputs));
+        this.operation = operation;
+        this.comparator = comparator;
+        this.cursors = (Cursor<T>[]) new Cursor<?>[inputs.length];
+        for(int i = 0; i < inputs.length; i++) {
+            cursors[i] = new Cursor<>(i, inputs[i], comparator);
+        }
+        boolean merging = operation == Operation.UNION || operation == Operation.DISTINCT;
+        this.queue = merging ? new PriorityQueue<>(Math.max(1, inputs.length), this::compareHeads) : null;
+    }
+
+    private static long estimate(Operation operation, Spliterator<?>[] inputs) {
+        if(inputs.length == 0) {
+            return 0;
+        }
+        long size = inputs[0].estimateSize();
+        for(int i = 1; i < inputs.length; i++) {
+            long next = inputs[i].estimateSize();
+            if(operation == Operation.INTERSECTION) {
+                size = Math.min(size, next);
+            } else if(operation != Operation.DIFFERENCE) {
+                size = size + next < 0 ? Long.MAX_VALUE : size + next;
+            }
+        }
+        return size;
+    }
+
+    private static int characteristics(Operation operation, Spliterator<?>[] inputs) {
+        int characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL;
+        for(Spliterator<?> input : inputs) {
+            if(!input.hasCharacteristics(Spliterator.NONNULL)) {
+                characteristics &= ~Spliterator.NONNULL;
+            }
+        }
+        return operation == Operation.UNION ? characteristics : characteristics | Spliterator.DISTINCT;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return comparator;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if(cursors.length == 0) {
+            return false;
+        }
+        if(!started) {
+            started = true;
+            for(Cursor<T> cursor : cursors) {
+                if(cursor.advance() && queue != null) {
+                    queue.add(cursor);
+                }
+            }
+        }
+        switch(operation) {
+            case INTERSECTION:
+                return advanceIntersection(action);
+            case DIFFERENCE:
+                return advanceDifference(action);
+            default:
+                return advanceMerge(action);
+        }
+    }
+
+    private boolean advanceIntersection(Consumer<? super T> action) {
+        for(Cursor<T> cursor : cursors) {
+            if(!cursor.hasHead) {
+                return false;
+            }
+        }
+        T max = cursors[0].head;
+        boolean aligned = false;
+        while(!aligned) {
+            aligned = true;
+            for(Cursor<T> cursor : cursors) {
+                if(!cursor.skipBelow(max)) {
+                    return false;
+                }
+                if(comparator.compare(cursor.head, max) > 0) {
+                    max = cursor.head;
+                    aligned = false;
+                }
+            }
+        }
+        for(Cursor<T> cursor : cursors) {
+            cursor.skipBelowOrEqual(max);
+        }
+        action.accept(max);
+        return true;
+    }
+
+    private boolean advanceDifference(Consumer<? super T> action) {
+        Cursor<T> first = cursors[0];
+        while(first.hasHead) {
+            T candidate = first.head;
+            first.skipBelowOrEqual(candidate);
+            boolean excluded = false;
+            for(int i = 1; i < cursors.length && !excluded; i++) {
+                Cursor<T> cursor = cursors[i];
+                excluded = cursor.skipBelow(candidate) && comparator.compare(cursor.head, candidate) == 0;
+            }
+            if(!excluded) {
+                action.accept(candidate);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean advanceMerge(Consumer<? super T> action) {
+        while(!queue.isEmpty()) {
+            Cursor<T> cursor = queue.poll();
+            T next = cursor.head;
+            if(cursor.advance()) {
+                queue.add(cursor);
+            }
+            if(operation == Operation.DISTINCT) {
+                if(hasLast && comparator.compare(last, next) == 0) {
+                    continue;
+                }
+                hasLast = true;
+                last = next;
+            }
+            action.accept(next);
+            return true;
+        }
+        return false;
+    }
+
+    private int compareHeads(Cursor<T> a, Cursor<T> b) {
+        int result = comparator.compare(a.head, b.head);
+        return result != 0 ? result : Integer.compare(a.index, b.index);
+    }
+
+    /**
+     * The current head element of one input.
+     */
+    private static final class Cursor<T> implements Consumer<T> {
+        private final int index;
+        private final Spliterator<T> input;
+        private final Comparator<? super T> comparator;
+        private boolean hasHead;
+        private T head;
+        private T next;
+
+        Cursor(int index, Spliterator<T> input, Comparator<? super T> comparator) {
+            this.index = index;
+            this.input = input;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public void accept(T t) {
+            next = t;
+        }
+
+        /**
+         * Moves to the next element.
+         *
+         * @return false once the input is exhausted
+         */
+        boolean advance() {
+            boolean hadHead = hasHead;
+            T previous = head;
+            hasHead = input.tryAdvance(this);
+            head = next;
+            next = null;
+            if(hasHead && hadHead && comparator.compare(previous, head) > 0) {
+                throw new IllegalStateException("Input " + index + " is not sorted: " + previous + " comes before " + head);
+            }
+            return hasHead;
+        }
+
+        /**
+         * Moves past every element that compares below bound.
+         *
+         * @return false if the input is exhausted before reaching bound
+         */
+        boolean skipBelow(T bound) {
+            while(hasHead && comparator.compare(head, bound) < 0) {
+                advance();
+            }
+            return hasHead;
+        }
+
+        /**
+         * Moves past every element that compares below or equal to bound.
+         */
+        void skipBelowOrEqual(T bound) {
+            while(hasHead && comparator.compare(head, bound) <= 0) {
+                advance();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.scottshipp.code.mill.stream;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Settings for the operations of {@link StreamOps} that spill to disk when
+ * their input is too large to hold in memory, such as
+ * {@link StreamOps#distinctValues(SpillConfig, java.util.stream.Stream[])}.
+ *
+ * <pre>
+ *     {@code
+ *     SpillConfig<String> spill = SpillConfig.of(Serializer.strings())
+ *             .maxInMemory(5_000_000)
+ *             .directory(Paths.get("/mnt/scratch"));
+ *     Stream<String> unique = StreamOps.distinctValues(spill, keys);
+ *     }
+ * </pre>
+ *
+ * <p>The memory budget is a number of elements rather than bytes, since the
+ * size of an element on the heap cannot be measured. Once an operation holds
+ * more elements than that, it writes the rest of its input to temporary files
+ * in the directory, split by hash into partitions small enough to be handled
+ * in memory one at a time. A partition that is still too large is split again.
+ * The files are deleted as they are read, and any left over when the
+ * resulting stream is closed.</p>
+ *
+ * <p>A SpillConfig is immutable: each method returns a new one.</p>
+ *
+ * @param <T> the type of element spilled
+ */
+public final class SpillConfig<T> {
+
+    private static final long DEFAULT_MAX_IN_MEMORY = 1_000_000;
+    private static final int DEFAULT_PARTITIONS = 64;
+
+    private final Serializer<T> serializer;
+    private final long maxInMemory;
+    private final int partitions;
+    private final Path directory;
+
+    private SpillConfig(Serializer<T> serializer, long maxInMemory, int partitions, Path directory) {
+        this.serializer = serializer;
+        this.maxInMemory = maxInMemory;
+        this.partitions = partitions;
+        this.directory = directory;
+    }
+
+    /**
+     * Returns a SpillConfig holding up to a million elements in memory, and
+     * spilling to 64 partitions in the default temporary-file directory.
+     *
+     * @param serializer writes elements to disk and reads them back
+     * @param <T> the type of element spilled
+     * @return a new SpillConfig
+     */
+    public static <T> SpillConfig<T> of(Serializer<T> serializer) {
+        return new SpillConfig<>(Objects.requireNonNull(serializer, "serializer"), DEFAULT_MAX_IN_MEMORY, DEFAULT_PARTITIONS, null);
+    }
+
+    /**
+     * @param elements the most elements to hold in memory at once
+     * @return a copy of this SpillConfig with the given memory budget
+     * @throws IllegalArgumentException if elements is not positive
+     */
+    public SpillConfig<T> maxInMemory(long elements) {
+        if(elements < 1) {
+            throw new IllegalArgumentException("maxInMemory must be positive, but was " + elements);
+        }
+        return new SpillConfig<>(serializer, elements, partitions, directory);
+    }
+
+    /**
+     * @param count the number of files to split spilled input into, from 2 to 1024
+     * @return a copy of this SpillConfig with the given number of partitions
+     * @throws IllegalArgumentException if count is out of range
+     */
+    public SpillConfig<T> partitions(int count) {
+        if(count < 2 || count > 1024) {
+            throw new IllegalArgumentException("partitions must be from 2 to 1024, but was " + count);
+        }
+        return new SpillConfig<>(serializer, maxInMemory, count, directory);
+    }
+
+    /**
+     * @param directory where to create temporary files, or null for the
+     *                  default temporary-file directory
+     * @return a copy of this SpillConfig spilling to the given directory
+     */
+    public SpillConfig<T> directory(Path directory) {
+        return new SpillConfig<>(serializer, maxInMemory, partitions, directory);
+    }
+
+    Serializer<T> serializer() {
+        return serializer;
+    }
+
+    long maxInMemory() {
+        return maxInMemory;
+    }
+
+    int partitions() {
+        return partitions;
+    }
+
+    Path directory() {
+        return directory;
+    }
+}
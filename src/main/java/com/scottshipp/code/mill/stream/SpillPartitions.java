@@ -0,0 +1,218 @@
+package com.scottshipp.code.mill.stream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Writes elements to a set of temporary files, choosing the file for each
+ * element by its hash, for the operations that spill to disk under a
+ * {@link SpillConfig}. Equal elements always go to the same partition, so
+ * each partition can be processed on its own.
+ *
+ * <p>Each level of partitioning mixes a different salt into the hash, so that
+ * a partition too large to process in memory can be split again by the next
+ * level. Files are only created for partitions that receive elements.</p>
+ *
+ * @param <T> the type of element
+ */
+final class SpillPartitions<T> {
+
+    /**
+     * Past this many splits, a partition is handled in memory whatever its
+     * size, since elements whose hashCodes are equal can never be split apart.
+     */
+    static final int MAX_LEVEL = 8;
+
+    private static final int BUFFER_SIZE = 1 << 15;
+
+    private final SpillConfig<T> config;
+    private final int level;
+    private final Path[] files;
+    private final DataOutputStream[] outs;
+    private final long[] counts;
+
+    SpillPartitions(SpillConfig<T> config, int level) {
+        this.config = config;
+        this.level = level;
+        this.files = new Path[config.partitions()];
+        this.outs = new DataOutputStream[config.partitions()];
+        this.counts = new long[config.partitions()];
+    }
+
+    /**
+     * @return the partition value belongs to at the given level
+     */
+    static int partitionOf(Object value, int level, int partitions) {
+        int h = Objects.hashCode(value) ^ (level * 0x9E3779B9);
+        h = (h ^ (h >>> 16)) * 0x85EBCA6B;
+        h = (h ^ (h >>> 13)) * 0xC2B2AE35;
+        h ^= h >>> 16;
+        return (h & Integer.MAX_VALUE) % partitions;
+    }
+
+    void add(T value) {
+        int partition = partitionOf(value, level, files.length);
+        try {
+            if(outs[partition] == null) {
+                files[partition] = config.directory() == null
+                        ? Files.createTempFile("mill-spill-", ".bin")
+                        : Files.createTempFile(config.directory(), "mill-spill-", ".bin");
+                outs[partition] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(files[partition]), BUFFER_SIZE));
+            }
+            DataOutputStream out = outs[partition];
+            out.writeBoolean(value != null);
+            if(value != null) {
+                config.serializer().write(value, out);
+            }
+            counts[partition]++;
+        } catch(IOException e) {
+            delete();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes the files for writing.
+     *
+     * @return the file for each partition, or null for partitions holding no
+     * elements
+     */
+    SpillFile<T>[] finish() {
+        @SuppressWarnings("unchecked")
+        SpillFile<T>[] result = (SpillFile<T>[]) new SpillFile<?>[files.length];
+        try {
+            for(int i = 0; i < files.length; i++) {
+                if(outs[i] != null) {
+                    outs[i].close();
+                    outs[i] = null;
+                    result[i] = new SpillFile<>(files[i], counts[i], level, config.serializer());
+                }
+            }
+            return result;
+        } catch(IOException e) {
+            delete();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes and deletes every file, quietly, after a failure.
+     */
+    void delete() {
+        for(int i = 0; i < files.length; i++) {
+            try {
+                if(outs[i] != null) {
+                    outs[i].close();
+                }
+            } catch(IOException ignored) {
+                // deleting anyway
+            }
+            SpillFile.deleteQuietly(files[i]);
+        }
+    }
+
+    /**
+     * One partition, written and closed, to be read back once.
+     *
+     * @param <T> the type of element
+     */
+    static final class SpillFile<T> implements Closeable {
+        private final Path path;
+        private final long count;
+        private final int level;
+        private final Serializer<T> serializer;
+        private DataInputStream in;
+
+        SpillFile(Path path, long count, int level, Serializer<T> serializer) {
+            this.path = path;
+            this.count = count;
+            this.level = level;
+            this.serializer = serializer;
+        }
+
+        long count() {
+            return count;
+        }
+
+        /**
+         * @return the level that wrote this file; splitting it again takes the next
+         */
+        int level() {
+            return level;
+        }
+
+        /**
+         * Reads the elements back, in the order they were written. The file is
+         * deleted once the last element has been read.
+         */
+        Iterator<T> read() {
+            try {
+                in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+            } catch(IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+            return new Iterator<T>() {
+                private long remaining = count;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0;
+                }
+
+                @Override
+                public T next() {
+                    if(remaining <= 0) {
+                        throw new NoSuchElementException();
+                    }
+                    try {
+                        T value = in.readBoolean() ? serializer.read(in) : null;
+                        if(--remaining == 0) {
+                            close();
+                        }
+                        return value;
+                    } catch(IOException e) {
+                        close();
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+        }
+
+        /**
+         * Closes the file if it is being read, and deletes it.
+         */
+        @Override
+        public void close() {
+            try {
+                if(in != null) {
+                    in.close();
+                    in = null;
+                }
+            } catch(IOException ignored) {
+                // deleting anyway
+            }
+            deleteQuietly(path);
+        }
+
+        static void deleteQuietly(Path path) {
+            if(path != null) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch(IOException ignored) {
+                    // left for the operating system to clean up
+                }
+            }
+        }
+    }
+}
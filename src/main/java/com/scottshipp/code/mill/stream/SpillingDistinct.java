@@ -0,0 +1,130 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Distinct values within a memory budget, behind
+ * {@link StreamOps#distinctValues(SpillConfig, Stream[])}.
+ *
+ * <p>Elements are gathered into a set until it holds more than the budget.
+ * If the input ends first, the set is the result, in encounter order.
+ * Otherwise the set and the rest of the input are written to
+ * {@link SpillPartitions}, and each partition is then read back and made
+ * distinct in turn, being split again if it is still over budget. Equal
+ * elements always share a partition, so no element is emitted twice.</p>
+ *
+ * @param <T> the type of element
+ */
+final class SpillingDistinct<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final SpillConfig<T> config;
+    private final Spliterator<T> source;
+    private final Deque<SpillPartitions.SpillFile<T>> pending = new ArrayDeque<>();
+    private SpillPartitions.SpillFile<T> reading;
+    private Iterator<T> current;
+    private boolean closed;
+
+    private SpillingDistinct(SpillConfig<T> config, Spliterator<T> source) {
+        super(Long.MAX_VALUE, Spliterator.DISTINCT);
+        this.config = config;
+        this.source = source;
+    }
+
+    /**
+     * Returns a lazy stream of the distinct elements of source, holding at
+     * most config's budget of elements in memory.
+     *
+     * @param config the memory budget and where to spill
+     * @param source the elements
+     * @param closeHandler closes the inputs when the returned stream is closed
+     * @param <T> the type of element
+     * @return the distinct elements
+     */
+    static <T> Stream<T> stream(SpillConfig<T> config, Spliterator<T> source, Runnable closeHandler) {
+        SpillingDistinct<T> distinct = new SpillingDistinct<>(config, source);
+        return StreamSupport.stream(distinct, false)
+                .onClose(distinct::close)
+                .onClose(closeHandler);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while(!closed) {
+            if(current == null) {
+                current = distinct(Spliterators.iterator(source), 0);
+            } else if(current.hasNext()) {
+                action.accept(current.next());
+                return true;
+            } else if(!pending.isEmpty()) {
+                reading = pending.pop();
+                current = distinct(reading.read(), reading.level() + 1);
+                reading.close();
+                reading = null;
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes elements distinct in memory if they fit the budget, and returns
+     * them; otherwise spills them at the given level and returns nothing.
+     */
+    private Iterator<T> distinct(Iterator<T> elements, int level) {
+        Set<T> seen = level == 0 ? new LinkedHashSet<>() : new HashSet<>();
+        while(elements.hasNext()) {
+            seen.add(elements.next());
+            if(seen.size() > config.maxInMemory() && level < SpillPartitions.MAX_LEVEL) {
+                spill(seen, elements, level);
+                return Collections.emptyIterator();
+            }
+        }
+        return seen.iterator();
+    }
+
+    private void spill(Set<T> seen, Iterator<T> rest, int level) {
+        SpillPartitions<T> partitions = new SpillPartitions<>(config, level);
+        try {
+            for(T t : seen) {
+                partitions.add(t);
+            }
+            seen.clear();
+            while(rest.hasNext()) {
+                partitions.add(rest.next());
+            }
+        } catch(RuntimeException e) {
+            partitions.delete();
+            throw e;
+        }
+        for(SpillPartitions.SpillFile<T> file : partitions.finish()) {
+            if(file != null) {
+                pending.push(file);
+            }
+        }
+    }
+
+    /**
+     * Deletes every file not yet read.
+     */
+    void close() {
+        closed = true;
+        if(reading != null) {
+            reading.close();
+        }
+        while(!pending.isEmpty()) {
+            pending.pop().close();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.scottshipp.code.mill.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Intersection and difference within a memory budget, behind
+ * {@link StreamOps#intersection(SpillConfig, Stream[])} and
+ * {@link StreamOps#difference(SpillConfig, Stream[])}, in the manner of a
+ * hybrid grace hash join.
+ *
+ * <p>The first input, the build side, is gathered into a set. If it fits the
+ * budget, the operation runs in memory as {@link HashIntersection} and
+ * {@link HashDifference} do, emitting lazily from the last input in its
+ * encounter order. Otherwise the set, the rest of the build side and every
+ * other input are written to {@link SpillPartitions} at the same level, so
+ * that equal elements of all inputs land in partitions of the same number.
+ * Each group of partitions is then handled on its own in the same way, and is
+ * split again if its build side is still over budget.</p>
+ *
+ * <p>For an intersection the build side is the smallest input and the last
+ * input the largest; the inputs between narrow the set, so it only ever
+ * shrinks. For a difference the build side is every subtrahend, and the last
+ * input is the minuend. Each element emitted is added to the set to keep the
+ * output distinct, so the set grows as the minuend is read: when it passes
+ * the budget, the set is spilled as the build side of the rest of the
+ * minuend, which is correct since an element already emitted must be
+ * excluded from then on.</p>
+ *
+ * @param <T> the type of element
+ */
+final class SpillingSetOperation<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final SpillConfig<T> config;
+    private final boolean intersection;
+    private final Iterator<T>[] inputs;
+    private final Deque<SpillPartitions.SpillFile<T>[]> pending = new ArrayDeque<>();
+    private SpillPartitions.SpillFile<T>[] reading;
+    private int level;
+    private Set<T> set;
+    private Iterator<T> emitting;
+    private boolean started;
+    private boolean closed;
+
+    private SpillingSetOperation(SpillConfig<T> config, boolean intersection, Iterator<T>[] inputs) {
+        super(Long.MAX_VALUE, Spliterator.DISTINCT);
+        this.config = config;
+        this.intersection = intersection;
+        this.inputs = inputs;
+    }
+
+    /**
+     * Returns a lazy stream of the distinct elements found in every operand.
+     *
+     * @param config the memory budget and where to spill
+     * @param operands the inputs to intersect
+     * @param closeHandler closes the inputs when the returned stream is closed
+     * @param <T> the type of element
+     * @return the intersection
+     */
+    static <T> Stream<T> intersection(SpillConfig<T> config, List<SetOperand<T>> operands, Runnable closeHandler) {
+        if(operands.isEmpty()) {
+            return Stream.<T>empty().onClose(closeHandler);
+        }
+        if(operands.size() == 1) {
+            return SpillingDistinct.stream(config, operands.get(0).spliterator(), closeHandler);
+        }
+        List<SetOperand<T>> sorted = new ArrayList<>(operands);
+        sorted.sort(SetOperand.BY_SIZE);
+        @SuppressWarnings("unchecked")
+        Iterator<T>[] inputs = (Iterator<T>[]) new Iterator<?>[sorted.size()];
+        for(int i = 0; i < inputs.length; i++) {
+            inputs[i] = Spliterators.iterator(sorted.get(i).spliterator());
+        }
+        return stream(new SpillingSetOperation<>(config, true, inputs), closeHandler);
+    }
+
+    /**
+     * Returns a lazy stream of the distinct elements of the minuend that are
+     * in none of the subtrahends.
+     *
+     * @param config the memory budget and where to spill
+     * @param minuend the input to take elements from
+     * @param subtrahends the elements to exclude
+     * @param closeHandler closes the inputs when the returned stream is closed
+     * @param <T> the type of element
+     * @return the difference
+     */
+    static <T> Stream<T> difference(SpillConfig<T> config, Spliterator<T> minuend, Spliterator<T> subtrahends,
+                                    Runnable closeHandler) {
+        @SuppressWarnings("unchecked")
+        Iterator<T>[] inputs = (Iterator<T>[]) new Iterator<?>[] { Spliterators.iterator(subtrahends), Spliterators.iterator(minuend) };
+        return stream(new SpillingSetOperation<>(config, false, inputs), closeHandler);
+    }
+
+    private static <T> Stream<T> stream(SpillingSetOperation<T> operation, Runnable closeHandler) {
+        return StreamSupport.stream(operation, false)
+                .onClose(operation::close)
+                .onClose(closeHandler);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while(!closed) {
+            if(emitting != null) {
+                while(emitting.hasNext()) {
+                    T t = emitting.next();
+                    if(intersection ? set.remove(t) : set.add(t)) {
+                        if(set.size() > config.maxInMemory() && level < SpillPartitions.MAX_LEVEL) {
+                            spill(set, minuendOnly(emitting));
+                            finish();
+                        }
+                        action.accept(t);
+                        return true;
+                    }
+                    if(intersection && set.isEmpty()) {
+                        break;
+                    }
+                }
+                finish();
+            } else if(!started) {
+                started = true;
+                begin(inputs, 0);
+            } else if(!pending.isEmpty()) {
+                reading = pending.pop();
+                @SuppressWarnings("unchecked")
+                Iterator<T>[] files = (Iterator<T>[]) new Iterator<?>[reading.length];
+                int next = 0;
+                for(int i = 0; i < files.length; i++) {
+                    files[i] = reading[i] == null ? Collections.emptyIterator() : reading[i].read();
+                    if(reading[i] != null) {
+                        next = reading[i].level() + 1;
+                    }
+                }
+                begin(files, next);
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Builds the set from the first of inputs and narrows it by those between,
+     * ready to emit from the last; or, if the set is over budget, spills every
+     * input at the given level and leaves nothing to emit.
+     */
+    private void begin(Iterator<T>[] inputs, int level) {
+        this.level = level;
+        Set<T> built = new HashSet<>();
+        Iterator<T> build = inputs[0];
+        while(build.hasNext()) {
+            built.add(build.next());
+            if(built.size() > config.maxInMemory() && level < SpillPartitions.MAX_LEVEL) {
+                spill(built, inputs);
+                finish();
+                return;
+            }
+        }
+        for(int i = 1; i < inputs.length - 1 && !built.isEmpty(); i++) {
+            Set<T> found = new HashSet<>(HashIntersection.initialCapacity(built.size()));
+            Iterator<T> probe = inputs[i];
+            while(probe.hasNext()) {
+                T t = probe.next();
+                if(built.contains(t)) {
+                    found.add(t);
+                }
+            }
+            built = found;
+        }
+        set = built;
+        emitting = intersection && built.isEmpty() ? Collections.<T>emptyIterator() : inputs[inputs.length - 1];
+    }
+
+    /**
+     * Writes held and then the rest of the first input to the first set of
+     * partitions, and the rest of each other input to its own, and queues
+     * each group of partitions that can produce anything.
+     */
+    private void spill(Set<T> held, Iterator<T>[] inputs) {
+        @SuppressWarnings("unchecked")
+        SpillPartitions.SpillFile<T>[][] written = (SpillPartitions.SpillFile<T>[][]) new SpillPartitions.SpillFile<?>[inputs.length][];
+        try {
+            for(int i = 0; i < inputs.length; i++) {
+                SpillPartitions<T> partitions = new SpillPartitions<>(config, level);
+                try {
+                    if(i == 0) {
+                        for(T t : held) {
+                            partitions.add(t);
+                        }
+                        held.clear();
+                    }
+                    while(inputs[i].hasNext()) {
+                        partitions.add(inputs[i].next());
+                    }
+                } catch(RuntimeException e) {
+                    partitions.delete();
+                    throw e;
+                }
+                written[i] = partitions.finish();
+            }
+        } catch(RuntimeException e) {
+            for(SpillPartitions.SpillFile<T>[] files : written) {
+                closeAll(files);
+            }
+            throw e;
+        }
+        for(int p = 0; p < config.partitions(); p++) {
+            @SuppressWarnings("unchecked")
+            SpillPartitions.SpillFile<T>[] group = (SpillPartitions.SpillFile<T>[]) new SpillPartitions.SpillFile<?>[inputs.length];
+            boolean productive = true;
+            for(int i = 0; i < inputs.length; i++) {
+                group[i] = written[i][p];
+                productive &= group[i] != null || (!intersection && i == 0);
+            }
+            if(productive) {
+                pending.push(group);
+            } else {
+                closeAll(group);
+            }
+        }
+    }
+
+    /**
+     * @return inputs for a difference whose exclusions are all held in the set
+     */
+    private static <T> Iterator<T>[] minuendOnly(Iterator<T> minuend) {
+        @SuppressWarnings("unchecked")
+        Iterator<T>[] inputs = (Iterator<T>[]) new Iterator<?>[] { Collections.emptyIterator(), minuend };
+        return inputs;
+    }
+
+    /**
+     * Drops the set and deletes the files of the group just handled.
+     */
+    private void finish() {
+        set = null;
+        emitting = null;
+        closeAll(reading);
+        reading = null;
+    }
+
+    private static void closeAll(SpillPartitions.SpillFile<?>[] files) {
+        if(files != null) {
+            for(SpillPartitions.SpillFile<?> file : files) {
+                if(file != null) {
+                    file.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes every file not yet read.
+     */
+    void close() {
+        closed = true;
+        finish();
+        while(!pending.isEmpty()) {
+            closeAll(pending.pop());
+        }
+    }
+}
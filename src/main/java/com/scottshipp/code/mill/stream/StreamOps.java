@@ -1,14 +1,21 @@
 package com.scottshipp.code.mill.stream;
 
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
+import java.util.stream.BaseStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Provides common operations that apply to multiple Streams, Collections, or
@@ -19,53 +26,214 @@ public final class StreamOps {
 
     /**
      * Concatenates any number of streams together into one new stream.
+     *
+     * <p>The result knows its exact size when every stream does, is parallel
+     * when any of the streams is parallel, and splits for parallel execution
+     * evenly across the streams. Closing the result closes every stream.</p>
+     *
      * @param streams An array of streams of homogenous type
      * @param <T> All elements in all streams are instances of this single type
      * @return A new stream formed from the concatenation of all streams in the array
      */
     @SafeVarargs
     public static <T> java.util.stream.Stream<T> concat(java.util.stream.Stream<T>... streams) {
-        return java.util.stream.Stream.of(streams).flatMap(stream -> stream);
+        List<Stream<T>> inputs = new ArrayList<>(streams.length);
+        for(Stream<T> stream : streams) {
+            inputs.add(stream);
+        }
+        return concatStreams(inputs);
+    }
+
+    /**
+     * Takes the streams as a list, which concat and distinctValues copy their
+     * arguments into, so that the generic varargs array never escapes.
+     */
+    private static <T> Stream<T> concatStreams(List<Stream<T>> streams) {
+        @SuppressWarnings("unchecked")
+        Spliterator<T>[] parts = (Spliterator<T>[]) new Spliterator<?>[streams.size()];
+        boolean parallel = false;
+        for(int i = 0; i < parts.length; i++) {
+            parts[i] = streams.get(i).spliterator();
+            parallel |= streams.get(i).isParallel();
+        }
+        return StreamSupport.stream(MoreSpliterators.concat(parts), parallel).onClose(closeAll(streams));
     }
 
     /**
      * Concatenates any number of collections together into a new stream.
+     *
+     * <p>The result knows its exact size when every collection does, and
+     * splits for parallel execution evenly across the collections.</p>
+     *
      * @param collections An array of collections of homogenous type
      * @param <T> All elements in all collections are instances of this single type
      * @return A new stream formed from the concatenation of all collections in the array
      */
     @SafeVarargs
     public static <T> java.util.stream.Stream<T> concat(Collection<T>... collections) {
-        return Arrays.stream(collections).map(c -> c.stream()).flatMap(stream -> stream);
+        @SuppressWarnings("unchecked")
+        Spliterator<T>[] parts = (Spliterator<T>[]) new Spliterator<?>[collections.length];
+        for(int i = 0; i < collections.length; i++) {
+            parts[i] = collections[i].spliterator();
+        }
+        return StreamSupport.stream(MoreSpliterators.concat(parts), false);
     }
 
     /**
      * Concatenates any number of arrays together into a new stream.
+     *
+     * <p>The result knows its exact size, and splits for parallel execution
+     * evenly across the arrays.</p>
+     *
      * @param arrays An array of arrays of homogenous type
      * @param <T> All elements in all arrays are instances of this single type
      * @return A new stream formed from the concatenation of all arrays in the array
      */
     @SafeVarargs
     public static <T> java.util.stream.Stream<T> concat(T[]... arrays) {
-        return Arrays.stream(arrays).flatMap(a -> Arrays.stream(a));
+        @SuppressWarnings("unchecked")
+        Spliterator<T>[] parts = (Spliterator<T>[]) new Spliterator<?>[arrays.length];
+        for(int i = 0; i < arrays.length; i++) {
+            parts[i] = Arrays.spliterator(arrays[i]);
+        }
+        return StreamSupport.stream(MoreSpliterators.concat(parts), false);
     }
 
     /**
      * Given any number of streams, returns distinct values such that the set of
      * elements in the returned stream each exist in all of the passed streams.
      *
+     * <p>Only the smallest stream (by known size) is collected into a set,
+     * which then shrinks as each further stream is probed against it. The
+     * largest stream is not collected at all: its matching elements are
+     * emitted lazily, in its encounter order. Nothing is read from any stream
+     * until a terminal operation runs on the returned stream.</p>
+     *
      * @param streams An array of streams
      * @param <T> All elements in all streams are instances of this single type
      * @return distinct values of all passed streams such that the set of elements
      * in the returned stream each exist in all of the passed streams
      */
+    @SafeVarargs
     public static <T> Stream<T> intersection(Stream<T>... streams) {
-        return Stream.of(streams).reduce(StreamOps::intersection).orElseGet(Stream::empty);
+        List<SetOperand<T>> operands = new ArrayList<>(streams.length);
+        List<Stream<T>> toClose = new ArrayList<>(streams.length);
+        for(Stream<T> stream : streams) {
+            operands.add(SetOperand.of(stream));
+            toClose.add(stream);
+        }
+        return HashIntersection.stream(operands, closeAll(toClose));
     }
 
-    private static <T> Stream<T> intersection(Stream<T> stream1, Stream<T> stream2) {
-        Set<T> set1 = stream1.distinct().collect(Collectors.toSet());
-        return stream2.filter(set1::contains);
+    /**
+     * Given any number of streams, returns distinct values such that the set of
+     * elements in the returned stream each exist in all of the passed streams,
+     * holding no more than a budget of elements in memory.
+     *
+     * <p>While the smallest stream (by known size) has few enough distinct
+     * values to fit the budget of config, this is the same as
+     * {@link #intersection(Stream[])}, and the result is in the encounter
+     * order of the largest stream. Beyond that, every stream is written with
+     * config's serializer to temporary files, split by hash into the same
+     * partitions, and each partition is then intersected on its own. The
+     * result is then in no particular order, and nothing is emitted until
+     * every stream has been read. The files are deleted as they are read, or
+     * when the returned stream is closed.</p>
+     *
+     * <pre>
+     *     {@code
+     *     SpillConfig<String> spill = SpillConfig.of(Serializer.strings()).maxInMemory(20_000_000);
+     *     try(Stream<String> inBoth = StreamOps.intersection(spill, ledgerExport, bankExport)) {
+     *         inBoth.forEach(reconciled::add);
+     *     }
+     *     }
+     * </pre>
+     *
+     * <p>An IOException while spilling is rethrown as an UncheckedIOException.</p>
+     *
+     * @param config the memory budget, serializer and directory to spill to
+     * @param streams An array of streams
+     * @param <T> All elements in all streams are instances of this single type
+     * @return distinct values of all passed streams such that the set of elements
+     * in the returned stream each exist in all of the passed streams
+     */
+    @SafeVarargs
+    public static <T> Stream<T> intersection(SpillConfig<T> config, Stream<T>... streams) {
+        Objects.requireNonNull(config, "config");
+        List<SetOperand<T>> operands = new ArrayList<>(streams.length);
+        List<Stream<T>> toClose = new ArrayList<>(streams.length);
+        for(Stream<T> stream : streams) {
+            operands.add(SetOperand.of(stream));
+            toClose.add(stream);
+        }
+        return SpillingSetOperation.intersection(config, operands, closeAll(toClose));
+    }
+
+    /**
+     * Given any number of collections, returns distinct values such that the
+     * set of elements in the returned stream each exist in all of the passed
+     * collections.
+     *
+     * <p>Any collection which is a {@link Set} is used as it is, through
+     * {@link Set#contains(Object)}, and is never copied. If all of the
+     * collections are sets, the smallest one is streamed and no new set is
+     * built. Otherwise the collections are intersected as described in
+     * {@link #intersection(Stream[])}, using their sizes to pick the smallest
+     * one to collect.</p>
+     *
+     * <p>The collections are passed together in one collection, rather than
+     * as varargs, so that a call to {@code intersection()} with no arguments
+     * still resolves to {@link #intersection(Stream[])}.</p>
+     *
+     * <pre>
+     *     {@code
+     *     Stream<String> onCallAdmins = StreamOps.intersection(Arrays.asList(admins, onCall, engineers));
+     *     }
+     * </pre>
+     *
+     * @param collections the collections to intersect
+     * @param <T> All elements in all collections are instances of this single type
+     * @return distinct values of all passed collections such that the set of
+     * elements in the returned stream each exist in all of the passed collections
+     */
+    public static <T> Stream<T> intersection(Collection<? extends Collection<T>> collections) {
+        List<SetOperand<T>> operands = new ArrayList<>(collections.size());
+        for(Collection<T> collection : collections) {
+            operands.add(SetOperand.of(collection));
+        }
+        return HashIntersection.stream(operands, () -> { });
+    }
+
+    /**
+     * Returns the distinct elements of stream which are in set, lazily and in
+     * the encounter order of stream.
+     *
+     * <p>The set is probed as it is, and is never copied. Its Bloom filter
+     * rejects most elements that are not in it with a single memory access,
+     * which makes this much faster than {@link #intersection(Stream[])} when
+     * few elements of stream match. Only the matches are held in memory, to
+     * keep the output distinct. The counts kept by set show how well the
+     * filter did.</p>
+     *
+     * <pre>
+     *     {@code
+     *     BloomScreenedSet<String> flagged = BloomScreenedSet.of(fraudList, 0.01);
+     *     List<String> matched = StreamOps.intersection(flagged, cardNumbers).collect(Collectors.toList());
+     *     log.info("{} matched, {} of {} misses got past the filter",
+     *             flagged.hits(), flagged.falsePositives(), flagged.probes() - flagged.hits());
+     *     }
+     * </pre>
+     *
+     * @param set the set to probe
+     * @param stream the elements to look for
+     * @param <T> All elements in the set and the stream are instances of this single type
+     * @return distinct values of stream which are in set
+     */
+    public static <T> Stream<T> intersection(BloomScreenedSet<T> set, Stream<T> stream) {
+        List<SetOperand<T>> operands = new ArrayList<>(2);
+        operands.add(SetOperand.of(set));
+        operands.add(SetOperand.of(stream));
+        return HashIntersection.stream(operands, stream::close);
     }
 
     /**
@@ -74,8 +242,56 @@ public final class StreamOps {
      * @param <T> All elements in all streams are instances of this single type
      * @return a new stream containing all distinct values from all passed streams
      */
+    @SafeVarargs
     public static <T> Stream<T> distinctValues(Stream<T>... streams) {
-        return concat(streams).distinct();
+        List<Stream<T>> inputs = new ArrayList<>(streams.length);
+        for(Stream<T> stream : streams) {
+            inputs.add(stream);
+        }
+        return concatStreams(inputs).distinct();
+    }
+
+    /**
+     * Returns a new stream containing all distinct values from all passed
+     * streams, holding no more than a budget of elements in memory.
+     *
+     * <p>While the distinct values fit the budget of config, this is the same
+     * as {@link #distinctValues(Stream[])}, and the result is in encounter
+     * order. Beyond that, the values are written with config's serializer to
+     * temporary files, split by hash into partitions which are then read back
+     * and made distinct one at a time. The result is then in no particular
+     * order, and nothing is emitted until every stream has been read. The
+     * files are deleted as they are read, or when the returned stream is
+     * closed, so close it (for example with try-with-resources) if it may not
+     * be read to the end.</p>
+     *
+     * <pre>
+     *     {@code
+     *     SpillConfig<String> spill = SpillConfig.of(Serializer.strings()).maxInMemory(10_000_000);
+     *     try(Stream<String> unique = StreamOps.distinctValues(spill, todaysKeys, yesterdaysKeys)) {
+     *         unique.forEach(writer::write);
+     *     }
+     *     }
+     * </pre>
+     *
+     * <p>An IOException while spilling is rethrown as an UncheckedIOException.</p>
+     *
+     * @param config the memory budget, serializer and directory to spill to
+     * @param streams An array of streams of homogenous type
+     * @param <T> All elements in all streams are instances of this single type
+     * @return a new stream containing all distinct values from all passed streams
+     */
+    @SafeVarargs
+    public static <T> Stream<T> distinctValues(SpillConfig<T> config, Stream<T>... streams) {
+        Objects.requireNonNull(config, "config");
+        @SuppressWarnings("unchecked")
+        Spliterator<T>[] parts = (Spliterator<T>[]) new Spliterator<?>[streams.length];
+        List<Stream<T>> toClose = new ArrayList<>(streams.length);
+        for(int i = 0; i < streams.length; i++) {
+            parts[i] = streams[i].spliterator();
+            toClose.add(streams[i]);
+        }
+        return SpillingDistinct.stream(config, MoreSpliterators.concat(parts), closeAll(toClose));
     }
 
     /**
@@ -83,25 +299,449 @@ public final class StreamOps {
      * elements in the returned stream are those distinct elements of the first
      * stream that are not contained in any of the subsequent passed streams.
      *
+     * <p>All of the subsequent streams are read, in a single pass, into one
+     * set of exclusions. The first stream is then filtered lazily, in its
+     * encounter order. Nothing is read from any stream until a terminal
+     * operation runs on the returned stream.</p>
+     *
      * @param streams An array of streams
      * @param <T> All elements in all streams are instances of this single type
      * @return distinct values of the first stream such that the set of elements
      * in the returned stream are not contained in any of the subsequent passed streams
      */
+    @SafeVarargs
     public static <T> Stream<T> difference(Stream<T>... streams) {
         if(streams.length < 1) {
             return Stream.empty();
-        } else if(streams.length < 2) {
-            return streams[0];
+        }
+        List<SetOperand<T>> subtrahends = new ArrayList<>(streams.length - 1);
+        List<Stream<T>> toClose = new ArrayList<>(streams.length);
+        toClose.add(streams[0]);
+        for(int i = 1; i < streams.length; i++) {
+            subtrahends.add(SetOperand.of(streams[i]));
+            toClose.add(streams[i]);
+        }
+        return HashDifference.stream(SetOperand.of(streams[0]), subtrahends, closeAll(toClose));
+    }
+
+    /**
+     * Given any number of streams, returns distinct values such that the set of
+     * elements in the returned stream are those distinct elements of the first
+     * stream that are not contained in any of the subsequent passed streams,
+     * holding no more than a budget of elements in memory.
+     *
+     * <p>While the subsequent streams, together with the elements emitted so
+     * far, have few enough distinct values to fit the budget of config, this
+     * is the same as {@link #difference(Stream[])}, and the result is in the
+     * encounter order of the first stream. Beyond that, the exclusions and the
+     * rest of the first stream are written with config's serializer to
+     * temporary files, split by hash into the same partitions, and each
+     * partition is then handled on its own, in no particular order. The files
+     * are deleted as they are read, or when the returned stream is closed.</p>
+     *
+     * <p>An IOException while spilling is rethrown as an UncheckedIOException.</p>
+     *
+     * @param config the memory budget, serializer and directory to spill to
+     * @param streams An array of streams
+     * @param <T> All elements in all streams are instances of this single type
+     * @return distinct values of the first stream such that the set of elements
+     * in the returned stream are not contained in any of the subsequent passed streams
+     */
+    @SafeVarargs
+    public static <T> Stream<T> difference(SpillConfig<T> config, Stream<T>... streams) {
+        Objects.requireNonNull(config, "config");
+        if(streams.length < 1) {
+            return Stream.empty();
+        }
+        @SuppressWarnings("unchecked")
+        Spliterator<T>[] subtrahends = (Spliterator<T>[]) new Spliterator<?>[streams.length - 1];
+        List<Stream<T>> toClose = new ArrayList<>(streams.length);
+        toClose.add(streams[0]);
+        for(int i = 1; i < streams.length; i++) {
+            subtrahends[i - 1] = streams[i].spliterator();
+            toClose.add(streams[i]);
+        }
+        return SpillingSetOperation.difference(config, streams[0].spliterator(),
+                MoreSpliterators.concat(subtrahends), closeAll(toClose));
+    }
+
+    /**
+     * Given any number of collections, returns distinct values such that the
+     * set of elements in the returned stream are those distinct elements of the
+     * first collection that are not contained in any of the subsequent passed
+     * collections.
+     *
+     * <p>Any subsequent collection which is a {@link Set} is used as it is,
+     * through {@link Set#contains(Object)}, and is never copied.</p>
+     *
+     * <p>The collections are passed together in one list, rather than as
+     * varargs, so that a call to {@code difference()} with no arguments still
+     * resolves to {@link #difference(Stream[])}.</p>
+     *
+     * <pre>
+     *     {@code
+     *     Stream<String> employees = StreamOps.difference(Arrays.asList(staff, contractors, managers));
+     *     }
+     * </pre>
+     *
+     * @param collections the collection to take elements from, followed by the
+     *                    collections whose elements are excluded
+     * @param <T> All elements in all collections are instances of this single type
+     * @return distinct values of the first collection such that the set of elements
+     * in the returned stream are not contained in any of the subsequent passed collections
+     */
+    public static <T> Stream<T> difference(List<? extends Collection<T>> collections) {
+        if(collections.isEmpty()) {
+            return Stream.empty();
+        }
+        List<SetOperand<T>> subtrahends = new ArrayList<>(collections.size() - 1);
+        for(Collection<T> collection : collections.subList(1, collections.size())) {
+            subtrahends.add(SetOperand.of(collection));
+        }
+        return HashDifference.stream(SetOperand.of(collections.get(0)), subtrahends, () -> { });
+    }
+
+    /**
+     * Returns distinct values of stream that are not contained in the stream
+     * of exclusions, for exclusions too large to hold in memory.
+     *
+     * <p>Instead of a set of exclusions, only a Bloom filter sized by
+     * expectedExclusions and falsePositiveRate is kept in memory. Elements
+     * the filter rules out are emitted as they are read, in encounter order.
+     * The few that it cannot rule out (real exclusions plus false positives)
+     * are held back until stream is exhausted, verified exactly against a
+     * second pass over the exclusions, and the survivors are emitted last.</p>
+     *
+     * <p>Because of the second pass, exclusions is a supplier, and it must
+     * return a stream of the same elements each time it is called. Memory
+     * use is the filter plus the distinct elements of stream.</p>
+     *
+     * <p>Strings and boxed numbers are hashed from their contents. Other
+     * elements are hashed from their 32-bit hashCode(), so an element whose
+     * hashCode equals that of an exclusion always gets past the filter, and
+     * the real false positive rate is at least about expectedExclusions /
+     * 2<sup>32</sup>, whatever falsePositiveRate is.</p>
+     *
+     * <pre>
+     *     {@code
+     *     Stream<String> active = StreamOps.difference(
+     *             accounts.stream(),
+     *             () -> closedAccountsTable.streamAll(),
+     *             200_000_000L,
+     *             0.01);
+     *     }
+     * </pre>
+     *
+     * @param stream the stream to take elements from
+     * @param exclusions supplies a stream of the elements to exclude
+     * @param expectedExclusions roughly how many distinct elements the exclusions contain
+     * @param falsePositiveRate the rate, between 0 and 1, at which elements are
+     *                          held back for exact verification even though they
+     *                          are not excluded
+     * @param <T> All elements in both streams are instances of this single type
+     * @return distinct values of stream that are not contained in the exclusions
+     */
+    public static <T> Stream<T> difference(Stream<T> stream, Supplier<Stream<T>> exclusions,
+                                           long expectedExclusions, double falsePositiveRate) {
+        return HashDifference.screened(stream, exclusions, expectedExclusions, falsePositiveRate);
+    }
+
+    /**
+     * Given any number of streams, each already sorted by comparator, returns
+     * distinct values such that the set of elements in the returned stream each
+     * exist in all of the passed streams.
+     *
+     * <p>This is the sorted counterpart of {@link #intersection(Stream[])}.
+     * Instead of hashing, it walks all of the streams together in a single
+     * merge pass, holding only the current element of each one. The result is
+     * sorted by comparator and is produced lazily. If any stream turns out not
+     * to be sorted by comparator, an IllegalStateException is thrown.</p>
+     *
+     * <pre>
+     *     {@code
+     *     // both cursors come back ordered by id
+     *     Stream<Long> paidAndShipped = StreamOps.sortedIntersection(Comparator.naturalOrder(), paidIds, shippedIds);
+     *     }
+     * </pre>
+     *
+     * @param comparator the comparator every stream is sorted by
+     * @param streams An array of streams, each sorted by comparator
+     * @param <T> All elements in all streams are instances of this single type
+     * @return distinct values of all passed streams such that the set of elements
+     * in the returned stream each exist in all of the passed streams, sorted by comparator
+     */
+    @SafeVarargs
+    public static <T> Stream<T> sortedIntersection(Comparator<? super T> comparator, Stream<T>... streams) {
+        List<Stream<T>> inputs = new ArrayList<>(streams.length);
+        for(Stream<T> stream : streams) {
+            inputs.add(stream);
+        }
+        return sortedMerge(SortedMergeSpliterator.Operation.INTERSECTION, comparator, inputs);
+    }
+
+    /**
+     * Given any number of streams, each already sorted by comparator, returns
+     * distinct values such that the set of elements in the returned stream are
+     * those distinct elements of the first stream that are not contained in any
+     * of the subsequent passed streams.
+     *
+     * <p>This is the sorted counterpart of {@link #difference(Stream[])}. It
+     * walks all of the streams together in a single merge pass, holding only
+     * the current element of each one, and never hashes. The result is sorted
+     * by comparator and is produced lazily. If any stream turns out not to be
+     * sorted by comparator, an IllegalStateException is thrown.</p>
+     *
+     * @param comparator the comparator every stream is sorted by
+     * @param streams An array of streams, each sorted by comparator
+     * @param <T> All elements in all streams are instances of this single type
+     * @return distinct values of the first stream such that the set of elements
+     * in the returned stream are not contained in any of the subsequent passed
+     * streams, sorted by comparator
+     */
+    @SafeVarargs
+    public static <T> Stream<T> sortedDifference(Comparator<? super T> comparator, Stream<T>... streams) {
+        List<Stream<T>> inputs = new ArrayList<>(streams.length);
+        for(Stream<T> stream : streams) {
+            inputs.add(stream);
+        }
+        return sortedMerge(SortedMergeSpliterator.Operation.DIFFERENCE, comparator, inputs);
+    }
+
+    /**
+     * Merges any number of streams, each already sorted by comparator, into
+     * one sorted stream containing every element of every stream, duplicates
+     * included. This is {@link #concat(Stream[])} for sorted streams: it keeps
+     * the result sorted without sorting it again. Use
+     * {@link #sortedDistinct(Comparator, Stream[])} to drop duplicates as well.
+     *
+     * <p>If any stream turns out not to be sorted by comparator, an
+     * IllegalStateException is thrown.</p>
+     *
+     * @param comparator the comparator every stream is sorted by
+     * @param streams An array of streams, each sorted by comparator
+     * @param <T> All elements in all streams are instances of this single type
+     * @return every element of every passed stream, sorted by comparator
+     */
+    @SafeVarargs
+    public static <T> Stream<T> sortedUnion(Comparator<? super T> comparator, Stream<T>... streams) {
+        List<Stream<T>> inputs = new ArrayList<>(streams.length);
+        for(Stream<T> stream : streams) {
+            inputs.add(stream);
+        }
+        return sortedMerge(SortedMergeSpliterator.Operation.UNION, comparator, inputs);
+    }
+
+    /**
+     * Returns a new stream containing all distinct values from any number of
+     * streams, each already sorted by comparator.
+     *
+     * <p>This is the sorted counterpart of {@link #distinctValues(Stream[])}.
+     * Duplicates are adjacent once the streams are merged, so they are dropped
+     * by comparing each element with the one before it, without a set. The
+     * result is sorted by comparator and is produced lazily. If any stream
+     * turns out not to be sorted by comparator, an IllegalStateException is
+     * thrown.</p>
+     *
+     * @param comparator the comparator every stream is sorted by
+     * @param streams An array of streams, each sorted by comparator
+     * @param <T> All elements in all streams are instances of this single type
+     * @return all distinct values from all passed streams, sorted by comparator
+     */
+    @SafeVarargs
+    public static <T> Stream<T> sortedDistinct(Comparator<? super T> comparator, Stream<T>... streams) {
+        List<Stream<T>> inputs = new ArrayList<>(streams.length);
+        for(Stream<T> stream : streams) {
+            inputs.add(stream);
+        }
+        return sortedMerge(SortedMergeSpliterator.Operation.DISTINCT, comparator, inputs);
+    }
+
+    /**
+     * Returns the elements of a list sorted by comparator that lie between low
+     * and high, inclusive, without testing every element.
+     *
+     * <p>The bounds of the range are found with a binary search when the list
+     * is {@link RandomAccess}, such as an ArrayList, so only O(log n) elements
+     * are compared; other lists are walked from the start to the end of the
+     * range. The result streams a {@link List#subList(int, int) subList} view of
+     * the list, in order. A range with low above high is empty.</p>
+     *
+     * <pre>
+     *     {@code
+     *     // events is sorted by timestamp
+     *     Stream<Event> lastHour = StreamOps.rangeOf(events, Comparator.comparing(Event::timestamp),
+     *             Event.at(now.minus(1, ChronoUnit.HOURS)), Event.at(now));
+     *     }
+     * </pre>
+     *
+     * @param sorted a list sorted by comparator
+     * @param comparator the comparator the list is sorted by
+     * @param low the lowest element to include
+     * @param high the highest element to include
+     * @param <T> the type of element in the list
+     * @return the elements of the list from low to high, inclusive
+     */
+    public static <T> Stream<T> rangeOf(List<T> sorted, Comparator<? super T> comparator, T low, T high) {
+        return slice(sorted, comparator, low, true, high, true).stream();
+    }
+
+    /**
+     * Returns the elements of a sorted list of Comparable elements that lie
+     * between low and high, inclusive, without testing every element.
+     *
+     * @param sorted a list sorted in natural order
+     * @param low the lowest element to include
+     * @param high the highest element to include
+     * @param <T> the type of element in the list
+     * @return the elements of the list from low to high, inclusive
+     * @see #rangeOf(List, Comparator, Object, Object)
+     */
+    public static <T extends Comparable<? super T>> Stream<T> rangeOf(List<T> sorted, T low, T high) {
+        return rangeOf(sorted, Comparator.naturalOrder(), low, high);
+    }
+
+    /**
+     * Returns the elements of an array sorted by comparator that lie between
+     * low and high, inclusive, found by binary search without testing every
+     * element. A range with low above high is empty.
+     *
+     * @param sorted an array sorted by comparator
+     * @param comparator the comparator the array is sorted by
+     * @param low the lowest element to include
+     * @param high the highest element to include
+     * @param <T> the type of element in the array
+     * @return the elements of the array from low to high, inclusive
+     */
+    public static <T> Stream<T> rangeOf(T[] sorted, Comparator<? super T> comparator, T low, T high) {
+        return slice(sorted, comparator, low, true, high, true);
+    }
+
+    /**
+     * Returns the elements of a sorted set that lie between low and high,
+     * inclusive, using the set's own {@link NavigableSet#subSet(Object, boolean, Object, boolean) subSet}
+     * view. A range with low above high is empty.
+     *
+     * @param sorted a sorted set, such as a TreeSet
+     * @param low the lowest element to include
+     * @param high the highest element to include
+     * @param <T> the type of element in the set
+     * @return the elements of the set from low to high, inclusive
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Stream<T> rangeOf(NavigableSet<T> sorted, T low, T high) {
+        Comparator<? super T> comparator = sorted.comparator();
+        int c = comparator == null ? ((Comparable<? super T>) low).compareTo(high) : comparator.compare(low, high);
+        if(c > 0) {
+            return Stream.empty();
+        }
+        return sorted.subSet(low, true, high, true).stream();
+    }
+
+    /**
+     * Returns the view of a sorted list between low and high, with each bound
+     * included or not.
+     */
+    static <T> List<T> slice(List<T> sorted, Comparator<? super T> comparator,
+                             T low, boolean lowInclusive, T high, boolean highInclusive) {
+        Objects.requireNonNull(comparator, "comparator");
+        int from;
+        int to;
+        if(sorted instanceof RandomAccess) {
+            from = firstAbove(sorted, comparator, low, lowInclusive, 0);
+            to = firstAbove(sorted, comparator, high, !highInclusive, from);
         } else {
-            return difference(streams[0], concat(Arrays.copyOfRange(streams, 1, streams.length - 1)));
+            from = -1;
+            to = sorted.size();
+            int index = 0;
+            for(T element : sorted) {
+                if(from < 0 && isAbove(comparator, low, lowInclusive, element)) {
+                    from = index;
+                }
+                if(from >= 0 && isAbove(comparator, high, !highInclusive, element)) {
+                    to = index;
+                    break;
+                }
+                index++;
+            }
+            from = from < 0 ? sorted.size() : from;
+        }
+        return sorted.subList(from, Math.max(from, to));
+    }
+
+    /**
+     * Returns the stream of a sorted array between low and high, with each
+     * bound included or not.
+     */
+    static <T> Stream<T> slice(T[] sorted, Comparator<? super T> comparator,
+                               T low, boolean lowInclusive, T high, boolean highInclusive) {
+        Objects.requireNonNull(comparator, "comparator");
+        List<T> view = Arrays.asList(sorted);
+        int from = firstAbove(view, comparator, low, lowInclusive, 0);
+        int to = firstAbove(view, comparator, high, !highInclusive, from);
+        return Arrays.stream(sorted, from, Math.max(from, to));
+    }
+
+    /**
+     * Binary searches a RandomAccess list, from index from, for the first
+     * element above bound, or equal to it when orEqual is true.
+     */
+    private static <T> int firstAbove(List<T> sorted, Comparator<? super T> comparator, T bound, boolean orEqual, int from) {
+        int lo = from;
+        int hi = sorted.size();
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(isAbove(comparator, bound, orEqual, sorted.get(mid))) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private static <T> boolean isAbove(Comparator<? super T> comparator, T bound, boolean orEqual, T element) {
+        int c = comparator.compare(element, bound);
+        return c > 0 || (c == 0 && orEqual);
+    }
+
+    /**
+     * Takes the streams as a list, which the public varargs methods copy
+     * their arguments into, so that the generic varargs array never escapes.
+     */
+    private static <T> Stream<T> sortedMerge(SortedMergeSpliterator.Operation operation,
+                                             Comparator<? super T> comparator, List<Stream<T>> streams) {
+        Objects.requireNonNull(comparator, "comparator");
+        @SuppressWarnings("unchecked")
+        Spliterator<T>[] inputs = (Spliterator<T>[]) new Spliterator<?>[streams.size()];
+        for(int i = 0; i < inputs.length; i++) {
+            inputs[i] = streams.get(i).spliterator();
         }
+        return StreamSupport.stream(new SortedMergeSpliterator<>(operation, comparator, inputs), false)
+                .onClose(closeAll(streams));
     }
 
-    private static <T> Stream<T> difference(Stream<T> stream1, Stream<T> stream2) {
-        Set<T> set2 = stream2.distinct().collect(Collectors.toSet());
-        Predicate<T> notContainedInStream2 = ((Predicate<T>)set2::contains).negate();
-        return stream1.filter(notContainedInStream2);
+    /**
+     * Returns a close handler which closes every one of the given streams.
+     */
+    static Runnable closeAll(BaseStream<?, ?>[] streams) {
+        BaseStream<?, ?>[] toClose = streams.clone();
+        return () -> {
+            for(BaseStream<?, ?> stream : toClose) {
+                stream.close();
+            }
+        };
+    }
+
+    /**
+     * Returns a close handler which closes every one of the given streams.
+     */
+    static Runnable closeAll(List<? extends BaseStream<?, ?>> streams) {
+        List<BaseStream<?, ?>> toClose = new ArrayList<>(streams);
+        return () -> {
+            for(BaseStream<?, ?> stream : toClose) {
+                stream.close();
+            }
+        };
     }
 
     public static <T> Stream<T> nonNullStream(Collection<T> collection) {
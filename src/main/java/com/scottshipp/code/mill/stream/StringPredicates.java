@@ -1,7 +1,9 @@
 package com.scottshipp.code.mill.stream;
 
+import java.util.Collection;
 import java.util.Objects;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 /**
  * Predicates to use with Streams of StringPredicates. Some of these seem pointless
@@ -147,14 +149,83 @@ public final class StringPredicates {
 
     /**
      * A predicate that tells whether or not a given string matches the given regular expression.
+     * The regular expression is compiled once, when the predicate is created, and compiled
+     * patterns are shared through a bounded cache keyed by the regex and its flags.
+     *
      * @param regex the regular expression to which this string is to be matched
      * @return a predicate that tells whether or not a given string matches the given regular expression
      * @see String#matches(String)
      */
     public static Predicate<String> matches(String regex) {
-        return s -> (s != null) ? s.matches(regex) : regex == null;
+        return matches(regex, 0);
+    }
+
+    /**
+     * A predicate that tells whether or not a given string matches the given regular expression,
+     * compiled with the given flags.
+     *
+     * @param regex the regular expression to which this string is to be matched
+     * @param flags match flags, such as {@link Pattern#CASE_INSENSITIVE}
+     * @return a predicate that tells whether or not a given string matches the given regular expression
+     * @see Pattern#compile(String, int)
+     */
+    public static Predicate<String> matches(String regex, int flags) {
+        return (regex != null) ? matches(PatternCache.compile(regex, flags)) : Objects::isNull;
     }
 
+    /**
+     * A predicate that tells whether or not an entire given string matches the given pattern.
+     *
+     * @param pattern the compiled pattern to which this string is to be matched
+     * @return a predicate that tells whether or not a given string matches the given pattern
+     * @see java.util.regex.Matcher#matches()
+     */
+    public static Predicate<String> matches(Pattern pattern) {
+        if(pattern == null) {
+            return Objects::isNull;
+        }
+        return s -> s != null && pattern.matcher(s).matches();
+    }
+
+    /**
+     * A predicate that tells whether or not the given regular expression matches some part
+     * of a given string. Like {@link #matches(String)}, the regular expression is compiled
+     * once and cached.
+     *
+     * @param regex the regular expression to search for
+     * @return a predicate that tells whether or not a given string contains a match for the given regular expression
+     * @see java.util.regex.Matcher#find()
+     */
+    public static Predicate<String> finding(String regex) {
+        return finding(regex, 0);
+    }
+
+    /**
+     * A predicate that tells whether or not the given regular expression, compiled with the
+     * given flags, matches some part of a given string.
+     *
+     * @param regex the regular expression to search for
+     * @param flags match flags, such as {@link Pattern#CASE_INSENSITIVE}
+     * @return a predicate that tells whether or not a given string contains a match for the given regular expression
+     * @see Pattern#compile(String, int)
+     */
+    public static Predicate<String> finding(String regex, int flags) {
+        return (regex != null) ? finding(PatternCache.compile(regex, flags)) : Objects::isNull;
+    }
+
+    /**
+     * A predicate that tells whether or not the given pattern matches some part of a given string.
+     *
+     * @param pattern the compiled pattern to search for
+     * @return a predicate that tells whether or not a given string contains a match for the given pattern
+     * @see java.util.regex.Matcher#find()
+     */
+    public static Predicate<String> finding(Pattern pattern) {
+        if(pattern == null) {
+            return Objects::isNull;
+        }
+        return s -> s != null && pattern.matcher(s).find();
+    }
 
     /**
      * Predicate to check that a string equals a given value using String.equalsIgnoreCase.
@@ -175,13 +246,148 @@ public final class StringPredicates {
      * A predicate that returns true if and only if a given string contains the
      * specified sequence of char values, ignoring case.
      *
+     * <p>Characters are compared as {@link String#regionMatches(boolean, int, String, int, int)}
+     * compares them, without allocating a lower-cased copy of either string and independent
+     * of the default locale. Candidate positions are found with a lookup of the sub's first
+     * character before comparing the rest in place.</p>
+     *
      * @param sub the subsequence to search for
      * @return A predicate that returns true if and only if a given string contains the
      * specified sequence of char values, ignoring case.
      * @see String#equalsIgnoreCase(String)
      */
     public static Predicate<String> containingIgnoreCase(String sub) {
-        return s -> (s != null) ? s.toLowerCase().contains(sub.toLowerCase()) : sub == null;
+        if(sub == null) {
+            return Objects::isNull;
+        } else if(sub.isEmpty()) {
+            return Objects::nonNull;
+        }
+        int length = sub.length();
+        char first = sub.charAt(0);
+        char upper = Character.toUpperCase(first);
+        char lower = Character.toLowerCase(upper);
+        boolean[] asciiFirst = new boolean[128];
+        for(char c = 0; c < asciiFirst.length; c++) {
+            asciiFirst[c] = equalsIgnoreCase(c, first, upper, lower);
+        }
+        return s -> {
+            if(s == null) {
+                return false;
+            }
+            for(int i = 0, last = s.length() - length; i <= last; i++) {
+                char c = s.charAt(i);
+                boolean candidate = c < 128 ? asciiFirst[c] : equalsIgnoreCase(c, first, upper, lower);
+                if(candidate && s.regionMatches(true, i + 1, sub, 1, length - 1)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * A predicate that returns true if and only if a given string starts with the specified
+     * prefix, ignoring case. Characters are compared in place, as
+     * {@link String#regionMatches(boolean, int, String, int, int)} compares them.
+     *
+     * @param prefix the prefix to look for
+     * @return A predicate that returns true if and only if a given string starts with the
+     * specified prefix, ignoring case
+     * @see String#startsWith(String)
+     */
+    public static Predicate<String> startsWithIgnoreCase(String prefix) {
+        if(prefix == null) {
+            return Objects::isNull;
+        }
+        int length = prefix.length();
+        return s -> s != null && s.regionMatches(true, 0, prefix, 0, length);
+    }
+
+    /**
+     * A predicate that returns true if and only if a given string ends with the specified
+     * suffix, ignoring case. Characters are compared in place, as
+     * {@link String#regionMatches(boolean, int, String, int, int)} compares them.
+     *
+     * @param suffix the suffix to look for
+     * @return A predicate that returns true if and only if a given string ends with the
+     * specified suffix, ignoring case
+     * @see String#endsWith(String)
+     */
+    public static Predicate<String> endsWithIgnoreCase(String suffix) {
+        if(suffix == null) {
+            return Objects::isNull;
+        }
+        int length = suffix.length();
+        return s -> s != null && s.regionMatches(true, s.length() - length, suffix, 0, length);
+    }
+
+    /**
+     * A predicate that returns true if and only if a given string contains at least one of
+     * the specified subsequences. The subsequences are compiled once into an Aho-Corasick
+     * automaton, so a given string is scanned a single time however many there are, rather
+     * than once for each as with chained calls to {@link #containing(String)}.
+     *
+     * @param subs the subsequences to search for, none of them null
+     * @return A predicate that returns true if and only if a given non-null string contains
+     * at least one of the specified subsequences
+     */
+    public static Predicate<String> containingAny(Collection<String> subs) {
+        AhoCorasick automaton = AhoCorasick.compile(subs, false);
+        return s -> s != null && automaton.containsAny(s);
+    }
+
+    /**
+     * A predicate that returns true if and only if a given string contains every one of
+     * the specified subsequences, found in a single scan of the string.
+     *
+     * @param subs the subsequences to search for, none of them null
+     * @return A predicate that returns true if and only if a given non-null string contains
+     * all of the specified subsequences
+     * @see #containingAny(Collection)
+     */
+    public static Predicate<String> containingAll(Collection<String> subs) {
+        AhoCorasick automaton = AhoCorasick.compile(subs, false);
+        return s -> s != null && automaton.containsAll(s);
+    }
+
+    /**
+     * A predicate that returns true if and only if a given string contains at least one of
+     * the specified subsequences, ignoring case as {@link #containingIgnoreCase(String)} does.
+     *
+     * @param subs the subsequences to search for, none of them null
+     * @return A predicate that returns true if and only if a given non-null string contains
+     * at least one of the specified subsequences, ignoring case
+     * @see #containingAny(Collection)
+     */
+    public static Predicate<String> containingAnyIgnoreCase(Collection<String> subs) {
+        AhoCorasick automaton = AhoCorasick.compile(subs, true);
+        return s -> s != null && automaton.containsAny(s);
+    }
+
+    /**
+     * A predicate that returns true if and only if a given string contains every one of
+     * the specified subsequences, ignoring case as {@link #containingIgnoreCase(String)} does.
+     *
+     * @param subs the subsequences to search for, none of them null
+     * @return A predicate that returns true if and only if a given non-null string contains
+     * all of the specified subsequences, ignoring case
+     * @see #containingAny(Collection)
+     */
+    public static Predicate<String> containingAllIgnoreCase(Collection<String> subs) {
+        AhoCorasick automaton = AhoCorasick.compile(subs, true);
+        return s -> s != null && automaton.containsAll(s);
+    }
+
+    /**
+     * Compares two chars the way String.regionMatches does when ignoring case, given the
+     * second char's upper case and the lower case of that.
+     */
+    private static boolean equalsIgnoreCase(char c, char other, char otherUpper, char otherLower) {
+        if(c == other) {
+            return true;
+        }
+        char upper = Character.toUpperCase(c);
+        return upper == otherUpper || Character.toLowerCase(upper) == otherLower;
     }
 
 }
@@ -0,0 +1,71 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class BloomFilterTest {
+
+    private static final long SAME_HASH_CODE = (1L << 32) + 1;
+
+    @Test
+    public void testNoFalseNegatives() {
+        BloomFilter<Object> filter = BloomFilter.create(10_000, 0.01);
+        for(int i = 0; i < 10_000; i++) {
+            filter.add("key-" + i);
+            filter.add((long) i * SAME_HASH_CODE);
+        }
+        filter.add(null);
+        for(int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("key-" + i));
+            assertTrue(filter.mightContain((long) i * SAME_HASH_CODE));
+        }
+        assertTrue(filter.mightContain(null));
+    }
+
+    @Test
+    public void testLongsWithEqualHashCodesAreTold() {
+        // every one of these longs has a hashCode of 0
+        BloomFilter<Long> filter = BloomFilter.create(1_000, 0.01);
+        for(long i = 0; i < 1_000; i++) {
+            filter.add(i * SAME_HASH_CODE);
+        }
+        int falsePositives = 0;
+        for(long i = 1_000; i < 11_000; i++) {
+            assertEquals(0, Long.valueOf(i * SAME_HASH_CODE).hashCode());
+            if(filter.mightContain(i * SAME_HASH_CODE)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, falsePositives + " false positives");
+    }
+
+    @Test
+    public void testStringsWithEqualHashCodesAreTold() {
+        // "Aa" and "BB" share a hashCode, so do all strings made of them
+        BloomFilter<String> filter = BloomFilter.create(1_000, 0.01);
+        String added = "AaAaAaAaAaAaAaAa";
+        filter.add(added);
+        int falsePositives = 0;
+        for(int i = 1; i < 256; i++) {
+            StringBuilder probe = new StringBuilder();
+            for(int bit = 0; bit < 8; bit++) {
+                probe.append((i & (1 << bit)) == 0 ? "Aa" : "BB");
+            }
+            assertEquals(added.hashCode(), probe.toString().hashCode());
+            if(filter.mightContain(probe.toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 10, falsePositives + " false positives");
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(-1, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(10, 1));
+    }
+}
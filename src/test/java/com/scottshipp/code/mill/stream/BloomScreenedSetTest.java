@@ -0,0 +1,117 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class BloomScreenedSetTest {
+
+    @Test
+    public void testContainsIsExact() {
+        BloomScreenedSet<Integer> set = BloomScreenedSet.of(IntStream.range(0, 10_000).map(i -> i * 3).boxed(), 0.01);
+        assertEquals(10_000, set.size());
+        for(int i = 0; i < 30_000; i++) {
+            assertEquals(i % 3 == 0, set.contains(i));
+        }
+        assertEquals(30_000, set.probes());
+        assertEquals(10_000, set.hits());
+        assertEquals(20_000, set.rejected() + set.falsePositives());
+    }
+
+    @Test
+    public void testFilterRejectsMostMisses() {
+        BloomScreenedSet<String> set = BloomScreenedSet.of(
+                IntStream.range(0, 50_000).mapToObj(i -> "card-" + i).collect(Collectors.toList()), 0.01);
+        for(int i = 0; i < 100_000; i++) {
+            set.contains("other-" + i);
+        }
+        assertEquals(0, set.hits());
+        assertTrue(set.observedFalsePositiveRate() < 0.03, "observed " + set.observedFalsePositiveRate());
+        assertTrue(set.expectedFalsePositiveRate() < 0.03, "expected " + set.expectedFalsePositiveRate());
+        assertEquals(0.01, set.targetFalsePositiveRate());
+        assertTrue(set.filterBits() % 512 == 0);
+
+        set.resetCounts();
+        assertEquals(0, set.probes());
+        assertEquals(0.0, set.observedFalsePositiveRate());
+    }
+
+    @Test
+    public void testCountsParallelProbes() {
+        BloomScreenedSet<Integer> set = BloomScreenedSet.of(IntStream.range(0, 10_000).map(i -> i * 3).boxed(), 0.01);
+        long found = IntStream.range(0, 300_000).boxed().parallel().filter(set::contains).count();
+        assertEquals(10_000, found);
+        assertEquals(300_000, set.probes());
+        assertEquals(10_000, set.hits());
+        assertEquals(290_000, set.rejected() + set.falsePositives());
+    }
+
+    @Test
+    public void testEqualsDoesNotCount() {
+        BloomScreenedSet<String> set = BloomScreenedSet.of(Arrays.asList("a", "b", "c"), 0.01);
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), set);
+        assertEquals(set, new HashSet<>(Arrays.asList("c", "b", "a")));
+        assertTrue(set.containsAll(Arrays.asList("a", "c")));
+        assertFalse(set.containsAll(Arrays.asList("a", "d")));
+        assertFalse(set.equals(new HashSet<>(Arrays.asList("a", "b", "d"))));
+        assertEquals(0, set.probes());
+    }
+
+    @Test
+    public void testLongsWithEqualHashCodesAreScreened() {
+        // every one of these longs has a hashCode of 0
+        long sameHashCode = (1L << 32) + 1;
+        BloomScreenedSet<Long> set = BloomScreenedSet.of(LongStream.range(0, 1_000).map(i -> i * sameHashCode).boxed(), 0.01);
+        for(long i = 1_000; i < 11_000; i++) {
+            assertFalse(set.contains(i * sameHashCode));
+        }
+        assertTrue(set.falsePositives() < 300, set.falsePositives() + " false positives");
+    }
+
+    @Test
+    public void testNullAndEmpty() {
+        BloomScreenedSet<String> set = BloomScreenedSet.of(Arrays.asList("a", null, "a"), 0.05);
+        assertEquals(2, set.size());
+        assertTrue(set.contains(null));
+        assertFalse(set.contains("b"));
+
+        BloomScreenedSet<String> empty = BloomScreenedSet.of(Collections.<String>emptyList(), 0.05);
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.contains("a"));
+    }
+
+    @Test
+    public void testImmutable() {
+        BloomScreenedSet<String> set = BloomScreenedSet.of(Arrays.asList("a", "b"), 0.05);
+        assertThrows(UnsupportedOperationException.class, () -> set.add("c"));
+        assertThrows(UnsupportedOperationException.class, () -> set.iterator().remove());
+        assertThrows(IllegalArgumentException.class, () -> BloomScreenedSet.of(Arrays.asList("a"), 1.0));
+    }
+
+    @Test
+    public void testStreamOpsIntersection() {
+        BloomScreenedSet<Integer> flagged = BloomScreenedSet.of(Arrays.asList(7, 42, 99, 1_000_000), 0.01);
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Integer> stream = Stream.of(1, 42, 3, 7, 42, 5, 7).onClose(() -> closed.set(true));
+        List<Integer> matched;
+        try(Stream<Integer> result = StreamOps.intersection(flagged, stream)) {
+            matched = result.collect(Collectors.toList());
+        }
+        assertEquals(Arrays.asList(42, 7), matched);
+        assertEquals(7, flagged.probes());
+        assertTrue(closed.get());
+    }
+}
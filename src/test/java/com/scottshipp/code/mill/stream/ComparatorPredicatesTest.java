@@ -6,6 +6,7 @@ import com.scottshipp.code.mill.data.TestValues;
 import org.junit.jupiter.api.Test;
 
 import java.util.Comparator;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -103,5 +104,21 @@ public final class ComparatorPredicatesTest {
         assertEquals("Parker, Mukesh, Jean, Mackenzie, Jane", engineeringTeamAtoP);
     }
 
-
+    @Test
+    public void testSlicingSortedHolidays() {
+        List<Holiday> holidays = TestValues.allHolidays().collect(Collectors.toList());
+        Holiday[] array = holidays.toArray(new Holiday[0]);
+        ComparatorPredicates<Holiday> byDate = ComparatorPredicates.where(Holiday::getDate);
+        assertEquals("2018-11-22, 2018-11-23, 2018-12-24",
+                byDate.sliceInRangeOpen(holidays, TestValues.LABOR_DAY, TestValues.CHRISTMAS).collect(joining(", ")));
+        assertEquals("2018-11-22, 2018-11-23, 2018-12-24",
+                byDate.sliceBetween(holidays, TestValues.LABOR_DAY, TestValues.CHRISTMAS).collect(joining(", ")));
+        assertEquals("2018-09-03, 2018-11-22, 2018-11-23, 2018-12-24, 2018-12-25",
+                byDate.sliceInRangeClosed(holidays, TestValues.LABOR_DAY, TestValues.CHRISTMAS).collect(joining(", ")));
+        assertEquals("2018-11-22, 2018-11-23, 2018-12-24",
+                byDate.sliceInRangeOpen(array, TestValues.LABOR_DAY, TestValues.CHRISTMAS).collect(joining(", ")));
+        assertEquals("2018-01-01, 2018-04-01",
+                byDate.sliceInRangeClosed(array, TestValues.NEW_YEARS, TestValues.EASTER).collect(joining(", ")));
+        assertEquals("", byDate.sliceInRangeOpen(holidays, TestValues.THANKSGIVING, TestValues.DAY_AFTER_THANKSGIVING).collect(joining(", ")));
+    }
 }
@@ -0,0 +1,70 @@
+package com.scottshipp.code.mill.stream;
+
+import com.scottshipp.code.mill.data.Holiday;
+import com.scottshipp.code.mill.data.TestValues;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.chrono.ChronoLocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class CompiledPredicatesTest {
+
+    @Test
+    public void testCompiledBuilder() {
+        ValueComparisonPredicates<Holiday, ChronoLocalDate> date = ValueComparisonPredicates.<Holiday, ChronoLocalDate>where(Holiday::getDate).compiled();
+        String secondHalf = TestValues.allHolidays()
+                .filter(date.isInRangeClosed(LocalDate.of(2018, 7, 1), LocalDate.of(2018, 11, 22)))
+                .collect(MoreCollectors.joining(", "));
+        assertEquals("2018-07-04, 2018-09-03, 2018-11-22", secondHalf);
+
+        ComparatorPredicates<String> length = ComparatorPredicates.where(String::length).compiled();
+        List<String> words = Arrays.asList("a", "abc", "abcde");
+        assertEquals(Arrays.asList("abc", "abcde"), words.stream().filter(length.isGreaterThan("xy")).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testEachPredicateGetsItsOwnClass() {
+        ComparatorPredicates<Integer> natural = ComparatorPredicates.where(Integer::compare);
+        Predicate<Integer> lessThanFive = natural.isLessThan(5);
+        Predicate<Integer> a = CompiledPredicates.compile(lessThanFive);
+        Predicate<Integer> b = CompiledPredicates.compile(natural.isLessThan(5));
+        if(CompiledPredicates.usesHiddenClasses()) {
+            assertNotSame(a.getClass(), b.getClass());
+            assertNotSame(lessThanFive.getClass(), a.getClass());
+        } else {
+            // without hidden classes there is nothing to gain, so nothing is compiled
+            assertSame(lessThanFive, a);
+        }
+
+        Predicate<Integer> notRange = i -> i > 0;
+        assertSame(notRange, CompiledPredicates.compile(notRange));
+    }
+
+    @Test
+    public void testCompiledMatchesInterpreted() {
+        ValueComparisonPredicates<String, Integer> length = ValueComparisonPredicates.where(s -> s == null ? null : s.length());
+        List<Predicate<String>> predicates = Arrays.asList(
+                length.isGreaterThan(2),
+                length.isLessThanOrEqualTo(2),
+                length.isBetween(1, 4),
+                length.isInRangeClosed(1, 4),
+                length.isGreaterThan(1).and(length.isLessThan(3)).or(length.isGreaterThan(5)),
+                length.isGreaterThan(1).and(length.isLessThan(3)).negate(),
+                length.isGreaterThan(4).and(length.isLessThan(3)));
+        List<String> values = IntStream.range(0, 8).mapToObj(i -> "abcdefgh".substring(0, i)).collect(Collectors.toList());
+        values.add(null);
+        for(Predicate<String> predicate : predicates) {
+            assertEquals(values.stream().filter(predicate).collect(Collectors.toList()),
+                    values.stream().filter(CompiledPredicates.compile(predicate)).collect(Collectors.toList()), predicate.toString());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.DoubleStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public final class DoubleStreamOpsTest {
+
+    @Test
+    public void testIntersection() {
+        assertArrayEquals(new double[] {2.5, Double.NaN},
+                DoubleStreamOps.intersection(
+                        DoubleStream.of(1.0, 2.5, Double.NaN),
+                        DoubleStream.of(Double.NaN, 2.5, 2.5, 4.0)
+                ).sorted().toArray());
+    }
+
+    @Test
+    public void testDifference() {
+        assertArrayEquals(new double[] {1.0, -0.0},
+                DoubleStreamOps.difference(DoubleStream.of(1.0, -0.0, 1.0, 3.0), DoubleStream.of(0.0, 3.0)).toArray());
+    }
+
+    @Test
+    public void testDistinctValuesMatchesDoubleStreamDistinct() {
+        double[] values = {0.0, -0.0, Double.NaN, 0.0 / 0.0, 1.5, 1.5, Double.POSITIVE_INFINITY};
+        assertArrayEquals(DoubleStream.of(values).distinct().toArray(),
+                DoubleStreamOps.distinctValues(DoubleStream.of(values)).toArray());
+    }
+}
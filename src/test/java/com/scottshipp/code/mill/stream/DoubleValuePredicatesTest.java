@@ -0,0 +1,40 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class DoubleValuePredicatesTest {
+
+    private static List<Double> filter(Predicate<Double> predicate) {
+        return DoubleStream.of(-1.5, 0.0, 1.5, 2.5, Double.NaN).boxed()
+                .filter(predicate).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testComparisons() {
+        DoubleValuePredicates<Double> value = DoubleValuePredicates.where(Double::doubleValue);
+        assertEquals(Arrays.asList(1.5, 2.5), filter(value.isGreaterThan(0)));
+        assertEquals(Arrays.asList(-1.5), filter(value.isLessThan(0)));
+        assertEquals(Arrays.asList(0.0, 1.5, 2.5), filter(value.isGreaterThanOrEqualTo(0)));
+        assertEquals(Arrays.asList(-1.5, 0.0), filter(value.isLessThanOrEqualTo(0)));
+        assertEquals(Arrays.asList(1.5), filter(value.equaling(1.5)));
+    }
+
+    @Test
+    public void testRanges() {
+        DoubleValuePredicates<Double> value = DoubleValuePredicates.where(Double::doubleValue);
+        assertEquals(Arrays.asList(1.5), filter(value.isBetween(0, 2.5)));
+        assertEquals(Arrays.asList(0.0, 1.5, 2.5), filter(value.isInRangeClosed(0, 2.5)));
+        assertEquals(Arrays.asList(1.5, 2.5), filter(value.isInRangeClosed(Double.valueOf(1.5), Double.valueOf(2.5))));
+        assertThrows(IllegalArgumentException.class, () -> value.isInRangeClosed(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> value.isInRangeClosed(Double.NaN, 0));
+    }
+}
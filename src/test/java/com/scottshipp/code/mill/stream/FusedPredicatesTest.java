@@ -0,0 +1,138 @@
+package com.scottshipp.code.mill.stream;
+
+import com.scottshipp.code.mill.data.Holiday;
+import com.scottshipp.code.mill.data.TestValues;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.chrono.ChronoLocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class FusedPredicatesTest {
+
+    @Test
+    public void testChainedRangePredicatesExtractOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        ValueComparisonPredicates<Integer, Integer> value = ValueComparisonPredicates.where(i -> {
+            calls.incrementAndGet();
+            return i;
+        });
+        Predicate<Integer> chain = value.isGreaterThan(10)
+                .and(value.isLessThan(90))
+                .and(value.isGreaterThanOrEqualTo(20))
+                .and(value.isLessThanOrEqualTo(80))
+                .and(value.isInRangeOpen(0, 75));
+        assertTrue(chain instanceof IntervalPredicate);
+        assertEquals(IntStream.range(20, 75).boxed().collect(Collectors.toList()),
+                IntStream.range(0, 100).boxed().filter(chain).collect(Collectors.toList()));
+        assertEquals(100, calls.get());
+    }
+
+    @Test
+    public void testFusionThroughOtherPredicates() {
+        ValueComparisonPredicates<Holiday, ChronoLocalDate> date = ValueComparisonPredicates.where(Holiday::getDate);
+        Predicate<Holiday> rule = date.isGreaterThan(LocalDate.of(2018, 6, 1))
+                .and(h -> h.getDate().getDayOfMonth() > 3)
+                .and(date.isLessThan(LocalDate.of(2018, 12, 25)));
+        String matching = TestValues.allHolidays().filter(rule).collect(MoreCollectors.joining(", "));
+        assertEquals("2018-07-04, 2018-11-22, 2018-11-23, 2018-12-24", matching);
+
+        Predicate<Holiday> any = FusedPredicates.anyOf(
+                date.isLessThan(LocalDate.of(2018, 2, 1)),
+                date.isGreaterThan(LocalDate.of(2018, 12, 24)));
+        assertTrue(any instanceof IntervalPredicate);
+        assertEquals("2018-01-01, 2018-12-25", TestValues.allHolidays().filter(any).collect(MoreCollectors.joining(", ")));
+        assertEquals("", TestValues.allHolidays().filter(FusedPredicates.anyOf()).collect(MoreCollectors.joining(", ")));
+        assertEquals(TestValues.allHolidays().count(), TestValues.allHolidays().filter(FusedPredicates.allOf()).count());
+    }
+
+    @Test
+    public void testNullHandling() {
+        List<String> values = Arrays.asList("a", null, "m", "z");
+        ValueComparisonPredicates<String, String> value = ValueComparisonPredicates.where((String s) -> s);
+        Predicate<String> range = value.isGreaterThan("b").and(value.isLessThan("y"));
+        assertEquals(Arrays.asList("m"), values.stream().filter(range).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("a", null, "z"), values.stream().filter(range.negate()).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("m"), values.stream().filter(
+                ComparablePredicates.isGreaterThan("b").and(ComparablePredicates.isLessThan("y"))).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFusedMatchesUnfused() {
+        Random random = new Random(42);
+        ComparatorPredicates<Integer> fusing = ComparatorPredicates.where(Integer::compare);
+        for(int round = 0; round < 500; round++) {
+            Predicate<Integer> fused = randomPredicate(random, fusing, 3);
+            Predicate<Integer> expected = plain(fused);
+            for(int i = -2; i < 23; i++) {
+                assertEquals(expected.test(i), fused.test(i), fused + " on " + i);
+            }
+        }
+    }
+
+    // the equivalent plain lambda of each predicate built by randomPredicate
+    private final Map<Predicate<Integer>, Predicate<Integer>> plainVersions = new IdentityHashMap<>();
+
+    private Predicate<Integer> plain(Predicate<Integer> fused) {
+        return plainVersions.get(fused);
+    }
+
+    private Predicate<Integer> randomPredicate(Random random, ComparatorPredicates<Integer> where, int depth) {
+        Predicate<Integer> fused;
+        Predicate<Integer> plain;
+        int choice = depth == 0 ? random.nextInt(5) : random.nextInt(9);
+        int a = random.nextInt(21);
+        int b = random.nextInt(21);
+        switch(choice) {
+            case 0: fused = where.isGreaterThan(a); plain = i -> i > a; break;
+            case 1: fused = where.isLessThan(a); plain = i -> i < a; break;
+            case 2: fused = where.isGreaterThanOrEqualTo(a); plain = i -> i >= a; break;
+            case 3: fused = where.isLessThanOrEqualTo(a); plain = i -> i <= a; break;
+            case 4: fused = where.isInRangeClosed(a, b); plain = i -> i >= a && i <= b; break;
+            case 5: case 6: {
+                Predicate<Integer> x = randomPredicate(random, where, depth - 1);
+                Predicate<Integer> y = randomPredicate(random, where, depth - 1);
+                Predicate<Integer> px = plain(x);
+                Predicate<Integer> py = plain(y);
+                fused = choice == 5 ? x.and(y) : x.or(y);
+                plain = choice == 5 ? i -> px.test(i) && py.test(i) : i -> px.test(i) || py.test(i);
+                break;
+            }
+            case 7: {
+                Predicate<Integer> x = randomPredicate(random, where, depth - 1);
+                Predicate<Integer> px = plain(x);
+                fused = x.negate();
+                plain = i -> !px.test(i);
+                break;
+            }
+            default: {
+                List<Predicate<Integer>> parts = new ArrayList<>();
+                List<Predicate<Integer>> plains = new ArrayList<>();
+                for(int n = random.nextInt(4); n > 0; n--) {
+                    Predicate<Integer> x = randomPredicate(random, where, depth - 1);
+                    parts.add(x);
+                    plains.add(plain(x));
+                }
+                parts.add(i -> i % 3 != 0);
+                plains.add(i -> i % 3 != 0);
+                boolean all = random.nextBoolean();
+                fused = all ? FusedPredicates.allOf(parts) : FusedPredicates.anyOf(parts);
+                plain = all ? i -> plains.stream().allMatch(p -> p.test(i)) : i -> plains.stream().anyMatch(p -> p.test(i));
+            }
+        }
+        plainVersions.put(fused, plain);
+        return fused;
+    }
+}
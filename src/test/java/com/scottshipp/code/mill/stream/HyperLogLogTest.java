@@ -0,0 +1,116 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class HyperLogLogTest {
+
+    @Test
+    public void testExactBelowThreshold() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for(int i = 0; i < 1000; i++) {
+            sketch.add("visitor-" + (i % 700));
+            sketch.add((Object) null);
+        }
+        assertEquals(701, sketch.estimate());
+        assertEquals(0, new HyperLogLog(12).estimate());
+    }
+
+    @Test
+    public void testEstimateAccuracy() {
+        for(int n : new int[] {2_000, 50_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog(14);
+            for(long i = 0; i < n; i++) {
+                sketch.add(i);
+                sketch.add(i);
+            }
+            double error = Math.abs(sketch.estimate() - n) / (double) n;
+            assertTrue(error < 0.03, n + " estimated as " + sketch.estimate());
+        }
+    }
+
+    @Test
+    public void testMergeMatchesSingleSketch() {
+        HyperLogLog all = new HyperLogLog(10);
+        HyperLogLog left = new HyperLogLog(10);
+        HyperLogLog right = new HyperLogLog(10);
+        HyperLogLog small = new HyperLogLog(10);
+        for(int i = 0; i < 20_000; i++) {
+            all.add(Integer.toString(i));
+            (i % 2 == 0 ? left : right).add(Integer.toString(i));
+        }
+        small.add("3");
+        small.add("extra");
+        all.add("extra");
+        assertEquals(all.estimate(), left.merge(right).merge(small).estimate());
+        assertEquals(all.estimate(), small.merge(left).estimate());
+        assertThrows(IllegalArgumentException.class, () -> all.merge(new HyperLogLog(11)));
+    }
+
+    @Test
+    public void testSerialization() {
+        HyperLogLog exact = new HyperLogLog(8);
+        IntStream.range(0, 20).forEach(exact::add);
+        HyperLogLog copy = HyperLogLog.fromByteArray(exact.toByteArray());
+        assertEquals(20, copy.estimate());
+        assertEquals(8, copy.precision());
+
+        HyperLogLog dense = new HyperLogLog(8);
+        LongStream.range(0, 10_000).forEach(dense::add);
+        byte[] bytes = dense.toByteArray();
+        assertEquals(3 + 256, bytes.length);
+        assertEquals(dense.estimate(), HyperLogLog.fromByteArray(bytes).estimate());
+
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromByteArray(Arrays.copyOf(bytes, 100)));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromByteArray(new byte[] {9, 8, 0}));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromByteArray(new byte[] {1, 30, 0, 0, 0, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+    }
+
+    @Test
+    public void testNullIsDistinct() {
+        assertEquals(2L, (long) Stream.of(null, 0).collect(MoreCollectors.approxDistinctCount(12)));
+        assertEquals(2L, (long) Stream.of(0L, null, 0, null).collect(MoreCollectors.approxDistinctCount(12)));
+        assertEquals(1L, (long) Stream.of(null, null).collect(MoreCollectors.approxDistinctCount(12)));
+
+        HyperLogLog withNull = new HyperLogLog(8);
+        withNull.add(null);
+        withNull.add(0L);
+        assertEquals(2, HyperLogLog.fromByteArray(withNull.toByteArray()).estimate());
+        HyperLogLog merged = new HyperLogLog(8);
+        merged.add(0);
+        assertEquals(2, merged.merge(withNull).estimate());
+
+        // null counts toward the switch to registers, and is kept in them
+        HyperLogLog sketch = new HyperLogLog(4);
+        sketch.add(null);
+        for(int i = 0; i < 3; i++) {
+            sketch.add(i);
+        }
+        assertEquals(4, sketch.estimate());
+        assertEquals(3 + 4 + 8 * 3, sketch.toByteArray().length);
+        sketch.add(3);
+        assertEquals(3 + 16, sketch.toByteArray().length);
+        assertEquals(5, sketch.estimate());
+    }
+
+    @Test
+    public void testApproxDistinctCountCollector() {
+        long count = IntStream.range(0, 500_000).parallel().mapToObj(i -> "user" + (i % 200_000))
+                .collect(MoreCollectors.approxDistinctCount(14));
+        assertTrue(Math.abs(count - 200_000) < 6_000, "estimated " + count);
+        assertEquals(3L, (long) IntStream.of(1, 2, 2, 3).boxed().collect(MoreCollectors.approxDistinctCount(4)));
+
+        HyperLogLog sketch = IntStream.range(0, 100).boxed().collect(MoreCollectors.hyperLogLog(12));
+        assertEquals(100, sketch.estimate());
+        assertThrows(IllegalArgumentException.class, () -> MoreCollectors.approxDistinctCount(19));
+    }
+}
@@ -0,0 +1,89 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class IntBitmapTest {
+
+    @Test
+    public void testBehavesLikeTreeSet() {
+        Random random = new Random(42);
+        IntBitmap bitmap = new IntBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for(int i = 0; i < 100_000; i++) {
+            // sparse and dense chunks on both sides of zero
+            int value = random.nextBoolean() ? random.nextInt(20_000) - 10_000 : random.nextInt();
+            assertEquals(expected.add(value), bitmap.add(value));
+        }
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertArrayEquals(toArray(expected), bitmap.stream().toArray());
+        assertTrue(bitmap.contains(expected.first()));
+    }
+
+    @Test
+    public void testSetAlgebraMatchesTreeSet() {
+        Random random = new Random(7);
+        for(int round = 0; round < 20; round++) {
+            // a range around 2^16 mixes array and bitmap containers in one bitmap
+            int bound = 1 + random.nextInt(300_000);
+            int[] a = random.ints(random.nextInt(100_000), -bound, bound).toArray();
+            int[] b = random.ints(random.nextInt(100_000), -bound, bound).toArray();
+            TreeSet<Integer> setA = toSet(a);
+            TreeSet<Integer> setB = toSet(b);
+            IntBitmap bitmapA = IntBitmap.of(a);
+            IntBitmap bitmapB = IntBitmap.of(IntStream.of(b));
+            if(round % 2 == 0) {
+                bitmapA.runOptimize();
+            }
+
+            TreeSet<Integer> and = new TreeSet<>(setA);
+            and.retainAll(setB);
+            assertArrayEquals(toArray(and), bitmapA.and(bitmapB).stream().toArray());
+
+            TreeSet<Integer> andNot = new TreeSet<>(setA);
+            andNot.removeAll(setB);
+            assertArrayEquals(toArray(andNot), bitmapA.andNot(bitmapB).stream().toArray());
+
+            TreeSet<Integer> or = new TreeSet<>(setA);
+            or.addAll(setB);
+            assertArrayEquals(toArray(or), bitmapA.or(bitmapB).stream().toArray());
+
+            // operands are unchanged
+            assertArrayEquals(toArray(setA), bitmapA.stream().toArray());
+        }
+    }
+
+    @Test
+    public void testRunOptimize() {
+        IntBitmap bitmap = IntBitmap.of(IntStream.concat(IntStream.range(-70_000, 70_000), IntStream.of(1 << 20)));
+        int[] before = bitmap.stream().toArray();
+        bitmap.runOptimize();
+        assertArrayEquals(before, bitmap.stream().toArray());
+        assertTrue(bitmap.contains(-70_000));
+        assertTrue(bitmap.contains(69_999));
+        assertFalse(bitmap.contains(70_000));
+        assertTrue(bitmap.add(70_000));
+        assertEquals(140_002, bitmap.cardinality());
+        assertEquals(140_002, bitmap.stream().spliterator().getExactSizeIfKnown());
+    }
+
+    private static TreeSet<Integer> toSet(int[] values) {
+        TreeSet<Integer> set = new TreeSet<>();
+        for(int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,55 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class IntHashSetTest {
+
+    @Test
+    public void testBehavesLikeHashSet() {
+        Random random = new Random(42);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        for(int i = 0; i < 200_000; i++) {
+            // a narrow range forces long probe sequences and frequent removals from them
+            int value = random.nextInt(5_000) - 100;
+            switch(random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(value), set.add(value));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(value), set.remove(value));
+                    break;
+                default:
+                    assertEquals(expected.contains(value), set.contains(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+    }
+
+    @Test
+    public void testLongHashSetBehavesLikeHashSet() {
+        Random random = new Random(7);
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        for(int i = 0; i < 200_000; i++) {
+            long value = (random.nextInt(5_000) - 100) * (1L << 33);
+            switch(random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.add(value), set.add(value));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(value), set.remove(value));
+                    break;
+                default:
+                    assertEquals(expected.contains(value), set.contains(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+    }
+}
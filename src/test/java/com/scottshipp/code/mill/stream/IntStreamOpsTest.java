@@ -0,0 +1,90 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class IntStreamOpsTest {
+
+    @Test
+    public void testConcat() {
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5},
+                IntStreamOps.concat(IntStream.of(1, 2), IntStream.of(3), IntStream.empty(), IntStream.of(4, 5)).toArray());
+        assertEquals(5, IntStreamOps.concat(IntStream.range(0, 2), IntStream.range(0, 3)).spliterator().getExactSizeIfKnown());
+        assertEquals(0, IntStreamOps.concat().count());
+    }
+
+    @Test
+    public void testIntersection() {
+        // emitted in the order of the largest stream
+        assertArrayEquals(new int[] {0, 3, 9},
+                IntStreamOps.intersection(
+                        IntStream.range(0, 1000),
+                        IntStream.of(3, 9, 0, 3, 7000),
+                        IntStream.of(0, 9, 3, 3, 0, 12)
+                ).toArray());
+        assertArrayEquals(new int[] {4, 1}, IntStreamOps.intersection(IntStream.of(4, 1, 4, 1)).toArray());
+    }
+
+    @Test
+    public void testIntersectionIsLazy() {
+        AtomicInteger reads = new AtomicInteger();
+        IntStream intersection = IntStreamOps.intersection(
+                IntStream.of(1, 2, 3).peek(i -> reads.incrementAndGet()),
+                IntStream.of(2, 3).peek(i -> reads.incrementAndGet()));
+        assertEquals(0, reads.get());
+        assertEquals(2, intersection.count());
+    }
+
+    @Test
+    public void testDifference() {
+        assertArrayEquals(new int[] {5, 1, 0},
+                IntStreamOps.difference(
+                        IntStream.of(5, 1, 5, 0, 2, 8, 1),
+                        IntStream.of(2),
+                        IntStream.of(8, 9)
+                ).toArray());
+    }
+
+    @Test
+    public void testDistinctValues() {
+        assertArrayEquals(new int[] {0, -1, 7, 2},
+                IntStreamOps.distinctValues(IntStream.of(0, -1, 0, 7), IntStream.of(7, 2, -1, 0)).toArray());
+        assertEquals(100_000, IntStreamOps.distinctValues(IntStream.range(0, 100_000), IntStream.range(0, 100_000)).count());
+    }
+
+    @Test
+    public void testDenseOperations() {
+        assertArrayEquals(new int[] {-5, 3, 70_000},
+                IntStreamOps.denseIntersection(
+                        IntStream.of(70_000, 3, -5, 3, 8),
+                        IntStream.range(-100, 100_000),
+                        IntStream.of(3, 70_000, -5, 9)
+                ).toArray());
+        assertArrayEquals(new int[] {-5, 8},
+                IntStreamOps.denseDifference(
+                        IntStream.of(70_000, 3, -5, 3, 8),
+                        IntStream.of(3),
+                        IntStream.range(10_000, 100_000)
+                ).toArray());
+        assertArrayEquals(new int[] {-5, 1, 3, 8, 70_000},
+                IntStreamOps.denseUnion(IntStream.of(70_000, 3, -5), IntStream.of(8, 1, 3)).toArray());
+        assertArrayEquals(new int[] {1, 2, 3}, IntStreamOps.denseDistinct(IntStream.of(3, 1, 2, 3, 1)).toArray());
+        assertEquals(0, IntStreamOps.denseIntersection().count());
+    }
+
+    @Test
+    public void testDenseIntersectionStopsReadingWhenEmpty() {
+        AtomicInteger reads = new AtomicInteger();
+        IntStream intersection = IntStreamOps.denseIntersection(
+                IntStream.of(1, 2),
+                IntStream.of(3, 4),
+                IntStream.of(1, 2).peek(i -> reads.incrementAndGet()));
+        assertEquals(0, intersection.count());
+        assertEquals(0, reads.get());
+    }
+}
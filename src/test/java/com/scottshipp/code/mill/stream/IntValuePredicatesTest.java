@@ -0,0 +1,45 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class IntValuePredicatesTest {
+
+    private static List<String> filter(Predicate<String> predicate) {
+        return Stream.of("", "a", "ab", "abc", "abcd").filter(predicate).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testComparisons() {
+        IntValuePredicates<String> length = IntValuePredicates.where(String::length);
+        assertEquals(Arrays.asList("abc", "abcd"), filter(length.isGreaterThan(2)));
+        assertEquals(Arrays.asList("", "a"), filter(length.isLessThan(2)));
+        assertEquals(Arrays.asList("ab", "abc", "abcd"), filter(length.isGreaterThanOrEqualTo(2)));
+        assertEquals(Arrays.asList("", "a", "ab"), filter(length.isLessThanOrEqualTo(2)));
+        assertEquals(Arrays.asList("ab"), filter(length.equaling(2)));
+    }
+
+    @Test
+    public void testRanges() {
+        IntValuePredicates<String> length = IntValuePredicates.where(String::length);
+        assertEquals(Arrays.asList("ab"), filter(length.isBetween(1, 3)));
+        assertEquals(Arrays.asList("ab"), filter(length.isInRangeOpen(1, 3)));
+        assertEquals(Arrays.asList("a", "ab", "abc"), filter(length.isInRangeClosed(1, 3)));
+        assertThrows(IllegalArgumentException.class, () -> length.isInRangeClosed(3, 1));
+    }
+
+    @Test
+    public void testAsRangePredicate() {
+        RangePredicate<String, Integer> length = IntValuePredicates.where(String::length);
+        assertEquals(Arrays.asList("a", "ab", "abc"), filter(length.isInRangeClosed(Integer.valueOf(1), Integer.valueOf(3))));
+        assertEquals(Arrays.asList("abcd"), filter(length.isGreaterThan(Integer.valueOf(3))));
+    }
+}
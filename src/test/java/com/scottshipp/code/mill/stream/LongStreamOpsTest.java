@@ -0,0 +1,40 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class LongStreamOpsTest {
+
+    private static final long BIG = 1L << 40;
+
+    @Test
+    public void testConcat() {
+        assertArrayEquals(new long[] {BIG, 2, 3},
+                LongStreamOps.concat(LongStream.of(BIG), LongStream.of(2, 3)).toArray());
+    }
+
+    @Test
+    public void testIntersection() {
+        assertArrayEquals(new long[] {0, BIG},
+                LongStreamOps.intersection(
+                        LongStream.of(0, BIG, BIG + 1, 7),
+                        LongStream.of(BIG, BIG, 0, -BIG),
+                        LongStream.of(5, 0, BIG)
+                ).sorted().toArray());
+    }
+
+    @Test
+    public void testDifference() {
+        assertArrayEquals(new long[] {BIG + 1, 7},
+                LongStreamOps.difference(LongStream.of(0, BIG, BIG + 1, 7, 7), LongStream.of(BIG), LongStream.of(0)).toArray());
+    }
+
+    @Test
+    public void testDistinctValues() {
+        assertEquals(3, LongStreamOps.distinctValues(LongStream.of(BIG, -BIG), LongStream.of(0, BIG, -BIG)).count());
+    }
+}
@@ -0,0 +1,42 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class LongValuePredicatesTest {
+
+    private static final long BILLION = 1_000_000_000L;
+
+    private static List<Long> filter(Predicate<Long> predicate) {
+        return LongStream.of(-5 * BILLION, 0, 3 * BILLION, 4 * BILLION, Long.MAX_VALUE).boxed()
+                .filter(predicate).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testComparisons() {
+        LongValuePredicates<Long> value = LongValuePredicates.where(Long::longValue);
+        assertEquals(Arrays.asList(4 * BILLION, Long.MAX_VALUE), filter(value.isGreaterThan(3 * BILLION)));
+        assertEquals(Arrays.asList(-5 * BILLION), filter(value.isLessThan(0)));
+        assertEquals(Arrays.asList(0L, 3 * BILLION, 4 * BILLION, Long.MAX_VALUE), filter(value.isGreaterThanOrEqualTo(0)));
+        assertEquals(Arrays.asList(-5 * BILLION, 0L), filter(value.isLessThanOrEqualTo(0)));
+        assertEquals(Arrays.asList(Long.MAX_VALUE), filter(value.equaling(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testRanges() {
+        LongValuePredicates<Long> value = LongValuePredicates.where(Long::longValue);
+        assertEquals(Arrays.asList(3 * BILLION), filter(value.isBetween(0, 4 * BILLION)));
+        assertEquals(Arrays.asList(0L, 3 * BILLION, 4 * BILLION), filter(value.isInRangeClosed(0, 4 * BILLION)));
+        assertEquals(Arrays.asList(4 * BILLION, Long.MAX_VALUE),
+                filter(value.isInRangeClosed(Long.valueOf(4 * BILLION), Long.valueOf(Long.MAX_VALUE))));
+        assertThrows(IllegalArgumentException.class, () -> value.isInRangeOpen(1, 0));
+    }
+}
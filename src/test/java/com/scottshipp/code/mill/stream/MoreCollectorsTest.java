@@ -2,16 +2,41 @@ package com.scottshipp.code.mill.stream;
 
 import static com.scottshipp.code.mill.data.TestValues.*;
 
+import com.scottshipp.code.mill.data.Holiday;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public final class MoreCollectorsTest {
 
@@ -28,6 +53,200 @@ public final class MoreCollectorsTest {
         assertEquals(standardJava, withMill);
     }
 
+    @Test
+    public void testJoiningWithPrefixAndSuffix() {
+        assertEquals("[a, null, b]", Stream.of("a", null, new StringBuilder("b")).collect(MoreCollectors.joining(", ", "[", "]")));
+        assertEquals("[]", Stream.empty().collect(MoreCollectors.joining(", ", "[", "]")));
+        assertEquals("<x>", Stream.of("x").collect(MoreCollectors.joining(", ", "<", ">")));
+    }
+
+    @Test
+    public void testJoiningLongParallelStreams() {
+        List<Integer> numbers = IntStream.range(0, 200_000).boxed().collect(toList());
+        String expected = numbers.stream().map(Object::toString).collect(Collectors.joining(",", "(", ")"));
+        assertEquals(expected, numbers.parallelStream().collect(MoreCollectors.joining(",", "(", ")")));
+        assertEquals(expected, numbers.stream().collect(MoreCollectors.joining(",", "(", ")")));
+
+        String longElements = IntStream.range(0, 50).mapToObj(i -> String.join("", Collections.nCopies(i * 1000, "z")))
+                .parallel().collect(MoreCollectors.joining("|"));
+        assertEquals(IntStream.range(0, 50).map(i -> i * 1000).sum() + 49, longElements.length());
+    }
+
+    @Test
+    public void testJoiningParallelEmptyElements() {
+        assertEquals("a", Stream.of("", "a").parallel().collect(MoreCollectors.joining("")));
+        assertEquals("ab", Arrays.asList("a", "", "b").parallelStream().collect(MoreCollectors.joining("")));
+        assertEquals(",a,", Arrays.asList("", "a", "").parallelStream().collect(MoreCollectors.joining(",")));
+        List<String> mostlyEmpty = IntStream.range(0, 10_000).mapToObj(i -> i % 97 == 0 ? "x" + i : "").collect(toList());
+        assertEquals(String.join("", mostlyEmpty), mostlyEmpty.parallelStream().collect(MoreCollectors.joining("")));
+
+        // a buffer of only empty text has no chunks, on either side of a merge
+        JoiningBuffer chunkless = new JoiningBuffer("");
+        chunkless.add("");
+        JoiningBuffer text = new JoiningBuffer("");
+        text.add("b");
+        assertEquals("b", chunkless.merge(text).toString());
+        JoiningBuffer before = new JoiningBuffer("");
+        before.add("a");
+        JoiningBuffer emptyAfter = new JoiningBuffer("");
+        emptyAfter.add("");
+        JoiningBuffer merged = before.merge(emptyAfter);
+        for(int i = 0; i < 300; i++) {
+            merged.add("c");
+        }
+        assertEquals("a" + String.join("", Collections.nCopies(300, "c")), merged.toString());
+    }
+
+    @Test
+    public void testJoiningToAppendable() {
+        StringBuilder sb = new StringBuilder("fruit: ");
+        StringBuilder result = Stream.of("Kiwi", null, "Mango").collect(MoreCollectors.joiningTo(sb, ", "));
+        assertSame(sb, result);
+        assertEquals("fruit: Kiwi, null, Mango", sb.toString());
+
+        StringWriter writer = new StringWriter();
+        Stream.of(1, 2, 3).collect(MoreCollectors.joiningTo(writer, ";", "{", "}"));
+        assertEquals("{1;2;3}", writer.toString());
+
+        writer = new StringWriter();
+        Stream.empty().collect(MoreCollectors.joiningTo(writer, ";", "{", "}"));
+        assertEquals("{}", writer.toString());
+    }
+
+    @Test
+    public void testJoiningToFailures() {
+        Appendable failing = new Appendable() {
+            @Override
+            public Appendable append(CharSequence csq) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public Appendable append(char c) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+        assertThrows(UncheckedIOException.class, () -> Stream.of("a").collect(MoreCollectors.joiningTo(failing, ",")));
+        Collector<Object, ?, Appendable> failingOnce = MoreCollectors.joiningTo(failing, ",");
+        assertThrows(UncheckedIOException.class, () -> Stream.of("a").collect(failingOnce));
+        assertThrows(UncheckedIOException.class, () -> Stream.of("b").collect(failingOnce));
+
+        // only one part of a parallel stream ever writes, so out is never interleaved
+        StringBuffer partial = new StringBuffer();
+        assertThrows(IllegalStateException.class, () -> IntStream.range(0, 10_000).boxed().parallel()
+                .collect(MoreCollectors.joiningTo(partial, ",")));
+        if(partial.length() > 0) {
+            int[] written = Arrays.stream(partial.toString().split(",")).mapToInt(Integer::parseInt).toArray();
+            for(int i = 1; i < written.length; i++) {
+                assertEquals(written[i - 1] + 1, written[i]);
+            }
+        }
+
+        // a collector can be used again once a collection finishes
+        Collector<Object, ?, StringBuilder> reused = MoreCollectors.joiningTo(new StringBuilder(), ",");
+        Stream.of("a").collect(reused);
+        assertEquals("ab", Stream.of("b").collect(reused).toString());
+
+        // and once an element fails to write
+        Object unprintable = new Object() {
+            @Override
+            public String toString() {
+                throw new UnsupportedOperationException("no text");
+            }
+        };
+        Collector<Object, ?, StringBuilder> afterFailure = MoreCollectors.joiningTo(new StringBuilder(), ",");
+        assertThrows(UnsupportedOperationException.class, () -> Stream.of("a", unprintable).collect(afterFailure));
+        assertEquals("a,c", Stream.of("c").collect(afterFailure).toString());
+    }
+
+    @Test
+    public void testJoiningToChannel() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = Stream.of("Kiwi", null, "Cr\u00e8me br\u00fbl\u00e9e")
+                .collect(MoreCollectors.joiningTo(Channels.newChannel(out), StandardCharsets.UTF_8.newEncoder(), ", "));
+        assertEquals("Kiwi, null, Cr\u00e8me br\u00fbl\u00e9e", new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(out.size(), written);
+
+        // a surrogate pair split across elements still encodes as one character
+        out.reset();
+        Stream.of("\uD83D", "\uDE00").collect(MoreCollectors.joiningTo(Channels.newChannel(out), StandardCharsets.UTF_8.newEncoder(), ""));
+        assertEquals("\uD83D\uDE00", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testJoiningLongStreamToChannel() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CharsetEncoder encoder = StandardCharsets.UTF_16BE.newEncoder();
+        long written = IntStream.range(0, 100_000).boxed()
+                .collect(MoreCollectors.joiningTo(Channels.newChannel(out), encoder, "\u00e9"));
+        String expected = IntStream.range(0, 100_000).mapToObj(Integer::toString).collect(Collectors.joining("\u00e9"));
+        assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_16BE));
+        assertEquals(expected.length() * 2L, written);
+
+        // the encoder can be used again
+        out.reset();
+        Stream.of("a", "b").collect(MoreCollectors.joiningTo(Channels.newChannel(out), encoder, "-"));
+        assertEquals("a-b", new String(out.toByteArray(), StandardCharsets.UTF_16BE));
+    }
+
+    @Test
+    public void testJoiningToChannelUnmappable() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(UncheckedIOException.class, () -> Stream.of("caf\u00e9")
+                .collect(MoreCollectors.joiningTo(Channels.newChannel(out), StandardCharsets.US_ASCII.newEncoder(), ",")));
+    }
+
+    @Test
+    public void testJoiningToChannelParallel() {
+        // only one part of a parallel stream ever encodes and writes, so the channel is never interleaved
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(IllegalStateException.class, () -> IntStream.range(0, 2_000_000).boxed().parallel()
+                .collect(MoreCollectors.joiningTo(Channels.newChannel(out), StandardCharsets.UTF_8.newEncoder(), ",")));
+        String[] written = new String(out.toByteArray(), StandardCharsets.UTF_8).split(",");
+        // the last number may have been cut off where a full buffer was written
+        for(int i = 1; i < written.length - 1; i++) {
+            assertEquals(Integer.parseInt(written[i - 1]) + 1, Integer.parseInt(written[i]));
+        }
+    }
+
+    @Test
+    public void testFusedIncludingCollectors() {
+        List<String> fruit = Arrays.asList("Pineapple", null, "Papaya", "Kiwi", "Peach", "Papaya", null, "Mango");
+        Predicate<String> startsWithP = s -> s != null && s.startsWith("P");
+        assertEquals(Arrays.asList("Pineapple", "Papaya", "Peach", "Papaya"), fruit.stream().collect(MoreCollectors.includingToList(startsWithP)));
+        assertEquals(new HashSet<>(Arrays.asList("Pineapple", "Papaya", "Peach")), fruit.parallelStream().collect(MoreCollectors.includingToSet(startsWithP)));
+        assertEquals(4L, (long) fruit.parallelStream().collect(MoreCollectors.includingCount(startsWithP)));
+        assertEquals("Pineapple, Papaya, Peach, Papaya", fruit.stream().collect(MoreCollectors.includingJoining(startsWithP, ", ")));
+        assertEquals("", fruit.stream().collect(MoreCollectors.includingJoining(s -> false, ", ")));
+        assertEquals("ab", Arrays.asList("a", "", "b").parallelStream().collect(MoreCollectors.includingJoining(s -> true, "")));
+        List<String> mostlyEmpty = IntStream.range(0, 10_000).mapToObj(i -> i % 97 == 0 ? "x" + i : "").collect(toList());
+        assertEquals(String.join("", mostlyEmpty),
+                mostlyEmpty.parallelStream().collect(MoreCollectors.includingJoining(s -> true, "")));
+        String concurrent = mostlyEmpty.parallelStream().collect(MoreCollectors.concurrentJoining(""));
+        assertEquals(String.join("", mostlyEmpty).length(), concurrent.length());
+
+        List<Integer> numbers = IntStream.range(0, 100_000).boxed().collect(toList());
+        assertEquals(numbers.stream().filter(i -> i % 7 == 0).collect(toList()),
+                numbers.parallelStream().collect(MoreCollectors.includingToList(i -> i % 7 == 0)));
+    }
+
+    @Test
+    public void testFilteringMapping() {
+        String lengths = Stream.of("Tomato", null, "Lettuce", "", "Onion")
+                .collect(MoreCollectors.filteringMapping(StringPredicates.isNull().or(StringPredicates.isEmpty()).negate(),
+                        String::length, MoreCollectors.joining(", ")));
+        assertEquals("6, 7, 5", lengths);
+
+        Set<Integer> evenSquares = IntStream.range(0, 1000).boxed().parallel()
+                .collect(MoreCollectors.filteringMapping(i -> i % 2 == 0, i -> i * i, Collectors.toSet()));
+        assertEquals(500, evenSquares.size());
+    }
+
     @Test
     public void testCollectorIgnoringNulls() {
         Collector<String, ?, List<String>> nullExcludingListCollector =
@@ -90,6 +309,108 @@ public final class MoreCollectorsTest {
         assertEquals("RcsMessage { id: 1 }", rcsMessages.get(0).toString());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testByType() {
+        Stream<Object> messages = Stream.of(new RcsMessage(1), new SmsMessage(2), "not a message", null,
+                new MmsMessage(3), new SmsMessage(4), 5);
+        Map<Class<?>, Collector<?, ?, ?>> collectors = new LinkedHashMap<>();
+        collectors.put(SmsMessage.class, Collectors.toList());
+        collectors.put(MmsMessage.class, Collectors.counting());
+        collectors.put(Message.class, MoreCollectors.joining(", "));
+        collectors.put(Number.class, Collectors.toList());
+        Map<Class<?>, Object> results = messages.collect(MoreCollectors.byType(collectors));
+
+        assertEquals(Arrays.asList(SmsMessage.class, MmsMessage.class, Message.class, Number.class), new ArrayList<>(results.keySet()));
+        List<SmsMessage> sms = (List<SmsMessage>) results.get(SmsMessage.class);
+        assertEquals("SmsMessage { id: 2 }, SmsMessage { id: 4 }", sms.stream().collect(MoreCollectors.joining(", ")));
+        assertEquals(1L, results.get(MmsMessage.class));
+        assertEquals("RcsMessage { id: 1 }", results.get(Message.class));
+        assertEquals(Collections.singletonList(5), results.get(Number.class));
+    }
+
+    @Test
+    public void testByTypeInParallel() {
+        Map<Class<?>, Collector<?, ?, ?>> collectors = new LinkedHashMap<>();
+        collectors.put(Integer.class, Collectors.counting());
+        collectors.put(String.class, Collectors.toSet());
+        Map<Class<?>, Object> results = IntStream.range(0, 10_000).parallel()
+                .mapToObj(i -> i % 3 == 0 ? (Object) Integer.toString(i % 30) : (Object) i)
+                .collect(MoreCollectors.byType(collectors));
+        assertEquals(6666L, results.get(Integer.class));
+        assertEquals(10, ((Set<?>) results.get(String.class)).size());
+    }
+
+    @Test
+    public void testConcurrentTypedCollector() {
+        Collector<Object, ?, Set<String>> strings = MoreCollectors.concurrentTypedCollector(String.class, ConcurrentHashMap::newKeySet);
+        assertTrue(strings.characteristics().contains(Collector.Characteristics.CONCURRENT));
+        Set<String> result = IntStream.range(0, 10_000).parallel()
+                .mapToObj(i -> i % 2 == 0 ? (Object) Integer.toString(i) : (Object) i)
+                .collect(strings);
+        assertEquals(5_000, result.size());
+
+        Queue<RcsMessage> rcs = Stream.of(new RcsMessage(1), new SmsMessage(2), new RcsMessage(3))
+                .collect(MoreCollectors.concurrentTypedCollector(RcsMessage.class, ConcurrentLinkedQueue::new));
+        assertEquals(2, rcs.size());
+    }
+
+    @Test
+    public void testIncludingKeepsConcurrent() {
+        Collector<Integer, ?, ConcurrentMap<Integer, Integer>> evens = MoreCollectors.including(i -> i % 2 == 0,
+                Collectors.toConcurrentMap(i -> i, i -> i * i));
+        assertTrue(evens.characteristics().contains(Collector.Characteristics.CONCURRENT));
+        assertEquals(500, IntStream.range(0, 1000).boxed().parallel().collect(evens).size());
+
+        Collector<Integer, ?, ConcurrentMap<Integer, Integer>> odds = MoreCollectors.excluding(i -> i % 2 == 0,
+                Collectors.toConcurrentMap(i -> i, i -> i * i));
+        assertTrue(odds.characteristics().contains(Collector.Characteristics.CONCURRENT));
+        assertEquals(500, IntStream.range(0, 1000).boxed().parallel().collect(odds).size());
+    }
+
+    @Test
+    public void testConcurrentJoining() {
+        String joined = IntStream.range(0, 100_000).boxed().parallel().collect(MoreCollectors.concurrentJoining(",", "[", "]"));
+        assertTrue(joined.startsWith("[") && joined.endsWith("]"));
+        List<Integer> values = Arrays.stream(joined.substring(1, joined.length() - 1).split(","))
+                .map(Integer::valueOf).sorted().collect(toList());
+        assertEquals(IntStream.range(0, 100_000).boxed().collect(toList()), values);
+
+        assertEquals("[]", Stream.empty().parallel().collect(MoreCollectors.concurrentJoining(",", "[", "]")));
+        assertEquals("solo", Stream.of("solo").collect(MoreCollectors.concurrentJoining(",")));
+    }
+
+    @Test
+    public void testTopKAndBottomK() {
+        List<Integer> numbers = new Random(11).ints(100_000, 0, 1_000_000).boxed().collect(toList());
+        for(int k : new int[] {0, 1, 10, 1000}) {
+            assertEquals(numbers.stream().sorted(Comparator.reverseOrder()).limit(k).collect(toList()),
+                    numbers.parallelStream().collect(MoreCollectors.topK(k, Comparator.<Integer>naturalOrder())));
+            assertEquals(numbers.stream().sorted().limit(k).collect(toList()),
+                    numbers.stream().collect(MoreCollectors.bottomK(k, Comparator.<Integer>naturalOrder())));
+        }
+        assertEquals(Arrays.asList(3, 2, 1), Stream.of(2, 3, 1).collect(MoreCollectors.topK(5, Comparator.<Integer>naturalOrder())));
+        assertThrows(IllegalArgumentException.class, () -> MoreCollectors.topK(-1, Comparator.<Integer>naturalOrder()));
+    }
+
+    @Test
+    public void testTopKWithExtractors() {
+        List<String> words = Arrays.asList("kiwi", "fig", "banana", "apple", "pomegranate", "plum");
+        assertEquals(Arrays.asList("pomegranate", "banana"), words.stream().collect(MoreCollectors.topK(2, String::length)));
+        assertEquals(Arrays.asList("fig", "kiwi"), words.stream().collect(MoreCollectors.bottomK(2, (String w) -> w.length())));
+
+        String lastHolidays = allHolidays().collect(MoreCollectors.topK(2, ComparatorPredicates.where(Holiday::getDate)))
+                .stream().collect(MoreCollectors.joining(", "));
+        assertEquals("2018-12-25, 2018-12-24", lastHolidays);
+        String firstHolidays = allHolidays().collect(MoreCollectors.bottomK(2, ComparatorPredicates.where(Holiday::getDate)))
+                .stream().collect(MoreCollectors.joining(", "));
+        assertEquals("2018-01-01, 2018-04-01", firstHolidays);
+
+        ValueComparisonPredicates<String, Integer> length = ValueComparisonPredicates.where(w -> w == null ? null : w.length());
+        assertEquals(Arrays.asList("pomegranate"), words.stream().collect(MoreCollectors.topK(1, length)));
+        assertEquals(Arrays.asList(null, "fig"), Stream.of("fig", null, "banana").collect(MoreCollectors.bottomK(2, length)));
+    }
+
     interface Message {
         void send();
         boolean wasSent();
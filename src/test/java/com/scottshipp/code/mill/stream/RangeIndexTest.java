@@ -0,0 +1,128 @@
+package com.scottshipp.code.mill.stream;
+
+import com.scottshipp.code.mill.data.Holiday;
+import com.scottshipp.code.mill.data.TestValues;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.chrono.ChronoLocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class RangeIndexTest {
+
+    @Test
+    public void testMatchingHolidays() {
+        ValueComparisonPredicates<Holiday, ChronoLocalDate> date = ValueComparisonPredicates.where(Holiday::getDate);
+        RangeIndex<Holiday, ChronoLocalDate> index = RangeIndex.over(date)
+                .addLessThan(1, LocalDate.of(2018, 6, 1))
+                .addInRangeClosed(2, LocalDate.of(2018, 7, 4), LocalDate.of(2018, 11, 22))
+                .add(3, date.isLessThan(LocalDate.of(2018, 2, 1)).or(date.isGreaterThan(LocalDate.of(2018, 12, 24))))
+                .build();
+        assertEquals(3, index.size());
+
+        String matching = TestValues.allHolidays()
+                .map(h -> h.getDate() + "=" + index.matching(h).sorted().boxed().collect(Collectors.toList()))
+                .collect(Collectors.joining(", "));
+        assertEquals("2018-01-01=[1, 3], 2018-04-01=[1], 2018-05-28=[1], 2018-07-04=[2], "
+                + "2018-09-03=[2], 2018-11-22=[2], 2018-11-23=[], 2018-12-24=[], 2018-12-25=[3]", matching);
+    }
+
+    @Test
+    public void testNullValues() {
+        ValueComparisonPredicates<String, Integer> length = ValueComparisonPredicates.where(s -> s == null ? null : s.length());
+        RangeIndex<String, Integer> index = RangeIndex.over(length)
+                .addGreaterThan(1, 2)
+                .add(2, length.isGreaterThan(2).negate())
+                .build();
+        assertArrayEquals(new int[] {2}, index.matching(null).toArray());
+        assertArrayEquals(new int[] {1}, index.matching("abc").toArray());
+
+        ComparatorPredicates<String> where = ComparatorPredicates.where(Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+        RangeIndex<String, String> nullsFirst = RangeIndex.over(where)
+                .addLessThan(1, "b")
+                .addGreaterThan(2, "a")
+                .build();
+        assertArrayEquals(new int[] {1}, nullsFirst.matching(null).toArray());
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        RangeIndex<Integer, Integer> index = RangeIndex.over(ValueComparisonPredicates.<Integer, Integer>where(i -> i)).build();
+        assertEquals(0, index.size());
+        assertEquals(0, index.matching(5).count());
+        assertEquals(new BitSet(), index.matchingBits(5));
+    }
+
+    @Test
+    public void testOnlyEmptyRanges() {
+        ValueComparisonPredicates<Integer, Integer> v = ValueComparisonPredicates.where(i -> i);
+        RangeIndex<Integer, Integer> emptyOpen = RangeIndex.over(v).addInRangeOpen(1, 5, 5).build();
+        assertEquals(1, emptyOpen.size());
+        assertEquals(new BitSet(), emptyOpen.matchingBits(5));
+        assertEquals(0, emptyOpen.matching(4).count());
+
+        RangeIndex<Integer, Integer> contradiction = RangeIndex.over(v)
+                .add(1, v.isGreaterThan(3).and(v.isLessThan(2)))
+                .addInRangeOpen(2, 7, 7)
+                .build();
+        assertEquals(0, contradiction.matching(2).count());
+        assertEquals(0, contradiction.matching(7).count());
+
+        RangeIndex<Integer, Integer> mixed = RangeIndex.over(v)
+                .addInRangeOpen(1, 5, 5)
+                .addInRangeClosed(2, 5, 5)
+                .build();
+        assertArrayEquals(new int[] {2}, mixed.matching(5).toArray());
+    }
+
+    @Test
+    public void testRejectsOtherPredicates() {
+        ValueComparisonPredicates<String, Integer> length = ValueComparisonPredicates.where(String::length);
+        RangeIndex.Builder<String, Integer> builder = RangeIndex.over(length).addGreaterThan(1, 2);
+        assertThrows(IllegalArgumentException.class, () -> builder.add(2, s -> s.isEmpty()));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.add(2, ValueComparisonPredicates.where(String::length).isGreaterThan(2)));
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        Random random = new Random(7);
+        ComparatorPredicates<Integer> where = ComparatorPredicates.where(Comparator.<Integer>naturalOrder());
+        List<Predicate<Integer>> ranges = new ArrayList<>();
+        RangeIndex.Builder<Integer, Integer> builder = RangeIndex.over(where);
+        for(int id = 0; id < 500; id++) {
+            int low = random.nextInt(1000);
+            int high = low + random.nextInt(200);
+            Predicate<Integer> range;
+            switch(random.nextInt(6)) {
+                case 0: range = where.isInRangeOpen(low, high); break;
+                case 1: range = where.isGreaterThan(low); break;
+                case 2: range = where.isLessThanOrEqualTo(high); break;
+                case 3: range = where.isInRangeClosed(low, low); break;
+                case 4: range = where.isInRangeClosed(low, high).negate(); break;
+                default: range = where.isInRangeClosed(low, high).or(where.isInRangeOpen(high + 50, high + 90)); break;
+            }
+            ranges.add(range);
+            builder.add(id, range);
+        }
+        RangeIndex<Integer, Integer> index = builder.build();
+        for(int value = -10; value < 1300; value++) {
+            int element = value;
+            BitSet expected = new BitSet();
+            IntStream.range(0, ranges.size()).filter(id -> ranges.get(id).test(element)).forEach(expected::set);
+            assertEquals(expected, index.matchingBits(value), "value " + value);
+            assertEquals(expected.cardinality(), index.matching(value).count());
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.scottshipp.code.mill.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SpillingStreamOpsTest {
+
+    @Test
+    public void testDistinctWithinBudgetKeepsOrder() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        SpillConfig<String> config = SpillConfig.of(Serializer.strings()).maxInMemory(100).directory(directory);
+        List<String> result = StreamOps.distinctValues(config,
+                Stream.of("pear", "fig", "pear"), Stream.of("kiwi", "fig", null, null)).collect(Collectors.toList());
+        assertEquals(Arrays.asList("pear", "fig", "kiwi", null), result);
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testDistinctSpillsToDisk() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        SpillConfig<Integer> config = SpillConfig.of(Serializer.integers()).maxInMemory(500).partitions(8).directory(directory);
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Integer> first = IntStream.range(0, 20_000).map(i -> i % 7_000).boxed().onClose(() -> closed.set(true));
+        Stream<Integer> second = IntStream.range(5_000, 12_000).boxed();
+        try(Stream<Integer> distinct = StreamOps.distinctValues(config, first, second)) {
+            List<Integer> result = distinct.collect(Collectors.toList());
+            assertEquals(12_000, result.size());
+            assertEquals(IntStream.range(0, 12_000).boxed().collect(Collectors.toSet()), new HashSet<>(result));
+        }
+        assertTrue(closed.get());
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testClosingEarlyDeletesFiles() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        SpillConfig<Long> config = SpillConfig.of(Serializer.longs()).maxInMemory(100).directory(directory);
+        try(Stream<Long> distinct = StreamOps.distinctValues(config, IntStream.range(0, 10_000).mapToObj(i -> (long) i))) {
+            Iterator<Long> iterator = distinct.iterator();
+            iterator.next();
+            assertTrue(fileCount(directory) > 0);
+        }
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testCollidingHashesStillFinish() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        Serializer<Collider> serializer = new Serializer<Collider>() {
+            @Override
+            public void write(Collider value, java.io.DataOutput out) throws IOException {
+                out.writeInt(value.id);
+            }
+
+            @Override
+            public Collider read(java.io.DataInput in) throws IOException {
+                return new Collider(in.readInt());
+            }
+        };
+        SpillConfig<Collider> config = SpillConfig.of(serializer).maxInMemory(10).partitions(2).directory(directory);
+        Set<Collider> result = StreamOps.distinctValues(config, IntStream.range(0, 300).mapToObj(i -> new Collider(i % 100)))
+                .collect(Collectors.toSet());
+        assertEquals(100, result.size());
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testSpillFailure() throws IOException {
+        Path missing = Files.createTempDirectory("spill-test");
+        Files.delete(missing);
+        SpillConfig<Integer> config = SpillConfig.of(Serializer.integers()).maxInMemory(10).directory(missing);
+        assertThrows(UncheckedIOException.class, () -> StreamOps.distinctValues(config, IntStream.range(0, 100).boxed()).count());
+        assertThrows(IllegalArgumentException.class, () -> config.partitions(1));
+        assertThrows(IllegalArgumentException.class, () -> config.maxInMemory(0));
+    }
+
+    @Test
+    public void testIntersectionWithinBudgetKeepsOrderOfLargest() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        SpillConfig<String> config = SpillConfig.of(Serializer.strings()).maxInMemory(100).directory(directory);
+        List<String> result = StreamOps.intersection(config,
+                Arrays.asList("fig", "kiwi", "pear").stream(),
+                Arrays.asList("pear", "plum", "kiwi", "fig", "kiwi", "lime").stream()).collect(Collectors.toList());
+        assertEquals(Arrays.asList("pear", "kiwi", "fig"), result);
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testIntersectionSpillsToDisk() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        SpillConfig<Integer> config = SpillConfig.of(Serializer.integers()).maxInMemory(200).partitions(4).directory(directory);
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Integer> multiplesOfTwo = IntStream.range(0, 30_000).map(i -> i * 2).boxed().onClose(() -> closed.set(true));
+        Stream<Integer> multiplesOfThree = IntStream.range(0, 20_000).map(i -> i * 3).boxed();
+        Stream<Integer> withNull = Stream.concat(IntStream.range(0, 60_000).boxed(), Stream.of((Integer) null));
+        try(Stream<Integer> common = StreamOps.intersection(config, multiplesOfTwo, multiplesOfThree, withNull)) {
+            List<Integer> result = common.collect(Collectors.toList());
+            assertEquals(10_000, result.size());
+            assertEquals(IntStream.range(0, 10_000).map(i -> i * 6).boxed().collect(Collectors.toSet()), new HashSet<>(result));
+        }
+        assertTrue(closed.get());
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testDifferenceWithinBudgetKeepsOrder() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        SpillConfig<String> config = SpillConfig.of(Serializer.strings()).maxInMemory(100).directory(directory);
+        List<String> result = StreamOps.difference(config,
+                Stream.of("pear", "fig", "pear", null, "kiwi", null), Stream.of("fig"), Stream.of("plum")).collect(Collectors.toList());
+        assertEquals(Arrays.asList("pear", null, "kiwi"), result);
+        assertEquals(0, StreamOps.difference(config).count());
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testDifferenceSpillsExclusionsToDisk() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        SpillConfig<Integer> config = SpillConfig.of(Serializer.integers()).maxInMemory(300).partitions(4).directory(directory);
+        Set<Integer> result = StreamOps.difference(config,
+                IntStream.range(0, 10_000).boxed(), IntStream.range(0, 10_000).filter(i -> i % 10 != 0).boxed())
+                .collect(Collectors.toSet());
+        assertEquals(IntStream.range(0, 1_000).map(i -> i * 10).boxed().collect(Collectors.toSet()), result);
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testDifferenceSpillsOnceEmittedElementsPassBudget() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        SpillConfig<Integer> config = SpillConfig.of(Serializer.integers()).maxInMemory(100).partitions(2).directory(directory);
+        List<Integer> result = StreamOps.difference(config,
+                IntStream.range(0, 30_000).map(i -> i % 5_000).boxed(), Stream.of(7, 8, 9))
+                .collect(Collectors.toList());
+        assertEquals(4_997, result.size());
+        Set<Integer> expected = IntStream.range(0, 5_000).boxed().collect(Collectors.toSet());
+        expected.removeAll(Arrays.asList(7, 8, 9));
+        assertEquals(expected, new HashSet<>(result));
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testSetOperationClosingEarlyDeletesFiles() throws IOException {
+        Path directory = Files.createTempDirectory("spill-test");
+        SpillConfig<Long> config = SpillConfig.of(Serializer.longs()).maxInMemory(50).directory(directory);
+        try(Stream<Long> common = StreamOps.intersection(config,
+                LongStream.range(0, 5_000).boxed(), LongStream.range(0, 5_000).boxed())) {
+            common.iterator().next();
+            assertTrue(fileCount(directory) > 0);
+        }
+        assertEquals(0, fileCount(directory));
+        Files.delete(directory);
+    }
+
+    private static long fileCount(Path directory) throws IOException {
+        try(Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static final class Collider {
+        final int id;
+
+        Collider(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Collider && ((Collider) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+}
@@ -3,12 +3,24 @@ package com.scottshipp.code.mill.stream;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 public class StreamOpsTest {
@@ -93,11 +105,66 @@ public class StreamOpsTest {
         );
     }
 
+    @Test
+    public void testConcatKeepsExactSize() {
+        List<Integer> first = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        List<Integer> second = IntStream.range(0, 500).boxed().collect(Collectors.toList());
+        assertEquals(1500, StreamOps.concat(first, second).spliterator().getExactSizeIfKnown());
+        assertEquals(1500, StreamOps.concat(first.stream(), second.stream(), Stream.empty()).spliterator().getExactSizeIfKnown());
+        assertEquals(3, StreamOps.concat(new Integer[] {1, 2}, new Integer[] {3}).spliterator().getExactSizeIfKnown());
+    }
+
+    @Test
+    public void testConcatOfNoStreams() {
+        @SuppressWarnings("unchecked")
+        Stream<Integer>[] none = (Stream<Integer>[]) new Stream<?>[0];
+        Spliterator<Integer> empty = StreamOps.concat(none).spliterator();
+        assertEquals(0, empty.getExactSizeIfKnown());
+        assertEquals(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE, empty.characteristics());
+        assertEquals(0, StreamOps.concat(none).count());
+    }
+
+    @Test
+    public void testConcatInParallelKeepsEncounterOrder() {
+        List<List<Integer>> partitions = new ArrayList<>();
+        for(int i = 0; i < 8; i++) {
+            partitions.add(IntStream.range(i * 10_000, (i + 1) * 10_000).boxed().collect(Collectors.toList()));
+        }
+        @SuppressWarnings("unchecked")
+        List<Integer>[] asArray = partitions.toArray(new List[0]);
+        assertEquals(IntStream.range(0, 80_000).boxed().collect(Collectors.toList()),
+                StreamOps.concat(asArray).parallel().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testConcatShortCircuits() {
+        AtomicInteger reads = new AtomicInteger();
+        Optional<Integer> firstEven = StreamOps.concat(
+                Stream.of(1, 2, 3).peek(i -> reads.incrementAndGet()),
+                Stream.iterate(4, i -> i + 1).peek(i -> reads.incrementAndGet())
+        ).filter(i -> i % 2 == 0).findFirst();
+        assertEquals(Optional.of(2), firstEven);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testConcatClosesStreams() {
+        AtomicInteger closed = new AtomicInteger();
+        StreamOps.concat(Stream.of(1).onClose(closed::incrementAndGet), Stream.of(2).onClose(closed::incrementAndGet))
+                .close();
+        assertEquals(2, closed.get());
+    }
+
     @Test
     public void testIntersectionOfOneStream() {
         assertEquals(0, StreamOps.intersection(Stream.empty()).count());
     }
 
+    @Test
+    public void testIntersectionOfNoStreams() {
+        assertEquals(0, StreamOps.<Integer>intersection().count());
+    }
+
     @Test
     public void testIntersectionOfTwoStreams() {
         Stream<String> engineeringTeam1 = Stream.of(
@@ -157,6 +224,65 @@ public class StreamOpsTest {
                 ).count());
     }
 
+    @Test
+    public void testIntersectionIsDistinctAndIndependentOfOrder() {
+        List<Integer> small = Arrays.asList(5, 3, 3, 9);
+        List<Integer> large = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        List<Integer> duplicated = Arrays.asList(9, 9, 5, 3, 5, 3, 7);
+
+        assertEquals(Arrays.asList(3, 5, 9),
+                StreamOps.intersection(large.stream(), small.stream(), duplicated.stream()).sorted()
+                        .collect(Collectors.toList()));
+        assertEquals(Arrays.asList(3, 5, 9),
+                StreamOps.intersection(duplicated.stream(), large.stream(), small.stream()).sorted()
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testIntersectionIsLazy() {
+        AtomicInteger reads = new AtomicInteger();
+        Stream<Integer> intersection = StreamOps.intersection(
+                Stream.of(1, 2, 3).peek(i -> reads.incrementAndGet()),
+                Stream.of(2, 3, 4).peek(i -> reads.incrementAndGet()));
+        assertEquals(0, reads.get());
+        assertEquals(Arrays.asList(2, 3), intersection.sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testIntersectionStopsWhenNoCandidatesRemain() {
+        AtomicInteger reads = new AtomicInteger();
+        long count = StreamOps.intersection(Arrays.<Collection<Integer>>asList(
+                Arrays.asList(1, 2),
+                IntStream.range(0, 1000).boxed().collect(Collectors.toList()),
+                new ArrayList<Integer>() {
+                    @Override
+                    public Spliterator<Integer> spliterator() {
+                        return IntStream.range(0, 10_000).boxed().peek(i -> reads.incrementAndGet()).spliterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return 10_000;
+                    }
+                })).count();
+        assertEquals(2, count);
+        assertEquals(3, reads.get());
+    }
+
+    @Test
+    public void testIntersectionOfCollectionsDoesNotModifySets() {
+        Set<String> admins = new HashSet<>(Arrays.asList("Riley Joson", "Jean Limon", "Tatum Greene"));
+        Set<String> onCall = new TreeSet<>(Arrays.asList("Jean Limon", "Riley Joson", "Harper Olsen"));
+        List<String> engineers = Arrays.asList("Jean Limon", "Harper Olsen", "Riley Joson", "Jean Limon");
+
+        assertEquals("Jean Limon, Riley Joson",
+                StreamOps.intersection(Arrays.asList(admins, onCall, engineers)).sorted().collect(Collectors.joining(", ")));
+        assertEquals("Jean Limon, Riley Joson",
+                StreamOps.intersection(Arrays.asList(admins, onCall)).sorted().collect(Collectors.joining(", ")));
+        assertEquals(3, admins.size());
+        assertEquals(3, onCall.size());
+    }
+
     @Test
     public void testDifferenceOfStreams() {
         Stream<String> engineeringTeam1 = Stream.of(
@@ -183,6 +309,134 @@ public class StreamOpsTest {
         );
     }
 
+    @Test
+    public void testDifferenceExcludesLastStream() {
+        assertEquals("Harper Olsen, Tatum Greene",
+                StreamOps.difference(
+                        Stream.of("Harper Olsen", "Riley Joson", "Tatum Greene", "Jack Kennedy"),
+                        Stream.of("Riley Joson"),
+                        Stream.of("Jack Kennedy")
+                ).collect(Collectors.joining(", ")));
+    }
+
+    @Test
+    public void testDifferenceIsDistinct() {
+        assertEquals(Arrays.asList(3, 1, 4),
+                StreamOps.difference(Stream.of(3, 1, 4, 1, 5, 9, 3), Stream.of(5, 9))
+                        .collect(Collectors.toList()));
+        assertEquals(Arrays.asList(3, 1, 4), StreamOps.difference(Stream.of(3, 1, 3, 4, 1)).collect(Collectors.toList()));
+        assertEquals(0, StreamOps.<Integer>difference().count());
+    }
+
+    @Test
+    public void testDifferenceOfCollectionsDoesNotModifySets() {
+        Set<String> contractors = new HashSet<>(Arrays.asList("Tatum Greene", "Jean Limon"));
+        List<String> managers = Arrays.asList("Riley Joson");
+        List<String> staff = Arrays.asList("Riley Joson", "Jean Limon", "Harper Olsen", "Tatum Greene", "Rory Rivers");
+
+        assertEquals("Harper Olsen, Rory Rivers",
+                StreamOps.difference(Arrays.asList(staff, contractors, managers)).collect(Collectors.joining(", ")));
+        assertEquals(2, contractors.size());
+    }
+
+    @Test
+    public void testScreenedDifferenceMatchesExactDifference() {
+        List<Integer> exclusions = IntStream.range(0, 5_000).map(i -> i * 3).boxed().collect(Collectors.toList());
+        List<Integer> values = IntStream.range(0, 20_000).map(i -> i % 12_000).boxed().collect(Collectors.toList());
+
+        Set<Integer> expected = StreamOps.difference(values.stream(), exclusions.stream()).collect(Collectors.toSet());
+        // an undersized filter forces plenty of false positives through exact verification
+        List<Integer> screened = StreamOps.difference(values.stream(), exclusions::stream, 100, 0.5)
+                .collect(Collectors.toList());
+        assertEquals(expected.size(), screened.size());
+        assertEquals(expected, new HashSet<>(screened));
+    }
+
+    @Test
+    public void testSortedIntersection() {
+        assertEquals(Arrays.asList(3, 7),
+                StreamOps.sortedIntersection(Comparator.naturalOrder(),
+                        Stream.of(1, 3, 3, 5, 7, 9),
+                        Stream.of(2, 3, 4, 7, 7, 8, 9),
+                        Stream.of(0, 3, 6, 7)
+                ).collect(Collectors.toList()));
+        assertEquals(0, StreamOps.sortedIntersection(Comparator.<Integer>naturalOrder(), Stream.of(1, 2), Stream.empty()).count());
+    }
+
+    @Test
+    public void testSortedDifference() {
+        assertEquals(Arrays.asList(1, 5, 9),
+                StreamOps.sortedDifference(Comparator.naturalOrder(),
+                        Stream.of(1, 1, 3, 5, 7, 9),
+                        Stream.of(2, 3, 4),
+                        Stream.of(7, 8)
+                ).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testSortedUnionAndDistinct() {
+        assertEquals(Arrays.asList("Ash", "Birch", "Birch", "Cedar", "Elm", "Fir", "Fir"),
+                StreamOps.sortedUnion(Comparator.naturalOrder(),
+                        Stream.of("Birch", "Elm", "Fir"),
+                        Stream.of("Ash", "Birch", "Cedar", "Fir")
+                ).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("ash", "Birch", "Cedar", "elm", "Fir"),
+                StreamOps.sortedDistinct(String.CASE_INSENSITIVE_ORDER,
+                        Stream.of("Birch", "elm", "Fir"),
+                        Stream.of("ash", "birch", "Cedar", "FIR")
+                ).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testSortedOperationsRejectUnsortedInput() {
+        Stream<Integer> merged = StreamOps.sortedDistinct(Comparator.naturalOrder(), Stream.of(1, 4, 2), Stream.of(3));
+        assertThrows(IllegalStateException.class, () -> merged.collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testRangeOfSortedList() {
+        List<Integer> sorted = Arrays.asList(1, 3, 3, 5, 7, 7, 7, 9);
+        assertEquals(Arrays.asList(3, 3, 5, 7, 7, 7), StreamOps.rangeOf(sorted, 3, 7).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(5), StreamOps.rangeOf(sorted, 4, 6).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(1, 3, 3, 5, 7, 7, 7, 9), StreamOps.rangeOf(sorted, 0, 10).collect(Collectors.toList()));
+        assertEquals(0, StreamOps.rangeOf(sorted, 10, 20).count());
+        assertEquals(0, StreamOps.rangeOf(sorted, 7, 3).count());
+        assertEquals(Arrays.asList(7, 7, 7, 5), StreamOps.rangeOf(Arrays.asList(9, 7, 7, 7, 5, 3),
+                Comparator.reverseOrder(), 8, 4).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testRangeOfMatchesFilter() {
+        List<Integer> sorted = IntStream.range(0, 200).map(i -> i / 3).boxed().collect(Collectors.toList());
+        List<Integer> linked = new java.util.LinkedList<>(sorted);
+        Integer[] array = sorted.toArray(new Integer[0]);
+        TreeSet<Integer> set = new TreeSet<>(sorted);
+        for(int low = -2; low < 70; low += 3) {
+            for(int high = low - 1; high < 72; high += 5) {
+                int lo = low;
+                int hi = high;
+                List<Integer> expected = sorted.stream().filter(i -> lo <= i && i <= hi).collect(Collectors.toList());
+                assertEquals(expected, StreamOps.rangeOf(sorted, low, high).collect(Collectors.toList()));
+                assertEquals(expected, StreamOps.rangeOf(linked, low, high).collect(Collectors.toList()));
+                assertEquals(expected, StreamOps.rangeOf(array, Comparator.naturalOrder(), low, high).collect(Collectors.toList()));
+                assertEquals(expected.stream().distinct().collect(Collectors.toList()),
+                        StreamOps.rangeOf(set, low, high).collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    public void testRangeOfComparesLogarithmically() {
+        List<Integer> sorted = IntStream.range(0, 1 << 20).boxed().collect(Collectors.toList());
+        AtomicInteger comparisons = new AtomicInteger();
+        Comparator<Integer> counting = (a, b) -> {
+            comparisons.incrementAndGet();
+            return a.compareTo(b);
+        };
+        assertEquals(11, StreamOps.rangeOf(sorted, counting, 1000, 1010).count());
+        assertTrue(comparisons.get() <= 42, comparisons.get() + " comparisons");
+    }
+
     @Test
     public void testNonNullStreams() {
         List<String> listWithNulls = Arrays.asList(null, null, "Harper",
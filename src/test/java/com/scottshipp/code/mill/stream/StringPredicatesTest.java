@@ -2,13 +2,23 @@ package com.scottshipp.code.mill.stream;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.Random;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.scottshipp.code.mill.stream.ComparablePredicates.isBetween;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public final class StringPredicatesTest {
 
@@ -57,4 +67,117 @@ public final class StringPredicatesTest {
         assertEquals("Jr. Software Engineer, Software Engineer, Sr. Software Engineer",
                 softwareEngineers);
     }
+
+    @Test
+    public void testMatches() {
+        assertEquals(Arrays.asList("abc123", null),
+                Stream.of("abc123", "abc", "x abc123", null).filter(StringPredicates.matches("[a-z]+\\d+").or(StringPredicates.isNull()))
+                        .collect(Collectors.toList()));
+        assertTrue(StringPredicates.matches("abc", Pattern.CASE_INSENSITIVE).test("ABC"));
+        assertFalse(StringPredicates.matches(Pattern.compile("b")).test("abc"));
+        assertFalse(StringPredicates.matches("abc").test(null));
+        assertTrue(StringPredicates.matches((String) null).test(null));
+        assertFalse(StringPredicates.matches((String) null).test("abc"));
+    }
+
+    @Test
+    public void testFinding() {
+        assertEquals(Arrays.asList("GET /api/users 500", "POST /api/orders 503"),
+                Stream.of("GET /api/users 500", "GET /health 200", "POST /api/orders 503")
+                        .filter(StringPredicates.finding("/api/.* 5\\d\\d$"))
+                        .collect(Collectors.toList()));
+        assertTrue(StringPredicates.finding("ERROR", Pattern.CASE_INSENSITIVE).test("an error occurred"));
+        assertTrue(StringPredicates.finding(Pattern.compile("b")).test("abc"));
+        assertFalse(StringPredicates.finding("b").test(null));
+    }
+
+    @Test
+    public void testPatternCacheIsBounded() {
+        for(int i = 0; i < PatternCache.MAX_SIZE * 2; i++) {
+            StringPredicates.matches("value" + i);
+        }
+        assertEquals(PatternCache.MAX_SIZE, PatternCache.size());
+        assertSame(PatternCache.compile("a+b", 0), PatternCache.compile("a+b", 0));
+        assertNotSame(PatternCache.compile("a+b", 0), PatternCache.compile("a+b", Pattern.CASE_INSENSITIVE));
+    }
+
+    @Test
+    public void testContainingIgnoreCase() {
+        Predicate<String> chrome = StringPredicates.containingIgnoreCase("chrome/");
+        assertTrue(chrome.test("Mozilla/5.0 AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0"));
+        assertTrue(chrome.test("CHROME/"));
+        assertFalse(chrome.test("Mozilla/5.0 Firefox/121.0"));
+        assertFalse(chrome.test("chrome"));
+        assertFalse(chrome.test(null));
+        assertTrue(StringPredicates.containingIgnoreCase("").test("abc"));
+        assertTrue(StringPredicates.containingIgnoreCase((String) null).test(null));
+        assertFalse(StringPredicates.containingIgnoreCase((String) null).test("abc"));
+        // matches String.regionMatches beyond ASCII, such as the Kelvin sign and dotless i
+        assertTrue(StringPredicates.containingIgnoreCase("\u212Aelvin").test("0 kelvin"));
+        assertTrue(StringPredicates.containingIgnoreCase("kelvin").test("0 \u212Aelvin"));
+        assertTrue(StringPredicates.containingIgnoreCase("\u0131d").test("ID"));
+    }
+
+    @Test
+    public void testStartsAndEndsWithIgnoreCase() {
+        assertTrue(StringPredicates.startsWithIgnoreCase("mozilla/").test("Mozilla/5.0"));
+        assertFalse(StringPredicates.startsWithIgnoreCase("mozilla/").test("Opera/9.80"));
+        assertFalse(StringPredicates.startsWithIgnoreCase("mozilla/").test("Moz"));
+        assertTrue(StringPredicates.endsWithIgnoreCase("SAFARI/605.1").test("Version/17.0 Safari/605.1"));
+        assertFalse(StringPredicates.endsWithIgnoreCase("safari/605.1").test("605.1"));
+        assertFalse(StringPredicates.endsWithIgnoreCase("x").test(null));
+        assertTrue(StringPredicates.endsWithIgnoreCase(null).test(null));
+        assertFalse(StringPredicates.startsWithIgnoreCase(null).test("abc"));
+    }
+
+    @Test
+    public void testContainingAnyAndAll() {
+        List<String> keywords = Arrays.asList("he", "she", "his", "hers");
+        Predicate<String> any = StringPredicates.containingAny(keywords);
+        Predicate<String> all = StringPredicates.containingAll(keywords);
+        assertTrue(any.test("ushers"));
+        assertFalse(any.test("usurp"));
+        assertFalse(any.test(null));
+        assertTrue(all.test("she said his was hers"));
+        assertFalse(all.test("ushers"));
+        assertFalse(all.test(null));
+
+        assertFalse(StringPredicates.containingAny(Collections.emptyList()).test("abc"));
+        assertTrue(StringPredicates.containingAll(Collections.emptyList()).test("abc"));
+        assertTrue(StringPredicates.containingAny(Collections.singletonList("")).test(""));
+
+        assertTrue(StringPredicates.containingAnyIgnoreCase(keywords).test("USHERS"));
+        assertTrue(StringPredicates.containingAllIgnoreCase(keywords).test("SHE said HIS was Hers"));
+        assertFalse(StringPredicates.containingAllIgnoreCase(keywords).test("SHE said HIS"));
+    }
+
+    @Test
+    public void testContainingAnyAndAllMatchNaiveSearch() {
+        Random random = new Random(42);
+        for(int round = 0; round < 200; round++) {
+            List<String> keywords = new ArrayList<>();
+            for(int i = 0, n = 1 + random.nextInt(20); i < n; i++) {
+                keywords.add(randomString(random, 1 + random.nextInt(4)));
+            }
+            Predicate<String> any = StringPredicates.containingAny(keywords);
+            Predicate<String> all = StringPredicates.containingAll(keywords);
+            Predicate<String> anyIgnoreCase = StringPredicates.containingAnyIgnoreCase(keywords);
+            for(int i = 0; i < 50; i++) {
+                String text = randomString(random, random.nextInt(40));
+                assertEquals(keywords.stream().anyMatch(text::contains), any.test(text));
+                assertEquals(keywords.stream().allMatch(text::contains), all.test(text));
+                assertEquals(keywords.stream().anyMatch(k -> StringPredicates.containingIgnoreCase(k).test(text)),
+                        anyIgnoreCase.test(text));
+            }
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        // a small alphabet in both cases makes overlapping matches common
+        char[] chars = new char[length];
+        for(int i = 0; i < length; i++) {
+            chars[i] = "abcAB".charAt(random.nextInt(5));
+        }
+        return new String(chars);
+    }
 }